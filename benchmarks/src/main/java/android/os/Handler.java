@@ -0,0 +1,30 @@
+package android.os;
+
+/**
+ * Minimal JVM stand-in for the Android class, so the GreenRobot EventBus can be instantiated outside
+ * of Android. Only the members GreenRobot references are provided; messages are never delivered.
+ */
+public class Handler {
+
+    private final Looper looper;
+
+    public Handler(Looper looper) {
+        this.looper = looper;
+    }
+
+    public final Looper getLooper() {
+        return looper;
+    }
+
+    public final Message obtainMessage() {
+        return new Message();
+    }
+
+    public final boolean sendMessage(Message message) {
+        return true;
+    }
+
+    public void handleMessage(Message message) {
+    }
+
+}
@@ -0,0 +1,22 @@
+package android.os;
+
+/**
+ * Minimal JVM stand-in for the Android class, so the GreenRobot EventBus can be instantiated outside
+ * of Android. No thread is ever the main thread.
+ */
+public final class Looper {
+
+    private static final Looper MAIN_LOOPER = new Looper();
+
+    private Looper() {
+    }
+
+    public static Looper getMainLooper() {
+        return MAIN_LOOPER;
+    }
+
+    public static Looper myLooper() {
+        return null;
+    }
+
+}
@@ -0,0 +1,8 @@
+package android.os;
+
+/**
+ * Minimal JVM stand-in for the Android class, so the GreenRobot EventBus can be instantiated outside
+ * of Android.
+ */
+public final class Message {
+}
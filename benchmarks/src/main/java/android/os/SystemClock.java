@@ -0,0 +1,16 @@
+package android.os;
+
+/**
+ * Minimal JVM stand-in for the Android class, so the GreenRobot EventBus can be instantiated outside
+ * of Android.
+ */
+public final class SystemClock {
+
+    private SystemClock() {
+    }
+
+    public static long uptimeMillis() {
+        return System.nanoTime() / 1000000L;
+    }
+
+}
@@ -0,0 +1,27 @@
+package android.util;
+
+/**
+ * Minimal JVM stand-in for the Android class, so the GreenRobot EventBus can be instantiated outside
+ * of Android. Debug output is discarded, warnings and errors go to standard error.
+ */
+public final class Log {
+
+    private Log() {
+    }
+
+    public static int d(String tag, String msg) {
+        return 0;
+    }
+
+    public static int w(String tag, String msg) {
+        System.err.println(tag + ": " + msg);
+        return 0;
+    }
+
+    public static int e(String tag, String msg, Throwable tr) {
+        System.err.println(tag + ": " + msg);
+        tr.printStackTrace();
+        return 0;
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.cookingfox.eventbus.benchmark;
+
+import com.cookingfox.eventbus.EventBus;
+import com.cookingfox.eventbus.adapter.GreenRobot2EventBusAdapter;
+import com.cookingfox.eventbus.adapter.GreenRobot3EventBusAdapter;
+import com.cookingfox.eventbus.adapter.GuavaEventBusAdapter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of the adapter indirection: posting on the wrapped library directly, compared to
+ * posting on the same library instance through its adapter, typed to {@link EventBus}.
+ * <p>
+ * Every benchmark method runs in its own fork, so the call site through the interface only ever
+ * sees one adapter class. Compare `*_direct` with `*_adapter` of the same library.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdapterOverheadBenchmark {
+
+    private final Object event = new BenchmarkEvents.Event0();
+
+    private com.google.common.eventbus.EventBus guava;
+    private de.greenrobot.event.EventBus greenRobot2;
+    private org.greenrobot.eventbus.EventBus greenRobot3;
+
+    private EventBus guavaAdapter;
+    private EventBus greenRobot2Adapter;
+    private EventBus greenRobot3Adapter;
+
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole) {
+        guava = Implementation.createGuava();
+        greenRobot2 = Implementation.createGreenRobot2();
+        greenRobot3 = Implementation.createGreenRobot3();
+
+        guava.register(new BenchmarkSubscriber(blackhole));
+        greenRobot2.register(new BenchmarkSubscriber(blackhole));
+        greenRobot3.register(new BenchmarkSubscriber(blackhole));
+
+        guavaAdapter = new GuavaEventBusAdapter(guava);
+        greenRobot2Adapter = new GreenRobot2EventBusAdapter(greenRobot2);
+        greenRobot3Adapter = new GreenRobot3EventBusAdapter(greenRobot3);
+    }
+
+    @Benchmark
+    public void guava_direct() {
+        guava.post(event);
+    }
+
+    @Benchmark
+    public void guava_adapter() {
+        guavaAdapter.post(event);
+    }
+
+    @Benchmark
+    public void greenRobot2_direct() {
+        greenRobot2.post(event);
+    }
+
+    @Benchmark
+    public void greenRobot2_adapter() {
+        greenRobot2Adapter.post(event);
+    }
+
+    @Benchmark
+    public void greenRobot3_direct() {
+        greenRobot3.post(event);
+    }
+
+    @Benchmark
+    public void greenRobot3_adapter() {
+        greenRobot3Adapter.post(event);
+    }
+
+}
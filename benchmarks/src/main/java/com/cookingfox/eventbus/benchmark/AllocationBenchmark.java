@@ -0,0 +1,99 @@
+package com.cookingfox.eventbus.benchmark;
+
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the bytes that {@link TestableEventBus#post(Object)} allocates per posted event, for
+ * every concurrency mode, with and without recording posted events.
+ * <p>
+ * Run the {@link #main} method instead of the JMH jar to run the benchmark with the GC profiler and
+ * assert that posting without recording does not allocate:
+ * `java -cp target/benchmarks.jar com.cookingfox.eventbus.benchmark.AllocationBenchmark`.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AllocationBenchmark {
+
+    /**
+     * The maximum normalized allocation rate of posting without recording. The GC profiler
+     * reports a tiny rate for non-allocating code, since its own bookkeeping is spread over the
+     * operations.
+     */
+    public static final double MAX_BYTES_PER_POST = 0.1;
+
+    /**
+     * The capacity of the posted events log when recording: {@link TestableEventBus.RETENTION#ALL}
+     * would fill the heap during the measurement.
+     */
+    public static final int POSTED_EVENTS_CAPACITY = 1024;
+
+    @Param({"SYNCHRONIZED", "STRIPED", "COPY_ON_WRITE"})
+    public TestableEventBus.CONCURRENCY concurrency;
+
+    @Param({"LAST", "NONE"})
+    public TestableEventBus.RETENTION retention;
+
+    @Param({"1", "10"})
+    public int subscriberCount;
+
+    private TestableEventBus eventBus;
+    private final Object event = new BenchmarkEvents.Event0();
+
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole) {
+        eventBus = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME, concurrency)
+                .addMethodName(BenchmarkSubscriber.METHOD_NAME)
+                .setPostedEventsRetention(retention, POSTED_EVENTS_CAPACITY);
+
+        for (int i = 0; i < subscriberCount; i++) {
+            eventBus.register(new BenchmarkSubscriber(blackhole));
+        }
+    }
+
+    @Benchmark
+    public void post() {
+        eventBus.post(event);
+    }
+
+    /**
+     * Runs the benchmark with the GC profiler and fails if posting without recording allocates.
+     */
+    public static void main(final String[] args) throws RunnerException {
+        final Options options = new OptionsBuilder()
+                .include(AllocationBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        for (RunResult result : new Runner(options).run()) {
+            if (!TestableEventBus.RETENTION.NONE.name().equals(result.getParams().getParam("retention"))) {
+                continue;
+            }
+
+            final Result<?> allocation = result.getSecondaryResults().get("gc.alloc.rate.norm");
+
+            if (allocation == null) {
+                throw new IllegalStateException("The GC profiler reported no allocation rate");
+            } else if (allocation.getScore() > MAX_BYTES_PER_POST) {
+                throw new AssertionError("Posting without recording allocates " + allocation.getScore() +
+                        " bytes per post, with concurrency " + result.getParams().getParam("concurrency") +
+                        " and " + result.getParams().getParam("subscriberCount") + " subscribers");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.cookingfox.eventbus.benchmark;
+
+import com.cookingfox.eventbus.EventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to publish a batch of `batchSize` events with {@link EventBus#postAll(Iterable)}
+ * versus calling {@link EventBus#post(Object)} for every event, for every {@link Implementation}.
+ * The batch cycles through `eventTypeCount` event types.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchPostBenchmark {
+
+    @Param({"TESTABLE", "GUAVA", "GREENROBOT2", "GREENROBOT3"})
+    public Implementation implementation;
+
+    @Param({"100", "10000"})
+    public int batchSize;
+
+    @Param({"1", "8"})
+    public int eventTypeCount;
+
+    @Param({"1"})
+    public int subscriberCount;
+
+    private List<Object> batch;
+    private EventBus eventBus;
+
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole) {
+        final Object[] events = BenchmarkEvents.create(eventTypeCount);
+
+        batch = new ArrayList<>(batchSize);
+        eventBus = implementation.create();
+
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(events[i % events.length]);
+        }
+
+        for (int i = 0; i < subscriberCount; i++) {
+            eventBus.register(new BenchmarkSubscriber(blackhole));
+        }
+    }
+
+    @Benchmark
+    public void post_each() {
+        for (Object event : batch) {
+            eventBus.post(event);
+        }
+    }
+
+    @Benchmark
+    public void postAll() {
+        eventBus.postAll(batch);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void post_each_4threads() {
+        post_each();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void postAll_4threads() {
+        postAll();
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.cookingfox.eventbus.benchmark;
+
+/**
+ * Distinct event types, used to vary the number of event types that are posted.
+ *
+ * @see BenchmarkSubscriber
+ */
+public final class BenchmarkEvents {
+
+    /**
+     * The number of distinct event types that {@link BenchmarkSubscriber} listens to.
+     */
+    public static final int MAX_EVENT_TYPES = 8;
+
+    private BenchmarkEvents() {
+    }
+
+    /**
+     * Returns one event instance for each of the first `count` event types.
+     */
+    public static Object[] create(final int count) {
+        if (count < 1 || count > MAX_EVENT_TYPES) {
+            throw new IllegalArgumentException("Event type count must be between 1 and " + MAX_EVENT_TYPES);
+        }
+
+        final Object[] all = new Object[]{
+                new Event0(), new Event1(), new Event2(), new Event3(),
+                new Event4(), new Event5(), new Event6(), new Event7()
+        };
+
+        final Object[] events = new Object[count];
+        System.arraycopy(all, 0, events, 0, count);
+
+        return events;
+    }
+
+    public static class Event0 {
+    }
+
+    public static class Event1 {
+    }
+
+    public static class Event2 {
+    }
+
+    public static class Event3 {
+    }
+
+    public static class Event4 {
+    }
+
+    public static class Event5 {
+    }
+
+    public static class Event6 {
+    }
+
+    public static class Event7 {
+    }
+
+}
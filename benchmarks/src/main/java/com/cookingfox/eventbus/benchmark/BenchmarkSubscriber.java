@@ -0,0 +1,82 @@
+package com.cookingfox.eventbus.benchmark;
+
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.Subscribe;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Subscriber that can be registered on every benchmarked implementation: the `onEvent` method name
+ * is used by {@link com.cookingfox.eventbus.testable.TestableEventBus} and GreenRobot 2, and the
+ * annotations by Guava and GreenRobot 3.
+ * <p>
+ * Guava serializes calls to subscribers that are not marked with {@link AllowConcurrentEvents}, so
+ * it is added to keep the multi-threaded numbers comparable.
+ */
+@SuppressWarnings("unused")
+public class BenchmarkSubscriber {
+
+    static final String METHOD_NAME = "onEvent";
+
+    private final Blackhole blackhole;
+
+    public BenchmarkSubscriber(Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Subscribe
+    @AllowConcurrentEvents
+    @org.greenrobot.eventbus.Subscribe
+    public void onEvent(BenchmarkEvents.Event0 event) {
+        blackhole.consume(event);
+    }
+
+    @Subscribe
+    @AllowConcurrentEvents
+    @org.greenrobot.eventbus.Subscribe
+    public void onEvent(BenchmarkEvents.Event1 event) {
+        blackhole.consume(event);
+    }
+
+    @Subscribe
+    @AllowConcurrentEvents
+    @org.greenrobot.eventbus.Subscribe
+    public void onEvent(BenchmarkEvents.Event2 event) {
+        blackhole.consume(event);
+    }
+
+    @Subscribe
+    @AllowConcurrentEvents
+    @org.greenrobot.eventbus.Subscribe
+    public void onEvent(BenchmarkEvents.Event3 event) {
+        blackhole.consume(event);
+    }
+
+    @Subscribe
+    @AllowConcurrentEvents
+    @org.greenrobot.eventbus.Subscribe
+    public void onEvent(BenchmarkEvents.Event4 event) {
+        blackhole.consume(event);
+    }
+
+    @Subscribe
+    @AllowConcurrentEvents
+    @org.greenrobot.eventbus.Subscribe
+    public void onEvent(BenchmarkEvents.Event5 event) {
+        blackhole.consume(event);
+    }
+
+    @Subscribe
+    @AllowConcurrentEvents
+    @org.greenrobot.eventbus.Subscribe
+    public void onEvent(BenchmarkEvents.Event6 event) {
+        blackhole.consume(event);
+    }
+
+    @Subscribe
+    @AllowConcurrentEvents
+    @org.greenrobot.eventbus.Subscribe
+    public void onEvent(BenchmarkEvents.Event7 event) {
+        blackhole.consume(event);
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.cookingfox.eventbus.benchmark;
+
+import com.cookingfox.eventbus.EventBus;
+import com.cookingfox.eventbus.async.AsyncEventBus;
+import com.cookingfox.eventbus.async.DispatchExecutors;
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures the time to deliver events to subscribers that block, like subscribers that wait for
+ * I/O: synchronously on the posting thread, on a fixed pool of platform threads and on virtual
+ * threads. Every operation posts {@link #EVENTS} events and waits until all subscribers have
+ * received them; the score is the time per event.
+ * <p>
+ * On JVMs without virtual threads (before Java 21) the virtual thread dispatchers fall back to a
+ * fixed pool of {@link #MAX_CONCURRENCY} platform threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockingSubscriberBenchmark {
+
+    /**
+     * The number of events per operation.
+     */
+    public static final int EVENTS = 10;
+
+    /**
+     * The number of platform threads of the fixed pool.
+     */
+    public static final int POOL_SIZE = 16;
+
+    /**
+     * The maximum number of subscriber invocations that run at the same time on virtual threads.
+     */
+    public static final int MAX_CONCURRENCY = 1000;
+
+    public enum Dispatcher {
+
+        /**
+         * {@link TestableEventBus}: all subscribers on the posting thread.
+         */
+        SYNCHRONOUS,
+
+        /**
+         * {@link AsyncEventBus} with a task per subscriber invocation, on {@link #POOL_SIZE}
+         * platform threads.
+         */
+        FIXED_POOL,
+
+        /**
+         * {@link AsyncEventBus} with a virtual thread per subscriber invocation.
+         */
+        VIRTUAL_THREADS,
+
+        /**
+         * {@link AsyncEventBus} with a virtual thread per event, which invokes all subscribers.
+         */
+        VIRTUAL_THREADS_PER_EVENT
+
+    }
+
+    @Param({"SYNCHRONOUS", "FIXED_POOL", "VIRTUAL_THREADS", "VIRTUAL_THREADS_PER_EVENT"})
+    public Dispatcher dispatcher;
+
+    @Param({"10", "100"})
+    public int subscriberCount;
+
+    /**
+     * How long a subscriber blocks per event.
+     */
+    @Param({"100"})
+    public int blockMicros;
+
+    private EventBus eventBus;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final TestableEventBus bus;
+
+        switch (dispatcher) {
+            case FIXED_POOL:
+                executor = Executors.newFixedThreadPool(POOL_SIZE);
+                bus = new AsyncEventBus(TestableEventBus.MODE.METHOD_NAME, executor,
+                        AsyncEventBus.ORDERING.UNORDERED);
+                break;
+
+            case VIRTUAL_THREADS:
+                executor = DispatchExecutors.newVirtualThreadExecutor(MAX_CONCURRENCY);
+                bus = new AsyncEventBus(TestableEventBus.MODE.METHOD_NAME, executor,
+                        AsyncEventBus.ORDERING.UNORDERED);
+                break;
+
+            case VIRTUAL_THREADS_PER_EVENT:
+                executor = DispatchExecutors.newVirtualThreadExecutor(MAX_CONCURRENCY);
+                bus = new AsyncEventBus(TestableEventBus.MODE.METHOD_NAME, executor,
+                        AsyncEventBus.ORDERING.PER_EVENT);
+                break;
+
+            default:
+                bus = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME);
+        }
+
+        bus.addMethodName(BlockingSubscriber.METHOD_NAME)
+                .setPostedEventsRetention(TestableEventBus.RETENTION.NONE);
+
+        for (int i = 0; i < subscriberCount; i++) {
+            bus.register(new BlockingSubscriber(TimeUnit.MICROSECONDS.toNanos(blockMicros)));
+        }
+
+        eventBus = bus;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void post_and_await() throws InterruptedException {
+        final CountDownLatch delivered = new CountDownLatch(EVENTS * subscriberCount);
+
+        for (int i = 0; i < EVENTS; i++) {
+            eventBus.post(new BlockingEvent(delivered));
+        }
+
+        delivered.await();
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // FIXTURES
+    //----------------------------------------------------------------------------------------------
+
+    public static class BlockingEvent {
+
+        final CountDownLatch delivered;
+
+        BlockingEvent(final CountDownLatch delivered) {
+            this.delivered = delivered;
+        }
+
+    }
+
+    public static class BlockingSubscriber {
+
+        static final String METHOD_NAME = "onEvent";
+
+        private final long blockNanos;
+
+        BlockingSubscriber(final long blockNanos) {
+            this.blockNanos = blockNanos;
+        }
+
+        public void onEvent(final BlockingEvent event) {
+            // parks like a thread that waits for I/O: virtual threads unmount from their carrier
+            LockSupport.parkNanos(blockNanos);
+
+            event.delivered.countDown();
+        }
+
+    }
+
+}
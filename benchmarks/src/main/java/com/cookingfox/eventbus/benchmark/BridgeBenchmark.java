@@ -0,0 +1,199 @@
+package com.cookingfox.eventbus.benchmark;
+
+import com.cookingfox.eventbus.bridge.BridgeEventBus;
+import com.cookingfox.eventbus.journal.EventSerializer;
+import com.cookingfox.eventbus.journal.SerializableEventSerializer;
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link BridgeEventBus} between two bridges that are connected over a localhost socket,
+ * with a compact binary serializer and with Java serialization:
+ * - `post`: the throughput of forwarding events. Posting only serializes the event into the send
+ * buffer, so once the buffer is full, the throughput is bounded by the writer, the socket and the
+ * remote reader.
+ * - `roundTrip`: latency percentiles of posting a ping that the remote subscriber answers with a
+ * pong, over both bridges.
+ * <p>
+ * Both bridges run in the benchmark JVM, so the numbers exclude the cost of a second process.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BridgeBenchmark {
+
+    public enum Serializer {
+        BINARY,
+        JAVA
+    }
+
+    @Param({"BINARY", "JAVA"})
+    public Serializer serializer;
+
+    private BridgeEventBus local;
+    private BridgeEventBus remote;
+    private final PongSubscriber pongSubscriber = new PongSubscriber();
+    private long sequence = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final SocketChannel localChannel;
+        final SocketChannel remoteChannel;
+
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            localChannel = SocketChannel.open(server.getLocalAddress());
+            remoteChannel = server.accept();
+        }
+
+        localChannel.socket().setTcpNoDelay(true);
+        remoteChannel.socket().setTcpNoDelay(true);
+
+        final EventSerializer eventSerializer = serializer == Serializer.BINARY
+                ? new BinarySerializer()
+                : new SerializableEventSerializer();
+
+        final TestableEventBus localEventBus = createEventBus();
+        localEventBus.register(pongSubscriber);
+        local = new BridgeEventBus(localEventBus, localChannel, eventSerializer).addForwardedType(Ping.class);
+
+        final TestableEventBus remoteEventBus = createEventBus();
+        remote = new BridgeEventBus(remoteEventBus, remoteChannel, eventSerializer).addForwardedType(Pong.class);
+        remoteEventBus.register(new PingSubscriber(remote));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        local.close();
+        remote.close();
+    }
+
+    @Benchmark
+    public void post() {
+        local.post(new Ping(++sequence, false));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public void roundTrip() {
+        final long expected = ++sequence;
+
+        local.post(new Ping(expected, true));
+
+        while (pongSubscriber.received != expected) {
+            Thread.yield();
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // HELPERS
+    //----------------------------------------------------------------------------------------------
+
+    private static TestableEventBus createEventBus() {
+        final TestableEventBus eventBus = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME);
+        eventBus.addMethodName(BenchmarkSubscriber.METHOD_NAME);
+        eventBus.setPostedEventsRetention(TestableEventBus.RETENTION.NONE);
+
+        return eventBus;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // FIXTURES
+    //----------------------------------------------------------------------------------------------
+
+    public static class Ping implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final boolean answer;
+        final long sequence;
+
+        Ping(long sequence, boolean answer) {
+            this.answer = answer;
+            this.sequence = sequence;
+        }
+    }
+
+    public static class Pong implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final long sequence;
+
+        Pong(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Writes a type byte and the fields of {@link Ping} and {@link Pong}.
+     */
+    static class BinarySerializer implements EventSerializer {
+        @Override
+        public void serialize(Object event, ByteBuffer buffer) {
+            if (event instanceof Ping) {
+                final Ping ping = (Ping) event;
+
+                buffer.put((byte) (ping.answer ? 1 : 0));
+                buffer.putLong(ping.sequence);
+            } else {
+                buffer.put((byte) 2);
+                buffer.putLong(((Pong) event).sequence);
+            }
+        }
+
+        @Override
+        public Object deserialize(ByteBuffer buffer) {
+            final byte type = buffer.get();
+            final long sequence = buffer.getLong();
+
+            return type == 2 ? new Pong(sequence) : new Ping(sequence, type == 1);
+        }
+    }
+
+    /**
+     * Answers the pings that ask for it with a pong.
+     */
+    @SuppressWarnings("unused")
+    public static class PingSubscriber {
+        private final BridgeEventBus bridge;
+
+        PingSubscriber(BridgeEventBus bridge) {
+            this.bridge = bridge;
+        }
+
+        public void onEvent(Ping ping) {
+            if (ping.answer) {
+                bridge.post(new Pong(ping.sequence));
+            }
+        }
+
+        public void onEvent(Pong pong) {
+            // the bridge also posts forwarded events locally
+        }
+    }
+
+    @SuppressWarnings("unused")
+    public static class PongSubscriber {
+        volatile long received = 0;
+
+        public void onEvent(Ping ping) {
+            // the bridge also posts forwarded events locally
+        }
+
+        public void onEvent(Pong pong) {
+            received = pong.sequence;
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.cookingfox.eventbus.benchmark;
+
+import com.cookingfox.eventbus.EventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures subscriber churn on a bus with many subscribers: registering and then unregistering
+ * `subscriberCount` subscribers, and replacing one subscriber while the others stay registered.
+ * <p>
+ * Only {@link Implementation#TESTABLE} runs by default: Guava and GreenRobot keep copy-on-write
+ * subscriber collections per event type, so every change is linear in the number of subscribers
+ * and setting up this many takes minutes. They can still be selected on the command line, with a
+ * smaller bus (`-p implementation=GUAVA -p subscriberCount=10000`).
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChurnBenchmark {
+
+    @Param({"TESTABLE"})
+    public Implementation implementation;
+
+    @Param({"100000"})
+    public int subscriberCount;
+
+    private Blackhole blackhole;
+    private EventBus eventBus;
+    private int next;
+    private BenchmarkSubscriber[] subscribers;
+
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    /**
+     * A new bus with all subscribers registered, which `replaceOne` churns.
+     */
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        eventBus = implementation.create();
+        subscribers = new BenchmarkSubscriber[subscriberCount];
+        next = 0;
+
+        for (int i = 0; i < subscriberCount; i++) {
+            subscribers[i] = new BenchmarkSubscriber(blackhole);
+            eventBus.register(subscribers[i]);
+        }
+    }
+
+    /**
+     * Registers all subscribers on an empty bus and unregisters them again, in registration order.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public void registerAll_unregisterAll() {
+        final EventBus bus = implementation.create();
+
+        for (BenchmarkSubscriber subscriber : subscribers) {
+            bus.register(subscriber);
+        }
+
+        for (BenchmarkSubscriber subscriber : subscribers) {
+            bus.unregister(subscriber);
+        }
+    }
+
+    /**
+     * Unregisters the oldest subscriber and registers a new one in its place.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public void replaceOne() {
+        final BenchmarkSubscriber subscriber = new BenchmarkSubscriber(blackhole);
+
+        eventBus.unregister(subscribers[next]);
+        eventBus.register(subscriber);
+
+        subscribers[next] = subscriber;
+        next = (next + 1) % subscriberCount;
+    }
+
+}
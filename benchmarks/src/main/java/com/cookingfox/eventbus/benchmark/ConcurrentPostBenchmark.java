@@ -0,0 +1,70 @@
+package com.cookingfox.eventbus.benchmark;
+
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link TestableEventBus#post(Object)} throughput scales with the number of posting
+ * threads, for each {@link TestableEventBus.CONCURRENCY} mode, with a bounded posted events log and
+ * without one. The total throughput of all threads is reported, so a mode that scales shows a
+ * higher score for more threads, up to the number of available cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentPostBenchmark {
+
+    @Param({"SYNCHRONIZED", "STRIPED", "COPY_ON_WRITE"})
+    public TestableEventBus.CONCURRENCY concurrency;
+
+    @Param({"LAST", "NONE"})
+    public TestableEventBus.RETENTION retention;
+
+    @Param({"10"})
+    public int subscriberCount;
+
+    private TestableEventBus eventBus;
+    private final Object event = new BenchmarkEvents.Event0();
+
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole) {
+        eventBus = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME, concurrency)
+                .addMethodName(BenchmarkSubscriber.METHOD_NAME)
+                .setPostedEventsRetention(retention, Implementation.POSTED_EVENTS_CAPACITY);
+
+        for (int i = 0; i < subscriberCount; i++) {
+            eventBus.register(new BenchmarkSubscriber(blackhole));
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void post_1thread() {
+        eventBus.post(event);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void post_2threads() {
+        eventBus.post(event);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void post_4threads() {
+        eventBus.post(event);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void post_8threads() {
+        eventBus.post(event);
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.cookingfox.eventbus.benchmark;
+
+import com.cookingfox.eventbus.EventBus;
+import com.cookingfox.eventbus.adapter.GreenRobot2EventBusAdapter;
+import com.cookingfox.eventbus.adapter.GreenRobot3EventBusAdapter;
+import com.cookingfox.eventbus.adapter.GuavaEventBusAdapter;
+import com.cookingfox.eventbus.testable.TestableEventBus;
+
+/**
+ * The {@link EventBus} implementations that are compared by the benchmarks. Used as a JMH
+ * {@code @Param}, so the constant names can be passed on the command line (`-p implementation=GUAVA`).
+ */
+public enum Implementation {
+
+    TESTABLE {
+        @Override
+        public EventBus create() {
+            // the wrapped libraries pass events to supertype listeners as well
+            return new TestableEventBus(TestableEventBus.MODE.METHOD_NAME)
+                    .addMethodName(BenchmarkSubscriber.METHOD_NAME)
+                    .setEventInheritance(true)
+                    .setPostedEventsRetention(TestableEventBus.RETENTION.LAST, POSTED_EVENTS_CAPACITY);
+        }
+    },
+
+    GUAVA {
+        @Override
+        public EventBus create() {
+            return new GuavaEventBusAdapter(createGuava());
+        }
+    },
+
+    GREENROBOT2 {
+        @Override
+        public EventBus create() {
+            return new GreenRobot2EventBusAdapter(createGreenRobot2());
+        }
+    },
+
+    GREENROBOT3 {
+        @Override
+        public EventBus create() {
+            return new GreenRobot3EventBusAdapter(createGreenRobot3());
+        }
+    };
+
+    /**
+     * The number of posted events that {@link TestableEventBus} retains, so that long benchmark
+     * runs measure dispatching instead of garbage collection.
+     */
+    public static final int POSTED_EVENTS_CAPACITY = 1024;
+
+    /**
+     * Creates a new, empty EventBus for this implementation.
+     */
+    public abstract EventBus create();
+
+    //----------------------------------------------------------------------------------------------
+    // FACTORIES FOR THE WRAPPED EVENTBUS LIBRARIES
+    //----------------------------------------------------------------------------------------------
+
+    static com.google.common.eventbus.EventBus createGuava() {
+        return new com.google.common.eventbus.EventBus();
+    }
+
+    static de.greenrobot.event.EventBus createGreenRobot2() {
+        return de.greenrobot.event.EventBus.builder()
+                .logNoSubscriberMessages(false)
+                .sendNoSubscriberEvent(false)
+                .build();
+    }
+
+    static org.greenrobot.eventbus.EventBus createGreenRobot3() {
+        return org.greenrobot.eventbus.EventBus.builder()
+                .logNoSubscriberMessages(false)
+                .sendNoSubscriberEvent(false)
+                .build();
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.cookingfox.eventbus.benchmark;
+
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the first {@link TestableEventBus#register(Object)} of a subscriber class on a new bus,
+ * when its subscriber methods are not cached yet: found using reflection versus looked up in the
+ * {@link BenchmarkSubscriberIndex}, which is generated at compile time by the subscriber index
+ * processor.
+ * <p>
+ * This measures a warmed-up JVM. For the first registration after startup, including class loading,
+ * run with `-bm ss -wi 0 -i 1 -f 20`.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndexedRegistrationBenchmark {
+
+    public enum Lookup {
+        REFLECTION,
+        INDEX
+    }
+
+    @Param({"REFLECTION", "INDEX"})
+    public Lookup lookup;
+
+    private Blackhole blackhole;
+    private TestableEventBus eventBus;
+
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    /**
+     * A new bus per invocation, since the bus caches the subscriber methods per class.
+     */
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        eventBus = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME)
+                .addMethodName(BenchmarkSubscriber.METHOD_NAME);
+
+        if (lookup == Lookup.INDEX) {
+            eventBus.addIndex(new BenchmarkSubscriberIndex());
+        }
+    }
+
+    @Benchmark
+    public TestableEventBus register_new_bus() {
+        eventBus.register(new BenchmarkSubscriber(blackhole));
+
+        return eventBus;
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.cookingfox.eventbus.benchmark;
+
+import com.cookingfox.eventbus.EventBus;
+import com.cookingfox.eventbus.instrumented.InstrumentedEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the recording cost of {@link InstrumentedEventBus}: {@link EventBus#post(Object)} on an
+ * {@link Implementation} directly versus through the instrumented decorator. Compare the scores
+ * with `instrumented=false` and `instrumented=true` of the same implementation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstrumentationBenchmark {
+
+    @Param({"TESTABLE", "GUAVA", "GREENROBOT3"})
+    public Implementation implementation;
+
+    @Param({"false", "true"})
+    public boolean instrumented;
+
+    @Param({"1", "8"})
+    public int eventTypeCount;
+
+    private EventBus eventBus;
+    private Object[] events;
+
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole) {
+        final EventBus bus = implementation.create();
+
+        bus.register(new BenchmarkSubscriber(blackhole));
+
+        eventBus = instrumented ? new InstrumentedEventBus(bus) : bus;
+        events = BenchmarkEvents.create(eventTypeCount);
+    }
+
+    @Benchmark
+    public void post(final Poster poster) {
+        poster.post(this);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void post_4threads(final Poster poster) {
+        poster.post(this);
+    }
+
+    /**
+     * Per-thread posting state: the cursor in the event type rotation.
+     */
+    @State(Scope.Thread)
+    public static class Poster {
+
+        private int count;
+
+        void post(final InstrumentationBenchmark state) {
+            final Object[] events = state.events;
+
+            state.eventBus.post(events[count++ % events.length]);
+        }
+
+    }
+
+}
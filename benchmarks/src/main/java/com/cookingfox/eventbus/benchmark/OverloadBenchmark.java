@@ -0,0 +1,133 @@
+package com.cookingfox.eventbus.benchmark;
+
+import com.cookingfox.eventbus.async.AsyncEventBus;
+import com.cookingfox.eventbus.async.DispatchStatistics;
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import com.cookingfox.eventbus.testable.TestableEventBusException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link AsyncEventBus#post(Object)} throughput under overload: one subscriber that
+ * spends `consumeTokens` of CPU time per event, on a single thread, receives events from posters
+ * that post as fast as they can. Its queue holds `capacity` deliveries, and the
+ * {@link AsyncEventBus.OVERFLOW} policy decides what happens when it is full.
+ * <p>
+ * The score is the posting throughput; the `delivered` and `rejected` secondary results show how
+ * many of the posted events reached the subscriber and how many found its queue full. With
+ * {@link AsyncEventBus.OVERFLOW#BLOCK} and {@link AsyncEventBus.OVERFLOW#CALLER_RUNS} the posting
+ * throughput drops to the rate of the subscriber; the drop policies keep posting fast and lose
+ * events instead.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OverloadBenchmark {
+
+    @Param({"BLOCK", "DROP_NEWEST", "DROP_OLDEST", "CALLER_RUNS", "FAIL_FAST"})
+    public AsyncEventBus.OVERFLOW overflow;
+
+    @Param({"1024"})
+    public int capacity;
+
+    /**
+     * The CPU time the subscriber spends per event, see {@link Blackhole#consumeCPU(long)}.
+     */
+    @Param({"1000"})
+    public int consumeTokens;
+
+    private AsyncEventBus eventBus;
+    private final Object event = new OverloadEvent();
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        eventBus = new AsyncEventBus(TestableEventBus.MODE.METHOD_NAME, executor);
+        eventBus.addMethodName(SlowSubscriber.METHOD_NAME)
+                .setPostedEventsRetention(TestableEventBus.RETENTION.NONE);
+        eventBus.setQueueCapacity(capacity, overflow);
+        eventBus.register(new SlowSubscriber(consumeTokens));
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStatistics() {
+        eventBus.resetStatistics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void post(final Counters counters) {
+        try {
+            eventBus.post(event);
+        } catch (TestableEventBusException e) {
+            // fail fast: the poster would retry or report the error
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void post_4threads(final Counters counters) {
+        post(counters);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // FIXTURES
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Reports the number of delivered and rejected events of the iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+
+        public long delivered;
+        public long rejected;
+
+        @TearDown(Level.Iteration)
+        public void collect(final OverloadBenchmark benchmark, final BenchmarkParams params) {
+            final DispatchStatistics statistics = benchmark.eventBus.getStatistics();
+
+            // the statistics are shared: split them over the posting threads
+            final int threads = params.getThreads();
+
+            delivered = statistics.delivered / threads;
+            rejected = statistics.rejected / threads;
+        }
+
+    }
+
+    public static class OverloadEvent {
+
+    }
+
+    public static class SlowSubscriber {
+
+        static final String METHOD_NAME = "onEvent";
+
+        private final int consumeTokens;
+
+        SlowSubscriber(final int consumeTokens) {
+            this.consumeTokens = consumeTokens;
+        }
+
+        public void onEvent(final OverloadEvent event) {
+            Blackhole.consumeCPU(consumeTokens);
+        }
+
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.cookingfox.eventbus.benchmark;
+
+import com.cookingfox.eventbus.async.EventKeyExtractor;
+import com.cookingfox.eventbus.async.PartitionedEventBus;
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to deliver keyed events on a {@link PartitionedEventBus}, per number of
+ * lanes: one lane delivers all events in global order, more lanes deliver the events of different
+ * keys in parallel. The subscriber spends `consumeTokens` of CPU time per event. Every operation
+ * posts {@link #EVENTS} events for `keyCount` keys and waits until they are delivered; the score
+ * is the time per event.
+ * <p>
+ * Lanes only run in parallel on separate cores: compare with the number of available processors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PartitionedBenchmark {
+
+    /**
+     * The number of events per operation.
+     */
+    public static final int EVENTS = 1000;
+
+    @Param({"1", "4", "8"})
+    public int laneCount;
+
+    @Param({"64"})
+    public int keyCount;
+
+    /**
+     * The CPU time the subscriber spends per event, see {@link Blackhole#consumeCPU(long)}.
+     */
+    @Param({"1000"})
+    public int consumeTokens;
+
+    private PartitionedEventBus eventBus;
+    private KeyedEvent[] events;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventBus = new PartitionedEventBus(TestableEventBus.MODE.METHOD_NAME, laneCount);
+        eventBus.addMethodName(KeyedSubscriber.METHOD_NAME)
+                .setPostedEventsRetention(TestableEventBus.RETENTION.NONE);
+        eventBus.addKeyExtractor(KeyedEvent.class, new EventKeyExtractor<KeyedEvent>() {
+            @Override
+            public Object getKey(KeyedEvent event) {
+                return event.key;
+            }
+        });
+        eventBus.register(new KeyedSubscriber(consumeTokens));
+
+        events = new KeyedEvent[EVENTS];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventBus.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void post_and_await() throws InterruptedException {
+        final CountDownLatch delivered = new CountDownLatch(EVENTS);
+
+        for (int i = 0; i < EVENTS; i++) {
+            events[i] = new KeyedEvent(i % keyCount, delivered);
+        }
+
+        for (KeyedEvent event : events) {
+            eventBus.post(event);
+        }
+
+        delivered.await();
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // FIXTURES
+    //----------------------------------------------------------------------------------------------
+
+    public static class KeyedEvent {
+
+        final CountDownLatch delivered;
+        final Integer key;
+
+        KeyedEvent(final Integer key, final CountDownLatch delivered) {
+            this.delivered = delivered;
+            this.key = key;
+        }
+
+    }
+
+    public static class KeyedSubscriber {
+
+        static final String METHOD_NAME = "onEvent";
+
+        private final int consumeTokens;
+
+        KeyedSubscriber(final int consumeTokens) {
+            this.consumeTokens = consumeTokens;
+        }
+
+        public void onEvent(final KeyedEvent event) {
+            Blackhole.consumeCPU(consumeTokens);
+
+            event.delivered.countDown();
+        }
+
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.cookingfox.eventbus.benchmark;
+
+import com.cookingfox.eventbus.EventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link EventBus#post(Object)} throughput and latency percentiles for every
+ * {@link Implementation}, with a varying number of subscribers, event types and posting threads.
+ * <p>
+ * Every subscriber listens to all posted event types, so a single post results in
+ * `subscriberCount` subscriber invocations.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostBenchmark {
+
+    @Param({"TESTABLE", "GUAVA", "GREENROBOT2", "GREENROBOT3"})
+    public Implementation implementation;
+
+    @Param({"1", "10", "100"})
+    public int subscriberCount;
+
+    @Param({"1", "8"})
+    public int eventTypeCount;
+
+    private EventBus eventBus;
+    private Object[] events;
+
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole) {
+        eventBus = implementation.create();
+        events = BenchmarkEvents.create(eventTypeCount);
+
+        for (int i = 0; i < subscriberCount; i++) {
+            eventBus.register(new BenchmarkSubscriber(blackhole));
+        }
+    }
+
+    @Benchmark
+    public void post(final Poster poster) {
+        poster.post(this);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void post_4threads(final Poster poster) {
+        poster.post(this);
+    }
+
+    /**
+     * Per-thread posting state: the cursor in the event type rotation.
+     */
+    @State(Scope.Thread)
+    public static class Poster {
+
+        private int count;
+
+        void post(final PostBenchmark state) {
+            final Object[] events = state.events;
+
+            state.eventBus.post(events[count++ % events.length]);
+        }
+
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.cookingfox.eventbus.benchmark;
+
+import com.cookingfox.eventbus.EventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of {@link EventBus#register(Object)} followed by
+ * {@link EventBus#unregister(Object)} of a new subscriber instance, on a bus that already has
+ * `subscriberCount` subscribers of the same class.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistrationBenchmark {
+
+    @Param({"TESTABLE", "GUAVA", "GREENROBOT2", "GREENROBOT3"})
+    public Implementation implementation;
+
+    @Param({"0", "100", "1000"})
+    public int subscriberCount;
+
+    private Blackhole blackhole;
+    private EventBus eventBus;
+
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    /**
+     * A new bus per iteration, so state that builds up across registrations does not carry over.
+     */
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        eventBus = implementation.create();
+
+        for (int i = 0; i < subscriberCount; i++) {
+            eventBus.register(new BenchmarkSubscriber(blackhole));
+        }
+    }
+
+    @Benchmark
+    public void register_unregister() {
+        final BenchmarkSubscriber subscriber = new BenchmarkSubscriber(blackhole);
+
+        eventBus.register(subscriber);
+        eventBus.unregister(subscriber);
+    }
+
+}
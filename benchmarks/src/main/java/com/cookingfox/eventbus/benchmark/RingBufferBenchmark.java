@@ -0,0 +1,131 @@
+package com.cookingfox.eventbus.benchmark;
+
+import com.cookingfox.eventbus.EventBus;
+import com.cookingfox.eventbus.adapter.GreenRobot3EventBusAdapter;
+import com.cookingfox.eventbus.adapter.GuavaEventBusAdapter;
+import com.cookingfox.eventbus.async.RingBufferEventBus;
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link EventBus#post(Object)} throughput of {@link RingBufferEventBus} for each wait
+ * strategy, against the Guava and GreenRobot 3 adapters. The ring buffer delivers on its consumer
+ * thread, so once the ring buffer is full its throughput is bounded by the consumer.
+ * <p>
+ * Run with `-prof gc` to see that posting on the ring buffer does not allocate. The busy-spin wait
+ * strategy needs a core for the consumer and one for every posting thread.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RingBufferBenchmark {
+
+    /**
+     * The number of slots in the ring buffer.
+     */
+    public static final int CAPACITY = 1024;
+
+    public enum Bus {
+        RING_BUFFER_BUSY_SPIN,
+        RING_BUFFER_YIELD,
+        RING_BUFFER_PARK,
+        GUAVA,
+        GREENROBOT3
+    }
+
+    @Param({"RING_BUFFER_BUSY_SPIN", "RING_BUFFER_YIELD", "RING_BUFFER_PARK", "GUAVA", "GREENROBOT3"})
+    public Bus bus;
+
+    @Param({"1", "10"})
+    public int subscriberCount;
+
+    private EventBus eventBus;
+    private final Object event = new BenchmarkEvents.Event0();
+
+    /**
+     * A new bus per benchmark method, since the single-threaded method uses the single-producer
+     * mode.
+     */
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole, final BenchmarkParams params) {
+        final boolean singleProducer = params.getThreads() == 1;
+
+        switch (bus) {
+            case GUAVA:
+                eventBus = new GuavaEventBusAdapter(Implementation.createGuava());
+                break;
+
+            case GREENROBOT3:
+                eventBus = new GreenRobot3EventBusAdapter(Implementation.createGreenRobot3());
+                break;
+
+            default:
+                eventBus = createRingBuffer(singleProducer);
+        }
+
+        for (int i = 0; i < subscriberCount; i++) {
+            eventBus.register(new BenchmarkSubscriber(blackhole));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        if (eventBus instanceof RingBufferEventBus) {
+            final RingBufferEventBus ringBuffer = (RingBufferEventBus) eventBus;
+
+            ringBuffer.shutdown();
+            ringBuffer.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void post() {
+        eventBus.post(event);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void post_2threads() {
+        eventBus.post(event);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // HELPERS
+    //----------------------------------------------------------------------------------------------
+
+    private EventBus createRingBuffer(final boolean singleProducer) {
+        final RingBufferEventBus.WAIT_STRATEGY waitStrategy;
+
+        switch (bus) {
+            case RING_BUFFER_BUSY_SPIN:
+                waitStrategy = RingBufferEventBus.WAIT_STRATEGY.BUSY_SPIN;
+                break;
+
+            case RING_BUFFER_YIELD:
+                waitStrategy = RingBufferEventBus.WAIT_STRATEGY.YIELD;
+                break;
+
+            default:
+                waitStrategy = RingBufferEventBus.WAIT_STRATEGY.PARK;
+        }
+
+        final RingBufferEventBus.PRODUCER producer = singleProducer
+                ? RingBufferEventBus.PRODUCER.SINGLE
+                : RingBufferEventBus.PRODUCER.MULTI;
+
+        final RingBufferEventBus ringBuffer = new RingBufferEventBus(TestableEventBus.MODE.METHOD_NAME,
+                CAPACITY, producer, waitStrategy);
+        ringBuffer.addMethodName(BenchmarkSubscriber.METHOD_NAME);
+
+        return ringBuffer;
+    }
+
+}
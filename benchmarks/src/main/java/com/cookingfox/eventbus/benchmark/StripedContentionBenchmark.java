@@ -0,0 +1,145 @@
+package com.cookingfox.eventbus.benchmark;
+
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lock contention of {@link TestableEventBus#post(Object)} for each
+ * {@link TestableEventBus.CONCURRENCY} mode, from 1 to 64 posting threads. Every thread posts its
+ * own event type (of {@link BenchmarkEvents#MAX_EVENT_TYPES}), so with
+ * {@link TestableEventBus.CONCURRENCY#STRIPED} the threads only contend when their event types
+ * share a stripe, or when there are more threads than event types.
+ * <p>
+ * The `post_while_registering` group posts on 7 threads while another thread registers and
+ * unregisters a subscriber of an unrelated event type.
+ * <p>
+ * The total throughput of all threads is reported: a mode that scales shows a higher score for
+ * more threads, up to the number of available cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StripedContentionBenchmark {
+
+    @Param({"SYNCHRONIZED", "STRIPED", "COPY_ON_WRITE"})
+    public TestableEventBus.CONCURRENCY concurrency;
+
+    @Param({"10"})
+    public int subscriberCount;
+
+    private TestableEventBus eventBus;
+    private Object[] events;
+
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole) {
+        eventBus = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME, concurrency)
+                .addMethodName(BenchmarkSubscriber.METHOD_NAME)
+                .setPostedEventsRetention(TestableEventBus.RETENTION.NONE);
+        events = BenchmarkEvents.create(BenchmarkEvents.MAX_EVENT_TYPES);
+
+        for (int i = 0; i < subscriberCount; i++) {
+            eventBus.register(new BenchmarkSubscriber(blackhole));
+        }
+
+        // a listener for the event type that the registering thread churns
+        eventBus.register(new UnrelatedSubscriber());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void post_1thread(final Poster poster) {
+        eventBus.post(poster.event);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void post_2threads(final Poster poster) {
+        eventBus.post(poster.event);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void post_4threads(final Poster poster) {
+        eventBus.post(poster.event);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void post_8threads(final Poster poster) {
+        eventBus.post(poster.event);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void post_16threads(final Poster poster) {
+        eventBus.post(poster.event);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void post_32threads(final Poster poster) {
+        eventBus.post(poster.event);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void post_64threads(final Poster poster) {
+        eventBus.post(poster.event);
+    }
+
+    @Benchmark
+    @Group("post_while_registering")
+    @GroupThreads(7)
+    public void post(final Poster poster) {
+        eventBus.post(poster.event);
+    }
+
+    @Benchmark
+    @Group("post_while_registering")
+    @GroupThreads(1)
+    public void register_unregister() {
+        final UnrelatedSubscriber subscriber = new UnrelatedSubscriber();
+
+        eventBus.register(subscriber);
+        eventBus.unregister(subscriber);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // FIXTURES
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Per-thread posting state: the event type of the thread.
+     */
+    @State(Scope.Thread)
+    public static class Poster {
+
+        Object event;
+
+        @Setup(Level.Trial)
+        public void setUp(final StripedContentionBenchmark benchmark, final ThreadParams threadParams) {
+            event = benchmark.events[threadParams.getThreadIndex() % benchmark.events.length];
+        }
+
+    }
+
+    public static class UnrelatedEvent {
+
+    }
+
+    public static class UnrelatedSubscriber {
+
+        public void onEvent(final UnrelatedEvent event) {
+            // no-op
+        }
+
+    }
+
+}
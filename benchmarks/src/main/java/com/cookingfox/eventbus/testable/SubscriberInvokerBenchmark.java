@@ -0,0 +1,61 @@
+package com.cookingfox.eventbus.testable;
+
+import com.cookingfox.eventbus.benchmark.BenchmarkEvents;
+import com.cookingfox.eventbus.benchmark.BenchmarkSubscriber;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-invocation cost of calling a subscriber method: the plain `Method.invoke` call
+ * that {@link TestableEventBus} used before the {@link SubscriberInvoker}s, compared to both
+ * invoker implementations and a direct Java call as the baseline.
+ * <p>
+ * Lives in the `testable` package because the invokers are package-private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubscriberInvokerBenchmark {
+
+    private final BenchmarkEvents.Event0 event = new BenchmarkEvents.Event0();
+
+    private Method method;
+    private SubscriberInvoker methodHandleInvoker;
+    private SubscriberInvoker reflectionInvoker;
+    private BenchmarkSubscriber subscriber;
+
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole) throws Exception {
+        subscriber = new BenchmarkSubscriber(blackhole);
+        method = BenchmarkSubscriber.class.getMethod("onEvent", BenchmarkEvents.Event0.class);
+        methodHandleInvoker = new SubscriberInvoker.MethodHandleInvoker(subscriber, method);
+        reflectionInvoker = new SubscriberInvoker.ReflectionInvoker(subscriber, method);
+    }
+
+    @Benchmark
+    public void direct() {
+        subscriber.onEvent(event);
+    }
+
+    @Benchmark
+    public void methodInvoke() throws Exception {
+        method.invoke(subscriber, event);
+    }
+
+    @Benchmark
+    public void methodHandleInvoker() throws Exception {
+        methodHandleInvoker.invoke(event);
+    }
+
+    @Benchmark
+    public void reflectionInvoker() throws Exception {
+        reflectionInvoker.invoke(event);
+    }
+
+}
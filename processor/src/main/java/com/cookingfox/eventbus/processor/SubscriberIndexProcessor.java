@@ -0,0 +1,388 @@
+package com.cookingfox.eventbus.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a `SubscriberIndex` for the `TestableEventBus` at compile time, like the index of
+ * GreenRobot EventBus 3. The index lists the subscriber methods of every subscriber class with
+ * their event types and an invoker that calls the method directly, so that registering a
+ * subscriber does not need reflection. Add it using `TestableEventBus.addIndex()`.
+ * <p>
+ * Options (pass using `-A<option>=<value>`):
+ * - `eventbus.index`: the fully qualified name of the generated index class (required).
+ * - `eventbus.annotations`: comma-separated fully qualified names of the subscriber annotations.
+ * - `eventbus.methodNames`: comma-separated subscriber method names.
+ * <p>
+ * A subscriber annotation with an `int priority()` attribute sets the priority of the method, like
+ * it does when the event bus finds the method using reflection.
+ * <p>
+ * Like the event bus, only the methods that a class declares itself are subscriber methods. A
+ * class is not indexed when the event bus would reject one of its subscriber methods (not public,
+ * not exactly one parameter, an event type from a `java.*` package) or when the generated index
+ * could not access it: the event bus then falls back to reflection, which reports the same errors
+ * as before.
+ */
+public class SubscriberIndexProcessor extends AbstractProcessor {
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTANTS
+    //----------------------------------------------------------------------------------------------
+
+    public static final String OPTION_ANNOTATIONS = "eventbus.annotations";
+    public static final String OPTION_INDEX = "eventbus.index";
+    public static final String OPTION_METHOD_NAMES = "eventbus.methodNames";
+
+    private static final String INDEXED_METHOD_CLASS = "com.cookingfox.eventbus.testable.IndexedSubscriberMethod";
+    private static final String INDEX_INTERFACE = "com.cookingfox.eventbus.testable.SubscriberIndex";
+
+    //----------------------------------------------------------------------------------------------
+    // PROPERTIES
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Whether the index was generated: only the sources of the first round are indexed.
+     */
+    private boolean processed = false;
+
+    //----------------------------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //----------------------------------------------------------------------------------------------
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        // method name based subscribers do not need an annotation
+        return Collections.singleton("*");
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return new HashSet<>(Arrays.asList(OPTION_ANNOTATIONS, OPTION_INDEX, OPTION_METHOD_NAMES));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (processed || roundEnv.processingOver() || roundEnv.getRootElements().isEmpty()) {
+            return false;
+        }
+
+        processed = true;
+
+        final Messager messager = processingEnv.getMessager();
+        final Map<String, String> options = processingEnv.getOptions();
+        final String indexClassName = options.get(OPTION_INDEX);
+
+        if (indexClassName == null || indexClassName.trim().isEmpty()) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "No subscriber index generated: option `" +
+                    OPTION_INDEX + "` is not set");
+            return false;
+        }
+
+        final Set<String> annotationNames = splitOption(options.get(OPTION_ANNOTATIONS));
+        final Set<String> methodNames = splitOption(options.get(OPTION_METHOD_NAMES));
+
+        if (annotationNames.isEmpty() && methodNames.isEmpty()) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "No subscriber annotations or method names: set option `" +
+                    OPTION_ANNOTATIONS + "` or `" + OPTION_METHOD_NAMES + "`");
+            return false;
+        }
+
+        final Index index = new Index(indexClassName.trim(), annotationNames, methodNames);
+
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            index.collect(type);
+        }
+
+        try {
+            index.write();
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Could not write subscriber index `" +
+                    index.className + "`: " + e.getMessage());
+        }
+
+        // do not claim the annotations: other processors may need them
+        return false;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //----------------------------------------------------------------------------------------------
+
+    private static Set<String> splitOption(final String value) {
+        final Set<String> values = new LinkedHashSet<>();
+
+        if (value == null) {
+            return values;
+        }
+
+        for (String part : value.split(",")) {
+            if (!part.trim().isEmpty()) {
+                values.add(part.trim());
+            }
+        }
+
+        return values;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // INNER CLASSES
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Collects the subscriber classes of one index and writes its source file.
+     */
+    private class Index {
+
+        final Set<String> annotationNames;
+        final String className;
+        final Elements elements = processingEnv.getElementUtils();
+        final Set<String> methodNames;
+        final String packageName;
+        final String simpleName;
+        final Map<TypeElement, List<ExecutableElement>> subscribers = new LinkedHashMap<>();
+        final Types types = processingEnv.getTypeUtils();
+
+        Index(final String className, final Set<String> annotationNames, final Set<String> methodNames) {
+            final int lastDot = className.lastIndexOf('.');
+
+            this.annotationNames = annotationNames;
+            this.className = className;
+            this.methodNames = methodNames;
+            this.packageName = lastDot < 0 ? "" : className.substring(0, lastDot);
+            this.simpleName = className.substring(lastDot + 1);
+        }
+
+        /**
+         * Adds the type and its nested types if they are indexable subscriber classes.
+         */
+        void collect(final TypeElement type) {
+            final List<ExecutableElement> methods = new ArrayList<>();
+
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                if (isSubscriber(method)) {
+                    methods.add(method);
+                }
+            }
+
+            if (!methods.isEmpty()) {
+                if (isIndexable(type, methods)) {
+                    subscribers.put(type, methods);
+                } else {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "Not indexed, the event bus " +
+                            "will use reflection: " + type.getQualifiedName(), type);
+                }
+            }
+
+            for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+                collect(nested);
+            }
+        }
+
+        void write() throws IOException {
+            final List<Element> originatingElements = new ArrayList<Element>(subscribers.keySet());
+            final JavaFileObject file = processingEnv.getFiler().createSourceFile(className,
+                    originatingElements.toArray(new Element[originatingElements.size()]));
+
+            try (Writer writer = file.openWriter()) {
+                final PrintWriter out = new PrintWriter(writer);
+
+                if (!packageName.isEmpty()) {
+                    out.println("package " + packageName + ";");
+                    out.println();
+                }
+
+                out.println("/**");
+                out.println(" * Subscriber index generated by " + SubscriberIndexProcessor.class.getName() + ": do not edit.");
+                out.println(" */");
+                out.println("@SuppressWarnings({\"rawtypes\", \"unchecked\"})");
+                out.println("public final class " + simpleName + " implements " + INDEX_INTERFACE + " {");
+                out.println();
+                out.println("    private static final java.util.Map<Class<?>, " + INDEXED_METHOD_CLASS + "[]> SUBSCRIBER_METHODS =");
+                out.println("            new java.util.HashMap<>();");
+                out.println();
+                out.println("    static {");
+
+                for (Map.Entry<TypeElement, List<ExecutableElement>> entry : subscribers.entrySet()) {
+                    writeSubscriber(out, entry.getKey(), entry.getValue());
+                }
+
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    public " + INDEXED_METHOD_CLASS + "[] getSubscriberMethods(Class<?> subscriberClass) {");
+                out.println("        return SUBSCRIBER_METHODS.get(subscriberClass);");
+                out.println("    }");
+                out.println();
+                out.println("}");
+                out.flush();
+            }
+        }
+
+        /**
+         * Returns whether the element is accessible from the package of the index.
+         */
+        private boolean isAccessible(final TypeElement type) {
+            Element element = type;
+
+            while (element instanceof TypeElement) {
+                final TypeElement current = (TypeElement) element;
+                final Set<Modifier> modifiers = current.getModifiers();
+                final NestingKind nesting = current.getNestingKind();
+
+                if (nesting == NestingKind.ANONYMOUS || nesting == NestingKind.LOCAL ||
+                        modifiers.contains(Modifier.PRIVATE)) {
+                    return false;
+                } else if (!modifiers.contains(Modifier.PUBLIC) &&
+                        !elements.getPackageOf(current).getQualifiedName().contentEquals(packageName)) {
+                    return false;
+                }
+
+                element = current.getEnclosingElement();
+            }
+
+            return true;
+        }
+
+        /**
+         * Returns whether the generated index can call the subscriber methods of the type
+         * directly, and whether the event bus would accept them.
+         */
+        private boolean isIndexable(final TypeElement type, final List<ExecutableElement> methods) {
+            if ((type.getKind() != ElementKind.CLASS && type.getKind() != ElementKind.ENUM) ||
+                    type.getModifiers().contains(Modifier.ABSTRACT) || !isAccessible(type)) {
+                return false;
+            }
+
+            final TypeMirror exceptionType = elements.getTypeElement(Exception.class.getName()).asType();
+            final TypeMirror errorType = elements.getTypeElement(Error.class.getName()).asType();
+
+            for (ExecutableElement method : methods) {
+                if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getParameters().size() != 1) {
+                    return false;
+                }
+
+                final TypeMirror eventType = types.erasure(method.getParameters().get(0).asType());
+
+                if (eventType.getKind() != TypeKind.DECLARED) {
+                    return false;
+                }
+
+                final TypeElement eventElement = (TypeElement) ((DeclaredType) eventType).asElement();
+
+                if (elements.getPackageOf(eventElement).getQualifiedName().toString().startsWith("java.") ||
+                        !isAccessible(eventElement)) {
+                    return false;
+                }
+
+                // the generated invoker may only throw exceptions
+                for (TypeMirror thrownType : method.getThrownTypes()) {
+                    if (!types.isAssignable(thrownType, exceptionType) && !types.isAssignable(thrownType, errorType)) {
+                        return false;
+                    }
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Returns the priority that the subscriber annotation of the method declares in an
+         * `int priority()` attribute, or null if it has no such attribute or it has its default
+         * value.
+         */
+        private Integer getDeclaredPriority(final ExecutableElement method) {
+            for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+                final TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+
+                if (!annotationNames.contains(annotationType.getQualifiedName().toString())) {
+                    continue;
+                }
+
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                        annotation.getElementValues().entrySet()) {
+                    final ExecutableElement attribute = entry.getKey();
+
+                    if (!attribute.getSimpleName().contentEquals("priority") ||
+                            attribute.getReturnType().getKind() != TypeKind.INT) {
+                        continue;
+                    }
+
+                    final Object priority = entry.getValue().getValue();
+                    final AnnotationValue defaultValue = attribute.getDefaultValue();
+
+                    if (defaultValue == null || !priority.equals(defaultValue.getValue())) {
+                        return (Integer) priority;
+                    }
+                }
+            }
+
+            return null;
+        }
+
+        private boolean isSubscriber(final ExecutableElement method) {
+            if (methodNames.contains(method.getSimpleName().toString())) {
+                return true;
+            }
+
+            for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+                final TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+
+                if (annotationNames.contains(annotationType.getQualifiedName().toString())) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private void writeSubscriber(final PrintWriter out, final TypeElement type,
+                                     final List<ExecutableElement> methods) {
+            final String subscriberName = type.getQualifiedName().toString();
+
+            out.println("        SUBSCRIBER_METHODS.put(" + subscriberName + ".class, new " + INDEXED_METHOD_CLASS + "[]{");
+
+            for (ExecutableElement method : methods) {
+                final String eventName = ((TypeElement) types.asElement(
+                        types.erasure(method.getParameters().get(0).asType()))).getQualifiedName().toString();
+                final String target = method.getModifiers().contains(Modifier.STATIC)
+                        ? subscriberName
+                        : "((" + subscriberName + ") subscriber)";
+
+                final Integer priority = getDeclaredPriority(method);
+
+                out.println("                new " + INDEXED_METHOD_CLASS + "(" + eventName + ".class, \"" +
+                        method.getSimpleName() + "\"" + (priority == null ? "" : ", " + priority) + ") {");
+                out.println("                    @Override");
+                out.println("                    public void invoke(Object subscriber, Object event) throws Exception {");
+                out.println("                        " + target + "." + method.getSimpleName() + "((" + eventName +
+                        ") event);");
+                out.println("                    }");
+                out.println("                },");
+            }
+
+            out.println("        });");
+        }
+
+    }
+
+}
@@ -0,0 +1,226 @@
+package com.cookingfox.eventbus.processor;
+
+import com.cookingfox.eventbus.testable.IndexedSubscriberMethod;
+import com.cookingfox.eventbus.testable.SubscriberIndex;
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.*;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link SubscriberIndexProcessor}.
+ */
+public class SubscriberIndexProcessorTest {
+
+    private static final String INDEX_CLASS_NAME = "example.ExampleIndex";
+
+    private static final String EVENT_SOURCE = "package example;\n" +
+            "public class ExampleEvent {}\n";
+
+    private static final String METHOD_NAME_SUBSCRIBER_SOURCE = "package example;\n" +
+            "public class ExampleSubscriber {\n" +
+            "    public final java.util.List<Object> received = new java.util.ArrayList<>();\n" +
+            "    public void onEvent(ExampleEvent event) { received.add(event); }\n" +
+            "    public void onOther(ExampleEvent event) { throw new IllegalStateException(); }\n" +
+            "}\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: process
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void process_should_index_method_name_subscribers() throws Exception {
+        final ClassLoader classLoader = compile(Arrays.asList("-Aeventbus.methodNames=onEvent"),
+                EVENT_SOURCE, METHOD_NAME_SUBSCRIBER_SOURCE);
+        final SubscriberIndex index = loadIndex(classLoader);
+        final Class<?> subscriberClass = classLoader.loadClass("example.ExampleSubscriber");
+
+        final IndexedSubscriberMethod[] methods = index.getSubscriberMethods(subscriberClass);
+
+        assertEquals(1, methods.length);
+        assertEquals("onEvent", methods[0].getMethodName());
+        assertEquals(classLoader.loadClass("example.ExampleEvent"), methods[0].getEventClass());
+    }
+
+    @Test
+    public void process_should_generate_index_that_event_bus_invokes() throws Exception {
+        final ClassLoader classLoader = compile(Arrays.asList("-Aeventbus.methodNames=onEvent"),
+                EVENT_SOURCE, METHOD_NAME_SUBSCRIBER_SOURCE);
+        final Object subscriber = classLoader.loadClass("example.ExampleSubscriber").newInstance();
+        final Object event = classLoader.loadClass("example.ExampleEvent").newInstance();
+
+        final TestableEventBus eventBus = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME);
+        eventBus.addMethodName("onEvent");
+        eventBus.addIndex(loadIndex(classLoader));
+        eventBus.register(subscriber);
+        eventBus.post(event);
+
+        assertEquals(Arrays.asList(event), subscriber.getClass().getField("received").get(subscriber));
+    }
+
+    @Test
+    public void process_should_index_annotated_and_static_subscribers() throws Exception {
+        final ClassLoader classLoader = compile(Arrays.asList("-Aeventbus.annotations=example.Subscribe"),
+                EVENT_SOURCE,
+                "package example;\n" +
+                        "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n" +
+                        "public @interface Subscribe {}\n",
+                "package example;\n" +
+                        "public class StaticSubscriber {\n" +
+                        "    public static int received;\n" +
+                        "    @Subscribe public static void handle(ExampleEvent event) { received++; }\n" +
+                        "}\n");
+        final Class<?> subscriberClass = classLoader.loadClass("example.StaticSubscriber");
+        final IndexedSubscriberMethod[] methods = loadIndex(classLoader).getSubscriberMethods(subscriberClass);
+
+        assertEquals(1, methods.length);
+
+        methods[0].invoke(null, classLoader.loadClass("example.ExampleEvent").newInstance());
+
+        assertEquals(1, subscriberClass.getField("received").getInt(null));
+    }
+
+    @Test
+    public void process_should_index_declared_priorities() throws Exception {
+        final ClassLoader classLoader = compile(Arrays.asList("-Aeventbus.annotations=example.Subscribe"),
+                EVENT_SOURCE,
+                "package example;\n" +
+                        "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n" +
+                        "public @interface Subscribe { int priority() default 0; }\n",
+                "package example;\n" +
+                        "public class PrioritySubscriber {\n" +
+                        "    @Subscribe(priority = 5) public void high(ExampleEvent event) {}\n" +
+                        "    @Subscribe(priority = 0) public void explicitDefault(ExampleEvent event) {}\n" +
+                        "    @Subscribe public void none(ExampleEvent event) {}\n" +
+                        "}\n");
+        final IndexedSubscriberMethod[] methods = loadIndex(classLoader)
+                .getSubscriberMethods(classLoader.loadClass("example.PrioritySubscriber"));
+
+        assertEquals(3, methods.length);
+        assertEquals(Integer.valueOf(5), methods[0].getPriority());
+        assertNull(methods[1].getPriority());
+        assertNull(methods[2].getPriority());
+    }
+
+    @Test
+    public void process_should_index_nested_subscribers() throws Exception {
+        final ClassLoader classLoader = compile(Arrays.asList("-Aeventbus.methodNames=onEvent"),
+                EVENT_SOURCE,
+                "package example;\n" +
+                        "public class Outer {\n" +
+                        "    public static class Nested {\n" +
+                        "        public void onEvent(ExampleEvent event) {}\n" +
+                        "    }\n" +
+                        "}\n");
+        final SubscriberIndex index = loadIndex(classLoader);
+
+        assertNotNull(index.getSubscriberMethods(classLoader.loadClass("example.Outer$Nested")));
+        assertNull(index.getSubscriberMethods(classLoader.loadClass("example.Outer")));
+    }
+
+    @Test
+    public void process_should_not_index_class_that_event_bus_rejects() throws Exception {
+        final ClassLoader classLoader = compile(Arrays.asList("-Aeventbus.methodNames=onEvent"),
+                EVENT_SOURCE,
+                "package example;\n" +
+                        "public class Rejected {\n" +
+                        "    public static class NotPublic {\n" +
+                        "        void onEvent(ExampleEvent event) {}\n" +
+                        "    }\n" +
+                        "    public static class TwoParameters {\n" +
+                        "        public void onEvent(ExampleEvent event, String other) {}\n" +
+                        "    }\n" +
+                        "    public static class JavaEventType {\n" +
+                        "        public void onEvent(String event) {}\n" +
+                        "    }\n" +
+                        "    private static class NotAccessible {\n" +
+                        "        public void onEvent(ExampleEvent event) {}\n" +
+                        "    }\n" +
+                        "}\n");
+        final SubscriberIndex index = loadIndex(classLoader);
+
+        for (String name : Arrays.asList("NotPublic", "TwoParameters", "JavaEventType", "NotAccessible")) {
+            assertNull(name, index.getSubscriberMethods(classLoader.loadClass("example.Rejected$" + name)));
+        }
+    }
+
+    @Test
+    public void process_should_report_error_without_subscriber_definitions() throws Exception {
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        assertFalse(runCompiler(new ArrayList<String>(), diagnostics, EVENT_SOURCE));
+        assertEquals(Diagnostic.Kind.ERROR, diagnostics.getDiagnostics().get(0).getKind());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // HELPERS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Compiles the sources with the processor and returns a class loader for the output.
+     */
+    private ClassLoader compile(final List<String> options, final String... sources) throws Exception {
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        assertTrue(diagnostics.getDiagnostics().toString(), runCompiler(options, diagnostics, sources));
+
+        return new URLClassLoader(new URL[]{folder.getRoot().toURI().toURL()}, getClass().getClassLoader());
+    }
+
+    private SubscriberIndex loadIndex(final ClassLoader classLoader) throws Exception {
+        return (SubscriberIndex) classLoader.loadClass(INDEX_CLASS_NAME).newInstance();
+    }
+
+    private boolean runCompiler(final List<String> options, final DiagnosticCollector<JavaFileObject> diagnostics,
+                                final String... sources) throws Exception {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null,
+                StandardCharsets.UTF_8);
+        final List<File> files = new ArrayList<>();
+
+        for (String source : sources) {
+            // the file name must match the public top-level type
+            final String typeName = source.replaceAll("(?s).*public (?:class|@interface) (\\w+).*", "$1");
+            final File file = new File(folder.getRoot(), typeName + ".java");
+
+            Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+            files.add(file);
+        }
+
+        final List<String> arguments = new ArrayList<>(options);
+        arguments.addAll(Arrays.asList(
+                "-Aeventbus.index=" + INDEX_CLASS_NAME,
+                "-classpath", getCodeLocation(TestableEventBus.class),
+                "-d", folder.getRoot().getPath()));
+
+        final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, arguments,
+                null, fileManager.getJavaFileObjectsFromFiles(files));
+        task.setProcessors(Arrays.asList(new SubscriberIndexProcessor()));
+
+        try {
+            return task.call();
+        } finally {
+            fileManager.close();
+        }
+    }
+
+    private static String getCodeLocation(final Class<?> type) throws Exception {
+        return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    }
+
+}
@@ -12,4 +12,34 @@ public interface EventBusPublisher {
      */
     void post(Object event);
 
+    /**
+     * Posts the given events to the EventBus, in iteration order. Implementations can deliver a
+     * batch more efficiently than posting the events one by one.
+     *
+     * @param events Event objects.
+     */
+    void postAll(Iterable<?> events);
+
+    /**
+     * Posts the given event to the EventBus and keeps it as the sticky event of its type:
+     * subscribers that register later receive the most recent sticky event of each type they
+     * listen to.
+     *
+     * @param event An event object.
+     */
+    void postSticky(Object event);
+
+    /**
+     * Removes all sticky events.
+     */
+    void removeAllStickyEvents();
+
+    /**
+     * Removes the sticky event of the given type.
+     *
+     * @param eventType The exact type of the sticky event.
+     * @return The removed sticky event, or null if there was none.
+     */
+    <T> T removeStickyEvent(Class<T> eventType);
+
 }
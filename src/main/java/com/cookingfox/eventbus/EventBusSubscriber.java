@@ -6,6 +6,15 @@ package com.cookingfox.eventbus;
  */
 public interface EventBusSubscriber {
 
+    /**
+     * Returns the most recent sticky event of the given type, so that a subscriber can read the
+     * latest state without waiting for the next event.
+     *
+     * @param eventType The type of the sticky event.
+     * @return The sticky event, or null if there is none.
+     */
+    <T> T getStickyEvent(Class<T> eventType);
+
     /**
      * Subscribe for events that are posted on the EventBus.
      *
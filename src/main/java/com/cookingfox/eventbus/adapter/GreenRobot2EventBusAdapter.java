@@ -4,6 +4,9 @@ import com.cookingfox.eventbus.EventBus;
 
 /**
  * Adapter for the GreenRobot EventBus v2. Don't forget to add the library to your dependencies.
+ * <p>
+ * {@link #register(Object)} does not deliver sticky events: use {@link #registerSticky(Object)} for
+ * subscribers that should receive them on registration.
  *
  * @see com.cookingfox.eventbus.EventBus
  * @see de.greenrobot.event.EventBus
@@ -16,16 +19,55 @@ public class GreenRobot2EventBusAdapter implements EventBus {
         this.eventBus = eventBus;
     }
 
+    @Override
+    public <T> T getStickyEvent(Class<T> eventType) {
+        return eventBus.getStickyEvent(eventType);
+    }
+
     @Override
     public void post(Object event) {
         eventBus.post(event);
     }
 
+    /**
+     * The wrapped library has no batch API, so the events are posted one by one.
+     */
+    @Override
+    public void postAll(Iterable<?> events) {
+        for (Object event : events) {
+            eventBus.post(event);
+        }
+    }
+
+    @Override
+    public void postSticky(Object event) {
+        eventBus.postSticky(event);
+    }
+
     @Override
     public void register(Object subscriber) {
         eventBus.register(subscriber);
     }
 
+    /**
+     * Registers the subscriber and delivers the matching sticky events to it.
+     *
+     * @see de.greenrobot.event.EventBus#registerSticky(Object)
+     */
+    public void registerSticky(Object subscriber) {
+        eventBus.registerSticky(subscriber);
+    }
+
+    @Override
+    public void removeAllStickyEvents() {
+        eventBus.removeAllStickyEvents();
+    }
+
+    @Override
+    public <T> T removeStickyEvent(Class<T> eventType) {
+        return eventBus.removeStickyEvent(eventType);
+    }
+
     @Override
     public void unregister(Object subscriber) {
         eventBus.unregister(subscriber);
@@ -4,6 +4,9 @@ import com.cookingfox.eventbus.EventBus;
 
 /**
  * Adapter for the GreenRobot EventBus v3. Don't forget to add the library to your dependencies.
+ * <p>
+ * The wrapped library only delivers sticky events on registration to subscriber methods that are
+ * annotated with `@Subscribe(sticky = true)`.
  *
  * @see com.cookingfox.eventbus.EventBus
  * @see org.greenrobot.eventbus.EventBus
@@ -16,16 +19,46 @@ public class GreenRobot3EventBusAdapter implements EventBus {
         this.eventBus = eventBus;
     }
 
+    @Override
+    public <T> T getStickyEvent(Class<T> eventType) {
+        return eventBus.getStickyEvent(eventType);
+    }
+
     @Override
     public void post(Object event) {
         eventBus.post(event);
     }
 
+    /**
+     * The wrapped library has no batch API, so the events are posted one by one.
+     */
+    @Override
+    public void postAll(Iterable<?> events) {
+        for (Object event : events) {
+            eventBus.post(event);
+        }
+    }
+
+    @Override
+    public void postSticky(Object event) {
+        eventBus.postSticky(event);
+    }
+
     @Override
     public void register(Object subscriber) {
         eventBus.register(subscriber);
     }
 
+    @Override
+    public void removeAllStickyEvents() {
+        eventBus.removeAllStickyEvents();
+    }
+
+    @Override
+    public <T> T removeStickyEvent(Class<T> eventType) {
+        return eventBus.removeStickyEvent(eventType);
+    }
+
     @Override
     public void unregister(Object subscriber) {
         eventBus.unregister(subscriber);
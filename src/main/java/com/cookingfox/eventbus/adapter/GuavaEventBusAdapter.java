@@ -2,8 +2,19 @@ package com.cookingfox.eventbus.adapter;
 
 import com.cookingfox.eventbus.EventBus;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Adapter for the Google Guava EventBus. Don't forget to add the library to your dependencies.
+ * <p>
+ * The wrapped library has no sticky events, so the adapter keeps the latest sticky event per exact
+ * class itself: {@link #postSticky(Object)} posts the event and stores it, and the other sticky
+ * methods read the stored events. The wrapped library can not deliver an event to one subscriber,
+ * so sticky events are not delivered on {@link #register(Object)}: use
+ * {@link #getStickyEvent(Class)} after registering instead.
  *
  * @see com.cookingfox.eventbus.EventBus
  * @see com.google.common.eventbus.EventBus
@@ -12,12 +23,56 @@ public class GuavaEventBusAdapter implements EventBus {
 
     private com.google.common.eventbus.EventBus eventBus;
 
+    /**
+     * The latest sticky event per exact event class.
+     */
+    private final ConcurrentMap<Class<?>, Object> stickyEvents = new ConcurrentHashMap<>();
+
     public GuavaEventBusAdapter(com.google.common.eventbus.EventBus eventBus) {
         this.eventBus = eventBus;
     }
 
+    @Override
+    public <T> T getStickyEvent(Class<T> eventType) {
+        return eventType.cast(stickyEvents.get(eventType));
+    }
+
     @Override
     public void post(Object event) {
+        checkEvent(event);
+        eventBus.post(event);
+    }
+
+    /**
+     * The wrapped library has no batch API, so the events are posted one by one. The whole batch
+     * is validated first: if an event is null, nothing is posted.
+     */
+    @Override
+    public void postAll(Iterable<?> events) {
+        if (events == null) {
+            throw new IllegalArgumentException("Events can not be null");
+        }
+
+        final List<Object> batch = new ArrayList<>();
+
+        // the iterable may only be iterated once
+        for (Object event : events) {
+            checkEvent(event);
+            batch.add(event);
+        }
+
+        for (Object event : batch) {
+            eventBus.post(event);
+        }
+    }
+
+    /**
+     * Stores the event before posting it, so that it is available to the subscribers.
+     */
+    @Override
+    public void postSticky(Object event) {
+        checkEvent(event);
+        stickyEvents.put(event.getClass(), event);
         eventBus.post(event);
     }
 
@@ -26,9 +81,25 @@ public class GuavaEventBusAdapter implements EventBus {
         eventBus.register(subscriber);
     }
 
+    @Override
+    public void removeAllStickyEvents() {
+        stickyEvents.clear();
+    }
+
+    @Override
+    public <T> T removeStickyEvent(Class<T> eventType) {
+        return eventType.cast(stickyEvents.remove(eventType));
+    }
+
     @Override
     public void unregister(Object subscriber) {
         eventBus.unregister(subscriber);
     }
 
+    private static void checkEvent(Object event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event can not be null");
+        }
+    }
+
 }
@@ -0,0 +1,788 @@
+package com.cookingfox.eventbus.async;
+
+import com.cookingfox.eventbus.testable.SubscriberUncaughtExceptionHandler;
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import com.cookingfox.eventbus.testable.TestableEventBusException;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Event bus implementation that invokes subscribers asynchronously, using an {@link Executor}.
+ * Subscribers and the helper methods work like they do for {@link TestableEventBus}: an event is
+ * logged once it has been passed to a subscriber. Posted events are not logged by default, since
+ * the log would grow without bounds: use {@link #setPostedEventsRetention(RETENTION, int)} to
+ * enable the helper methods.
+ * - Posting only looks up the listeners and hands the deliveries to the executor, so slow
+ * subscribers do not block the posting thread.
+ * - Posting is lock-free ({@link CONCURRENCY#COPY_ON_WRITE}), since it does not wait for
+ * subscribers.
+ * - By default a subscriber receives its events one at a time, in posting order (see
+ * {@link ORDERING}).
+ * - Runs on virtual threads where available, using
+ * {@link DispatchExecutors#newVirtualThreadExecutor(int)}.
+ * - Bounded subscriber queues with a selectable overflow policy (see
+ * {@link #setQueueCapacity(int, OVERFLOW)}).
+ * - Conflation of high-rate event types, such as position updates: a waiting event is replaced
+ * by a newer one instead of queueing both (see {@link #addConflatedEventType(Class)}).
+ * - Queue depth and dispatch latency statistics (see {@link #getStatistics()}).
+ * <p>
+ * Exceptions of subscribers are passed to the {@link SubscriberUncaughtExceptionHandler}. Without
+ * one, they are thrown on the executor thread, wrapped in a {@link TestableEventBusException}.
+ * Events that were posted before a subscriber was unregistered may still be delivered to it.
+ */
+public class AsyncEventBus extends TestableEventBus {
+
+    //----------------------------------------------------------------------------------------------
+    // ENUMS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Defines the order in which a subscriber receives its events.
+     */
+    public enum ORDERING {
+
+        /**
+         * A subscriber receives its events one at a time, in posting order: its deliveries are
+         * queued and run by one executor task at a time. Different subscribers still receive
+         * events in parallel. This is the default.
+         */
+        PER_SUBSCRIBER,
+
+        /**
+         * One executor task per posted event invokes all of its listeners, in registration order,
+         * like {@link TestableEventBus} does on the posting thread. Different events are delivered
+         * in parallel, so a subscriber can receive events concurrently and in a different order
+         * than they were posted.
+         */
+        PER_EVENT,
+
+        /**
+         * Every delivery is a separate executor task, so a subscriber can receive events
+         * concurrently and in a different order than they were posted.
+         */
+        UNORDERED
+
+    }
+
+    /**
+     * Defines what happens when an event is posted for a subscriber whose queue is full.
+     *
+     * @see #setQueueCapacity(int, OVERFLOW)
+     */
+    public enum OVERFLOW {
+
+        /**
+         * The posting thread waits until the subscriber queue has room. Never loses events, but a
+         * subscriber that posts to itself from a full queue waits forever.
+         */
+        BLOCK,
+
+        /**
+         * The posted event is not delivered to the subscriber.
+         */
+        DROP_NEWEST,
+
+        /**
+         * The oldest waiting event of the subscriber is not delivered, to make room for the posted
+         * event.
+         */
+        DROP_OLDEST,
+
+        /**
+         * The posting thread invokes the subscriber itself. This slows down the poster like
+         * {@link #BLOCK} does, but the subscriber can then receive events concurrently and in a
+         * different order than they were posted.
+         */
+        CALLER_RUNS,
+
+        /**
+         * Posting throws a {@link TestableEventBusException}. The subscribers of the event that
+         * come after the full queue do not receive it.
+         */
+        FAIL_FAST
+
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTANTS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Key extractor of event types that are conflated by type only.
+     */
+    private static final EventKeyExtractor<Object> TYPE_KEY = new EventKeyExtractor<Object>() {
+        @Override
+        public Object getKey(Object event) {
+            return null;
+        }
+    };
+
+    //----------------------------------------------------------------------------------------------
+    // PROPERTIES
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * The key extractors of the conflated event types.
+     *
+     * @see #addConflatedEventType(Class)
+     */
+    private final Map<Class, EventKeyExtractor> conflatedEventTypes = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the deliveries.
+     */
+    private final Executor executor;
+
+    /**
+     * The selected ordering.
+     */
+    private final ORDERING ordering;
+
+    /**
+     * What happens when a subscriber queue is full.
+     */
+    private volatile OVERFLOW overflow = OVERFLOW.BLOCK;
+
+    /**
+     * The maximum number of waiting deliveries per subscriber queue.
+     */
+    private volatile int queueCapacity = Integer.MAX_VALUE;
+
+    /**
+     * The delivery queue of every registered subscriber, by subscriber key.
+     *
+     * @see ORDERING#PER_SUBSCRIBER
+     */
+    private final Map<Object, SubscriberQueue> queuesBySubscriber = new ConcurrentHashMap<>();
+
+    //----------------------------------------------------------------------------------------------
+    // STATISTICS
+    //----------------------------------------------------------------------------------------------
+
+    private final AtomicLong conflated = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * @param mode     Defines whether to use annotation or name convention based subscriber
+     *                 methods.
+     * @param executor Runs the deliveries of posted events.
+     */
+    public AsyncEventBus(final MODE mode, final Executor executor) {
+        this(mode, executor, ORDERING.PER_SUBSCRIBER);
+    }
+
+    /**
+     * @param mode     Defines whether to use annotation or name convention based subscriber
+     *                 methods.
+     * @param executor Runs the deliveries of posted events.
+     * @param ordering Defines the order in which a subscriber receives its events.
+     */
+    public AsyncEventBus(final MODE mode, final Executor executor, final ORDERING ordering) {
+        super(mode, CONCURRENCY.COPY_ON_WRITE);
+
+        if (executor == null) {
+            throw new TestableEventBusException("Executor can not be null");
+        } else if (ordering == null) {
+            throw new TestableEventBusException("Ordering can not be null");
+        }
+
+        this.executor = executor;
+        this.ordering = ordering;
+
+        setPostedEventsRetention(RETENTION.NONE);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Conflates events of the exact type: while a subscriber has not yet received an event of
+     * this type, because it is busy or its queue is long, a newly posted one replaces it in the
+     * queue instead of being added. The subscriber then receives only the latest event, at the
+     * position of the first waiting one. Useful for high-rate events where only the latest state
+     * matters, because the queue holds at most one event of the type per subscriber.
+     * <p>
+     * Requires {@link ORDERING#PER_SUBSCRIBER}: the other orderings hand the events to the
+     * executor right away, so there is no queue in which to replace them.
+     *
+     * @param eventType The event type to conflate.
+     * @return The current instance.
+     * @see #addConflatedEventType(Class, EventKeyExtractor)
+     */
+    public synchronized AsyncEventBus addConflatedEventType(final Class<?> eventType) {
+        return addConflatedEventType(eventType, TYPE_KEY);
+    }
+
+    /**
+     * Conflates events of the exact type that have the same key, like
+     * {@link #addConflatedEventType(Class)}: for example only the latest position of every
+     * vehicle. The queue holds at most one event per key per subscriber.
+     *
+     * @param eventType    The event type to conflate.
+     * @param keyExtractor Returns the key of an event of the type.
+     * @param <T>          The event type.
+     * @return The current instance.
+     */
+    public synchronized <T> AsyncEventBus addConflatedEventType(final Class<T> eventType,
+                                                                final EventKeyExtractor<? super T> keyExtractor) {
+        if (ordering != ORDERING.PER_SUBSCRIBER) {
+            throw new TestableEventBusException("Can not conflate events when the selected ordering is " + ordering);
+        } else if (eventType == null) {
+            throw new TestableEventBusException("Event type can not be null");
+        } else if (keyExtractor == null) {
+            throw new TestableEventBusException("Key extractor can not be null");
+        }
+
+        conflatedEventTypes.put(eventType, keyExtractor);
+
+        return this;
+    }
+
+    /**
+     * Returns what happens when a subscriber queue is full.
+     */
+    public OVERFLOW getOverflow() {
+        return overflow;
+    }
+
+    /**
+     * Returns the maximum number of waiting deliveries per subscriber queue.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Returns a snapshot of the dispatch statistics: the number of waiting deliveries, the time
+     * between posting an event and starting its delivery, and the number of conflated and
+     * rejected events.
+     */
+    public DispatchStatistics getStatistics() {
+        return new DispatchStatistics(conflated.get(), delivered.get(), maxQueueDepth.get(), maxLatencyNanos.get(),
+                queueDepth.get(), rejected.get(), totalLatencyNanos.get());
+    }
+
+    /**
+     * Resets the dispatch statistics, except for the number of waiting deliveries.
+     */
+    public void resetStatistics() {
+        conflated.set(0);
+        delivered.set(0);
+        maxLatencyNanos.set(0);
+        maxQueueDepth.set(queueDepth.get());
+        rejected.set(0);
+        totalLatencyNanos.set(0);
+    }
+
+    /**
+     * Bounds the queue of every subscriber, so that a burst of events or a slow subscriber can
+     * not exhaust memory. When an event is posted for a subscriber whose queue is full, the
+     * overflow policy decides what happens; the number of times that happened is reported as
+     * rejected by {@link #getStatistics()}. Conflated events replace a waiting event, so they never
+     * overflow. By default the queues are unbounded.
+     * <p>
+     * Requires {@link ORDERING#PER_SUBSCRIBER}: with the other orderings, the deliveries wait in
+     * the queue of the executor, so pass an executor with a bounded queue instead.
+     *
+     * @param capacity The maximum number of waiting deliveries per subscriber.
+     * @param overflow What happens when a subscriber queue is full.
+     * @return The current instance.
+     */
+    public synchronized AsyncEventBus setQueueCapacity(final int capacity, final OVERFLOW overflow) {
+        if (ordering != ORDERING.PER_SUBSCRIBER) {
+            throw new TestableEventBusException("Can not bound queues when the selected ordering is " + ordering);
+        } else if (capacity < 1) {
+            throw new TestableEventBusException("Capacity must be at least 1");
+        } else if (overflow == null) {
+            throw new TestableEventBusException("Overflow can not be null");
+        }
+
+        this.overflow = overflow;
+        this.queueCapacity = capacity;
+
+        return this;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PROTECTED METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Hands the deliveries to the executor: one task per event, or one delivery per listener,
+     * through the queue of its subscriber if deliveries are ordered.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void deliver(final EventListener[] listeners, final Object event) {
+        if (ordering == ORDERING.PER_EVENT) {
+            if (listeners.length > 0) {
+                execute(new EventDelivery(listeners, event, System.nanoTime()), null);
+            }
+
+            return;
+        }
+
+        final EventKeyExtractor keyExtractor = conflatedEventTypes.isEmpty() ? null :
+                conflatedEventTypes.get(event.getClass());
+        final Object key = keyExtractor == null ? null : keyExtractor.getKey(event);
+
+        for (EventListener listener : listeners) {
+            SubscriberQueue queue = null;
+
+            if (ordering == ORDERING.PER_SUBSCRIBER) {
+                queue = queuesBySubscriber.get(listener.subscriberKey);
+
+                // unregistered after the listeners were looked up
+                if (queue == null) {
+                    continue;
+                }
+            }
+
+            final ConflationKey conflationKey = keyExtractor == null ? null :
+                    new ConflationKey(listener, event.getClass(), key);
+
+            execute(new Delivery(listener, event, System.nanoTime(), conflationKey), queue);
+        }
+    }
+
+    /**
+     * Creates the queue of the subscriber, before its sticky events are delivered.
+     */
+    @Override
+    protected void onRegistered(final Object subscriberKey) {
+        if (ordering == ORDERING.PER_SUBSCRIBER) {
+            queuesBySubscriber.put(subscriberKey, new SubscriberQueue());
+        }
+    }
+
+    /**
+     * Drops the queue of the subscriber: deliveries that are already queued still run.
+     */
+    @Override
+    protected void onUnregistered(final Object subscriberKey) {
+        queuesBySubscriber.remove(subscriberKey);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Hands the delivery to the executor, or to the queue if not null.
+     */
+    private void execute(final Delivery delivery, final SubscriberQueue queue) {
+        if (queue != null) {
+            queue.add(delivery);
+            return;
+        }
+
+        onDeliveryQueued();
+
+        try {
+            executor.execute(delivery);
+        } catch (RejectedExecutionException e) {
+            queueDepth.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Updates the statistics when a delivery is queued.
+     */
+    private void onDeliveryQueued() {
+        updateMax(maxQueueDepth, queueDepth.incrementAndGet());
+    }
+
+    /**
+     * Updates the statistics when a delivery starts.
+     */
+    private void onDeliveryStart(final long postedNanos) {
+        final long latencyNanos = System.nanoTime() - postedNanos;
+
+        queueDepth.decrementAndGet();
+        delivered.incrementAndGet();
+        totalLatencyNanos.addAndGet(latencyNanos);
+        updateMax(maxLatencyNanos, latencyNanos);
+    }
+
+    private static void updateMax(final AtomicInteger max, final int value) {
+        int current;
+
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+
+    private static void updateMax(final AtomicLong max, final long value) {
+        long current;
+
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // INNER CLASSES
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Identifies the waiting delivery that a conflated event replaces: same listener, exact event
+     * type and key.
+     */
+    private static final class ConflationKey {
+
+        final Class eventClass;
+        final Object key;
+        final EventListener listener;
+
+        ConflationKey(final EventListener listener, final Class eventClass, final Object key) {
+            this.eventClass = eventClass;
+            this.key = key;
+            this.listener = listener;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            } else if (!(o instanceof ConflationKey)) {
+                return false;
+            }
+
+            final ConflationKey that = (ConflationKey) o;
+
+            return listener == that.listener && eventClass == that.eventClass &&
+                    (key == null ? that.key == null : key.equals(that.key));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(listener);
+            result = 31 * result + eventClass.hashCode();
+            result = 31 * result + (key == null ? 0 : key.hashCode());
+            return result;
+        }
+
+    }
+
+    /**
+     * One posted event for one listener.
+     */
+    private class Delivery implements Runnable {
+
+        /**
+         * The event to deliver. A conflated event is replaced while the delivery waits in its
+         * queue, so it is guarded by the queue until the delivery is polled.
+         */
+        Object event;
+
+        /**
+         * Not null if the event type is conflated.
+         */
+        final ConflationKey conflationKey;
+
+        final EventListener listener;
+        final long postedNanos;
+
+        Delivery(final EventListener listener, final Object event, final long postedNanos,
+                 final ConflationKey conflationKey) {
+            this.conflationKey = conflationKey;
+            this.event = event;
+            this.listener = listener;
+            this.postedNanos = postedNanos;
+        }
+
+        @Override
+        public void run() {
+            onDeliveryStart(postedNanos);
+            invokeListener(listener, event);
+        }
+
+    }
+
+    /**
+     * One posted event for all of its listeners.
+     *
+     * @see ORDERING#PER_EVENT
+     */
+    private final class EventDelivery extends Delivery {
+
+        final EventListener[] listeners;
+
+        EventDelivery(final EventListener[] listeners, final Object event, final long postedNanos) {
+            super(null, event, postedNanos, null);
+
+            this.listeners = listeners;
+        }
+
+        @Override
+        public void run() {
+            onDeliveryStart(postedNanos);
+
+            for (EventListener listener : listeners) {
+                invokeListener(listener, event);
+            }
+        }
+
+    }
+
+    /**
+     * The waiting deliveries of one subscriber. At most one executor task drains the queue at a
+     * time, so the subscriber receives its events one at a time and in posting order.
+     */
+    private final class SubscriberQueue implements Runnable {
+
+        /**
+         * The waiting deliveries, guarded by this queue.
+         */
+        private final ArrayDeque<Delivery> deliveries = new ArrayDeque<>();
+
+        /**
+         * The waiting deliveries of conflated events, guarded by this queue.
+         */
+        private final Map<ConflationKey, Delivery> pending = new HashMap<>();
+
+        /**
+         * Whether a task that drains this queue was handed to the executor, guarded by this queue.
+         */
+        private boolean scheduled = false;
+
+        /**
+         * The number of posting threads that wait for room in this queue, guarded by this queue.
+         *
+         * @see OVERFLOW#BLOCK
+         */
+        private int waitingPosters = 0;
+
+        /**
+         * Adds the delivery, or replaces the event of the waiting delivery it conflates with. When
+         * the queue is full, the overflow policy is applied.
+         */
+        void add(final Delivery delivery) {
+            boolean callerRuns = false;
+
+            synchronized (this) {
+                if (conflate(delivery)) {
+                    return;
+                }
+
+                if (deliveries.size() >= queueCapacity) {
+                    switch (overflow) {
+                        case BLOCK:
+                            // waits instead of rejecting
+                            if (awaitCapacity(delivery)) {
+                                return;
+                            }
+                            break;
+
+                        case DROP_NEWEST:
+                            rejected.incrementAndGet();
+                            return;
+
+                        case DROP_OLDEST:
+                            rejected.incrementAndGet();
+                            remove(deliveries.pollFirst());
+                            queueDepth.decrementAndGet();
+                            break;
+
+                        case CALLER_RUNS:
+                            rejected.incrementAndGet();
+                            callerRuns = true;
+                            break;
+
+                        default:
+                            rejected.incrementAndGet();
+                            throw new TestableEventBusException("Queue is full for subscriber: " +
+                                    delivery.listener.getSubscriber());
+                    }
+                }
+
+                if (!callerRuns) {
+                    if (delivery.conflationKey != null) {
+                        pending.put(delivery.conflationKey, delivery);
+                    }
+
+                    // while holding the lock, so that the delivery can not start before it is counted
+                    onDeliveryQueued();
+                    deliveries.addLast(delivery);
+
+                    if (scheduled) {
+                        return;
+                    }
+
+                    scheduled = true;
+                }
+            }
+
+            if (callerRuns) {
+                onDeliveryQueued();
+                delivery.run();
+                return;
+            }
+
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                final boolean removed;
+
+                // other posters may have added deliveries since the lock was released
+                synchronized (this) {
+                    removed = deliveries.removeLastOccurrence(delivery);
+
+                    if (removed) {
+                        remove(delivery);
+                        queueDepth.decrementAndGet();
+
+                        if (waitingPosters > 0) {
+                            notifyAll();
+                        }
+                    }
+                }
+
+                // schedules the deliveries of the other posters, or marks the queue as not scheduled
+                resume();
+
+                if (removed) {
+                    throw e;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            boolean drained = false;
+
+            try {
+                Delivery delivery;
+
+                while ((delivery = poll()) != null) {
+                    delivery.run();
+                }
+
+                drained = true;
+            } finally {
+                // a delivery threw: continue with the rest in a new task
+                if (!drained) {
+                    resume();
+                }
+            }
+        }
+
+        /**
+         * Waits until the queue has room. Returns true if the delivery was conflated with a
+         * delivery that was added in the meantime. Must be called while holding the lock of this
+         * queue.
+         */
+        private boolean awaitCapacity(final Delivery delivery) {
+            waitingPosters++;
+
+            try {
+                while (deliveries.size() >= queueCapacity) {
+                    wait();
+
+                    if (conflate(delivery)) {
+                        return true;
+                    }
+                }
+
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new TestableEventBusException("Interrupted while waiting for room in the queue of " +
+                        "subscriber: " + delivery.listener.getSubscriber(), e);
+            } finally {
+                waitingPosters--;
+            }
+        }
+
+        /**
+         * Replaces the event of the waiting delivery that the delivery conflates with, if any.
+         * Must be called while holding the lock of this queue.
+         */
+        private boolean conflate(final Delivery delivery) {
+            if (delivery.conflationKey == null) {
+                return false;
+            }
+
+            final Delivery waiting = pending.get(delivery.conflationKey);
+
+            if (waiting == null) {
+                return false;
+            }
+
+            waiting.event = delivery.event;
+            conflated.incrementAndGet();
+
+            return true;
+        }
+
+        /**
+         * Returns the next delivery, or marks the queue as not scheduled when it is empty.
+         */
+        private synchronized Delivery poll() {
+            final Delivery delivery = deliveries.pollFirst();
+
+            if (delivery == null) {
+                scheduled = false;
+                return null;
+            }
+
+            remove(delivery);
+
+            if (waitingPosters > 0) {
+                notifyAll();
+            }
+
+            return delivery;
+        }
+
+        /**
+         * Removes the polled or dropped delivery from the conflated deliveries. Must be called
+         * while holding the lock of this queue.
+         */
+        private void remove(final Delivery delivery) {
+            if (delivery.conflationKey != null) {
+                // newer events are queued again
+                pending.remove(delivery.conflationKey);
+            }
+        }
+
+        private void resume() {
+            synchronized (this) {
+                if (deliveries.isEmpty()) {
+                    scheduled = false;
+                    return;
+                }
+            }
+
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // the next added delivery schedules the queue again
+                synchronized (this) {
+                    scheduled = false;
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,232 @@
+package com.cookingfox.eventbus.async;
+
+import com.cookingfox.eventbus.testable.TestableEventBusException;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factory methods for executors of an {@link AsyncEventBus}.
+ */
+public final class DispatchExecutors {
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTANTS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * `Executors.newVirtualThreadPerTaskExecutor()`, or null when the platform has no virtual
+     * threads (before Java 21, Android). Looked up using reflection, since the library is compiled
+     * for Java 7.
+     */
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadPerTaskExecutor();
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTRUCTOR
+    //----------------------------------------------------------------------------------------------
+
+    private DispatchExecutors() {
+        throw new UnsupportedOperationException();
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns whether the platform supports virtual threads.
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor that runs every task on a new virtual thread, which suits subscribers
+     * that block on I/O. At most `maxConcurrency` tasks run at the same time: the other tasks wait
+     * in a queue until a running task finishes, so submitting never blocks.
+     * <p>
+     * When the platform has no virtual threads, a fixed pool of `maxConcurrency` platform threads
+     * is created instead.
+     *
+     * @param maxConcurrency The maximum number of tasks that run at the same time.
+     * @see #isVirtualThreadsSupported()
+     */
+    public static ExecutorService newVirtualThreadExecutor(final int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new TestableEventBusException("Max concurrency must be at least 1");
+        }
+
+        if (!isVirtualThreadsSupported()) {
+            return Executors.newFixedThreadPool(maxConcurrency);
+        }
+
+        final ExecutorService virtualThreads;
+
+        try {
+            virtualThreads = (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (Exception e) {
+            throw new TestableEventBusException("Could not create virtual thread executor", e);
+        }
+
+        return new ConcurrencyLimitedExecutorService(virtualThreads, maxConcurrency);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //----------------------------------------------------------------------------------------------
+
+    private static Method findVirtualThreadPerTaskExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // INNER CLASSES
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Runs tasks on a delegate executor, but at most `maxConcurrency` at the same time. A task that
+     * finds all permits taken waits in a queue, not on a thread: a worker that finishes its task
+     * runs the next waiting one, so submitting does not block and a waiting task can not be lost
+     * to an interrupt.
+     */
+    static class ConcurrencyLimitedExecutorService extends AbstractExecutorService {
+
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+
+        /**
+         * Whether {@link #shutdownNow()} was called: workers stop taking waiting tasks.
+         */
+        private volatile boolean stopped = false;
+
+        /**
+         * The tasks that wait for a worker.
+         */
+        private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+        private final Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                Runnable task;
+
+                while ((task = poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (Throwable e) {
+                        // continue with the waiting tasks
+                        final Thread thread = Thread.currentThread();
+                        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                    }
+                }
+            }
+        };
+
+        ConcurrencyLimitedExecutorService(final ExecutorService delegate, final int maxConcurrency) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxConcurrency);
+        }
+
+        /**
+         * @throws RejectedExecutionException when the executor is shut down.
+         */
+        @Override
+        public void execute(final Runnable command) {
+            if (command == null) {
+                throw new NullPointerException();
+            } else if (stopped || delegate.isShutdown()) {
+                throw new RejectedExecutionException("Executor is shut down");
+            }
+
+            waiting.add(command);
+
+            // without a permit, a running worker takes the task
+            if (!permits.tryAcquire()) {
+                return;
+            }
+
+            try {
+                delegate.execute(worker);
+            } catch (RejectedExecutionException e) {
+                permits.release();
+
+                // unless a running worker took it
+                if (waiting.remove(command)) {
+                    throw e;
+                }
+            }
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            stopped = true;
+
+            // before interrupting the workers, so that they do not run the waiting tasks
+            final List<Runnable> notRun = new ArrayList<>();
+            Runnable task;
+
+            while ((task = waiting.poll()) != null) {
+                notRun.add(task);
+            }
+
+            notRun.addAll(delegate.shutdownNow());
+
+            return notRun;
+        }
+
+        /**
+         * Returns the next waiting task for a worker, or releases the permit of the worker and
+         * returns null when there is none or the executor is stopped.
+         */
+        private Runnable poll() {
+            while (true) {
+                final Runnable task = stopped ? null : waiting.poll();
+
+                if (task != null) {
+                    return task;
+                }
+
+                permits.release();
+
+                // a task that was added after the poll found no permit
+                if (stopped || waiting.isEmpty() || !permits.tryAcquire()) {
+                    return null;
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.cookingfox.eventbus.async;
+
+/**
+ * A snapshot of the dispatch statistics of an {@link AsyncEventBus}.
+ *
+ * @see AsyncEventBus#getStatistics()
+ */
+public class DispatchStatistics {
+
+    /**
+     * The number of posted events that replaced a waiting event of a conflated event type,
+     * instead of being queued.
+     *
+     * @see AsyncEventBus#addConflatedEventType(Class)
+     */
+    public final long conflated;
+
+    /**
+     * The number of deliveries that were started: a delivery is one event for one subscriber, or
+     * for all of its subscribers with {@link AsyncEventBus.ORDERING#PER_EVENT}.
+     */
+    public final long delivered;
+
+    /**
+     * The highest number of deliveries that were waiting at the same time.
+     */
+    public final int maxQueueDepth;
+
+    /**
+     * The longest time between posting an event and starting its delivery, in nanoseconds.
+     */
+    public final long maxLatencyNanos;
+
+    /**
+     * The number of deliveries that are waiting for the executor.
+     */
+    public final int queueDepth;
+
+    /**
+     * The number of posted events that found the queue of their subscriber full, and were
+     * dropped, run on the posting thread or refused by the overflow policy. Events that waited for
+     * room are not counted.
+     *
+     * @see AsyncEventBus#setQueueCapacity(int, AsyncEventBus.OVERFLOW)
+     */
+    public final long rejected;
+
+    /**
+     * The sum of the times between posting an event and starting its deliveries, in nanoseconds.
+     */
+    public final long totalLatencyNanos;
+
+    public DispatchStatistics(long conflated, long delivered, int maxQueueDepth, long maxLatencyNanos,
+                              int queueDepth, long rejected, long totalLatencyNanos) {
+        this.conflated = conflated;
+        this.delivered = delivered;
+        this.maxQueueDepth = maxQueueDepth;
+        this.maxLatencyNanos = maxLatencyNanos;
+        this.queueDepth = queueDepth;
+        this.rejected = rejected;
+        this.totalLatencyNanos = totalLatencyNanos;
+    }
+
+    /**
+     * Returns the average time between posting an event and starting its delivery, in
+     * nanoseconds, or zero if nothing was delivered.
+     */
+    public long getAverageLatencyNanos() {
+        return delivered == 0 ? 0 : totalLatencyNanos / delivered;
+    }
+
+    public long getConflated() {
+        return conflated;
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getTotalLatencyNanos() {
+        return totalLatencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "DispatchStatistics{" +
+                "delivered=" + delivered +
+                ", conflated=" + conflated +
+                ", rejected=" + rejected +
+                ", queueDepth=" + queueDepth +
+                ", maxQueueDepth=" + maxQueueDepth +
+                ", averageLatencyNanos=" + getAverageLatencyNanos() +
+                ", maxLatencyNanos=" + maxLatencyNanos +
+                '}';
+    }
+
+}
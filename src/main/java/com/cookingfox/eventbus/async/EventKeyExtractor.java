@@ -0,0 +1,19 @@
+package com.cookingfox.eventbus.async;
+
+/**
+ * Returns the key of an event, so that events of one type can be told apart by what they are
+ * about: for example the id of the vehicle of a position update.
+ *
+ * @param <T> The event type.
+ */
+public interface EventKeyExtractor<T> {
+
+    /**
+     * Returns the key of the event: events with equal keys are about the same thing. May return
+     * null, which is a key like any other.
+     *
+     * @param event An event object.
+     */
+    Object getKey(T event);
+
+}
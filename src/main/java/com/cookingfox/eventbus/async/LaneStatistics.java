@@ -0,0 +1,63 @@
+package com.cookingfox.eventbus.async;
+
+/**
+ * A snapshot of the statistics of one lane of a {@link PartitionedEventBus}.
+ *
+ * @see PartitionedEventBus#getLaneStatistics()
+ */
+public class LaneStatistics {
+
+    /**
+     * The number of events that the lane delivered to their listeners.
+     */
+    public final long delivered;
+
+    /**
+     * The index of the lane.
+     */
+    public final int lane;
+
+    /**
+     * The highest number of events that were waiting in the queue of the lane at the same time.
+     */
+    public final int maxQueueDepth;
+
+    /**
+     * The number of events that are waiting in the queue of the lane.
+     */
+    public final int queueDepth;
+
+    public LaneStatistics(int lane, long delivered, int maxQueueDepth, int queueDepth) {
+        this.delivered = delivered;
+        this.lane = lane;
+        this.maxQueueDepth = maxQueueDepth;
+        this.queueDepth = queueDepth;
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+
+    public int getLane() {
+        return lane;
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    @Override
+    public String toString() {
+        return "LaneStatistics{" +
+                "lane=" + lane +
+                ", delivered=" + delivered +
+                ", queueDepth=" + queueDepth +
+                ", maxQueueDepth=" + maxQueueDepth +
+                '}';
+    }
+
+}
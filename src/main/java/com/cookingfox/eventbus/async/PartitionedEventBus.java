@@ -0,0 +1,348 @@
+package com.cookingfox.eventbus.async;
+
+import com.cookingfox.eventbus.testable.SubscriberUncaughtExceptionHandler;
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import com.cookingfox.eventbus.testable.TestableEventBusException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Event bus implementation that delivers events on a fixed number of lanes: threads with their
+ * own queue, which deliver one event at a time. The lane of an event is selected by the hash of
+ * its key, so events with the same key, such as the events of one order, are delivered in posting
+ * order, while events with different keys are delivered in parallel. Subscribers and the helper
+ * methods work like they do for {@link TestableEventBus}.
+ * - Add a key extractor per event type using {@link #addKeyExtractor(Class, EventKeyExtractor)}:
+ * it also applies to the subtypes of the event type. Events of a type without a key extractor use
+ * their class as key, so they are delivered in posting order on one lane.
+ * - Posting is lock-free ({@link CONCURRENCY#COPY_ON_WRITE}) and does not wait for subscribers.
+ * - Queue depth statistics per lane (see {@link #getLaneStatistics()}).
+ * <p>
+ * Posted events are not logged by default, since the log would grow without bounds: use
+ * {@link #setPostedEventsRetention(RETENTION, int)} to enable the helper methods.
+ * Exceptions of subscribers are passed to the {@link SubscriberUncaughtExceptionHandler}; without
+ * one, they are passed to the uncaught exception handler of the lane thread, which continues with
+ * the next listener. Call {@link #shutdown()} to stop the lane threads.
+ */
+public class PartitionedEventBus extends TestableEventBus {
+
+    //----------------------------------------------------------------------------------------------
+    // PROPERTIES
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Marks an event class without a key extractor in {@link #resolvedKeyExtractors}.
+     */
+    private static final EventKeyExtractor<Object> NO_KEY_EXTRACTOR = new EventKeyExtractor<Object>() {
+        @Override
+        public Object getKey(Object event) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    /**
+     * The key extractors by the event type that they were added for.
+     */
+    private final Map<Class, EventKeyExtractor> keyExtractors = new ConcurrentHashMap<>();
+
+    /**
+     * The key extractor per posted event class, resolved through its type hierarchy. Replaced
+     * when a key extractor is added, so that a resolution that started before is not cached.
+     */
+    private volatile Map<Class, EventKeyExtractor> resolvedKeyExtractors = new ConcurrentHashMap<>();
+
+    private final Lane[] lanes;
+
+    /**
+     * Whether the lanes should keep waiting for events.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Released when all lane threads have stopped.
+     */
+    private final CountDownLatch terminated;
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * @param mode      Defines whether to use annotation or name convention based subscriber
+     *                  methods.
+     * @param laneCount The number of lanes, each with its own thread: for CPU-bound subscribers,
+     *                  up to the number of cores.
+     */
+    public PartitionedEventBus(final MODE mode, final int laneCount) {
+        super(mode, CONCURRENCY.COPY_ON_WRITE);
+
+        if (laneCount < 1) {
+            throw new TestableEventBusException("Lane count must be at least 1");
+        }
+
+        this.lanes = new Lane[laneCount];
+        this.terminated = new CountDownLatch(laneCount);
+
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane();
+
+            final Thread thread = new Thread(lanes[i], "PartitionedEventBus-lane-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        setPostedEventsRetention(RETENTION.NONE);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Partitions the events of this type and its subtypes by key: events with equal keys are
+     * delivered in posting order, events with different keys may be delivered in parallel. An
+     * event uses the key extractor of the nearest type in its hierarchy that has one: its class,
+     * then its superclasses, then its interfaces. So an event of a subtype is delivered on the same
+     * lane as an event of the type with the same key, unless the subtype has a key extractor of
+     * its own.
+     *
+     * @param eventType    The event type.
+     * @param keyExtractor Returns the key of an event of the type, such as an order ID. A null key
+     *                     is valid.
+     * @param <T>          The event type.
+     * @return The current instance.
+     */
+    public synchronized <T> PartitionedEventBus addKeyExtractor(final Class<T> eventType,
+                                                                final EventKeyExtractor<? super T> keyExtractor) {
+        if (eventType == null) {
+            throw new TestableEventBusException("Event type can not be null");
+        } else if (keyExtractor == null) {
+            throw new TestableEventBusException("Key extractor can not be null");
+        }
+
+        keyExtractors.put(eventType, keyExtractor);
+        resolvedKeyExtractors = new ConcurrentHashMap<>();
+
+        return this;
+    }
+
+    /**
+     * Waits until all lane threads have stopped after {@link #shutdown()}.
+     *
+     * @return Whether the lane threads stopped before the timeout.
+     */
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    /**
+     * Returns the index of the lane that delivers the event.
+     *
+     * @param event An event object.
+     */
+    @SuppressWarnings("unchecked")
+    public int getLane(final Object event) {
+        if (event == null) {
+            throw new TestableEventBusException("Event can not be null");
+        }
+
+        final EventKeyExtractor keyExtractor = getKeyExtractor(event.getClass());
+        final Object key = keyExtractor == NO_KEY_EXTRACTOR ? event.getClass() : keyExtractor.getKey(event);
+        final int hash = key == null ? 0 : key.hashCode();
+
+        // spread the high bits, for keys that only differ there
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % lanes.length;
+    }
+
+    /**
+     * Returns the number of lanes.
+     */
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * Returns a snapshot of the statistics of every lane, by lane index.
+     */
+    public List<LaneStatistics> getLaneStatistics() {
+        final List<LaneStatistics> statistics = new ArrayList<>(lanes.length);
+
+        for (int i = 0; i < lanes.length; i++) {
+            final Lane lane = lanes[i];
+
+            statistics.add(new LaneStatistics(i, lane.delivered.get(), lane.maxQueueDepth.get(), lane.queue.size()));
+        }
+
+        return Collections.unmodifiableList(statistics);
+    }
+
+    /**
+     * Returns whether {@link #shutdown()} was called.
+     */
+    public boolean isShutdown() {
+        return !running;
+    }
+
+    /**
+     * Resets the lane statistics, except for the number of waiting events.
+     */
+    public void resetStatistics() {
+        for (Lane lane : lanes) {
+            lane.delivered.set(0);
+            lane.maxQueueDepth.set(lane.queue.size());
+        }
+    }
+
+    /**
+     * Stops the lane threads once they have delivered the queued events. Posting afterwards
+     * throws; events that are posted while shutting down may not be delivered.
+     */
+    public void shutdown() {
+        running = false;
+
+        for (Lane lane : lanes) {
+            lane.queue.add(Delivery.SHUTDOWN);
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PROTECTED METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Adds the event and its listeners to the queue of its lane.
+     */
+    @Override
+    protected void deliver(final EventListener[] listeners, final Object event) {
+        if (!running) {
+            throw new TestableEventBusException("Event bus is shut down");
+        }
+
+        if (listeners.length > 0) {
+            lanes[getLane(event)].add(new Delivery(listeners, event));
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the key extractor of the nearest type in the hierarchy of the event class that has
+     * one, or {@link #NO_KEY_EXTRACTOR}. Resolved once per event class.
+     */
+    private EventKeyExtractor getKeyExtractor(final Class<?> eventClass) {
+        final Map<Class, EventKeyExtractor> resolved = resolvedKeyExtractors;
+        EventKeyExtractor keyExtractor = resolved.get(eventClass);
+
+        if (keyExtractor != null) {
+            return keyExtractor;
+        }
+
+        keyExtractor = NO_KEY_EXTRACTOR;
+
+        for (Class type : getTypeHierarchy(eventClass)) {
+            final EventKeyExtractor found = keyExtractors.get(type);
+
+            if (found != null) {
+                keyExtractor = found;
+                break;
+            }
+        }
+
+        resolved.put(eventClass, keyExtractor);
+
+        return keyExtractor;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // INNER CLASSES
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * A posted event with its listeners.
+     */
+    private static final class Delivery {
+
+        /**
+         * Stops the lane that takes it.
+         */
+        static final Delivery SHUTDOWN = new Delivery(new EventListener[0], null);
+
+        final Object event;
+        final EventListener[] listeners;
+
+        Delivery(final EventListener[] listeners, final Object event) {
+            this.event = event;
+            this.listeners = listeners;
+        }
+
+    }
+
+    /**
+     * Takes the events of one lane in posting order and invokes their listeners.
+     */
+    private final class Lane implements Runnable {
+
+        final AtomicLong delivered = new AtomicLong();
+        final AtomicInteger maxQueueDepth = new AtomicInteger();
+        final BlockingQueue<Delivery> queue = new LinkedBlockingQueue<>();
+
+        void add(final Delivery delivery) {
+            queue.add(delivery);
+
+            final int depth = queue.size();
+            int max;
+
+            while (depth > (max = maxQueueDepth.get()) && !maxQueueDepth.compareAndSet(max, depth)) {
+                // retry
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    final Delivery delivery = queue.take();
+
+                    if (delivery == Delivery.SHUTDOWN) {
+                        break;
+                    }
+
+                    for (EventListener listener : delivery.listeners) {
+                        invoke(listener, delivery.event);
+                    }
+
+                    delivered.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                // stop
+            } finally {
+                terminated.countDown();
+            }
+        }
+
+        private void invoke(final EventListener listener, final Object event) {
+            try {
+                invokeListener(listener, event);
+            } catch (RuntimeException e) {
+                // no subscriber exception handler: report it and continue with the next listener
+                final Thread thread = Thread.currentThread();
+
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,428 @@
+package com.cookingfox.eventbus.async;
+
+import com.cookingfox.eventbus.testable.SubscriberUncaughtExceptionHandler;
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import com.cookingfox.eventbus.testable.TestableEventBusException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Event bus implementation that passes posted events to a consumer thread through a preallocated
+ * ring buffer, in the style of the LMAX Disruptor. Subscribers work like they do for
+ * {@link TestableEventBus}.
+ * - Posting claims a sequence number, fills the preallocated slot and publishes it: in the steady
+ * state it does not allocate.
+ * - One consumer thread invokes the subscribers, in posting order.
+ * - Single- and multi-producer modes (see {@link PRODUCER}) and configurable wait strategies (see
+ * {@link WAIT_STRATEGY}).
+ * - When the ring buffer is full, posting waits until the consumer frees a slot, or throws once
+ * the event bus is shut down.
+ * - Events that subscribers post are delivered right away on the consumer thread, before the
+ * events that wait in the ring buffer: the consumer can not wait for a slot that only it frees.
+ * <p>
+ * Posted events are not logged by default, since logging allocates: use
+ * {@link #setPostedEventsRetention(RETENTION, int)} to enable the helper methods. Exceptions of
+ * subscribers are passed to the {@link SubscriberUncaughtExceptionHandler}; without one, they are
+ * passed to the uncaught exception handler of the consumer thread, which continues with the next
+ * event. Call {@link #shutdown()} to stop the consumer thread.
+ */
+public class RingBufferEventBus extends TestableEventBus {
+
+    //----------------------------------------------------------------------------------------------
+    // ENUMS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Defines which threads post events.
+     */
+    public enum PRODUCER {
+
+        /**
+         * Only one thread at a time posts events, so claiming a slot is a plain increment.
+         */
+        SINGLE,
+
+        /**
+         * Multiple threads post events at the same time, so claiming a slot is an atomic
+         * increment. This is the default.
+         */
+        MULTI
+
+    }
+
+    /**
+     * Defines how a thread waits: the consumer for the next published event and a producer for a
+     * free slot. Waiting shorter lowers latency, at the cost of CPU time.
+     */
+    public enum WAIT_STRATEGY {
+
+        /**
+         * Spin without pausing. Gives the lowest latency, but occupies a core while waiting: only
+         * use this when there are more cores than busy threads.
+         */
+        BUSY_SPIN {
+            @Override
+            int idle(final int counter) {
+                return counter + 1;
+            }
+        },
+
+        /**
+         * Spin briefly, then yield the core to other threads.
+         */
+        YIELD {
+            @Override
+            int idle(final int counter) {
+                if (counter >= SPIN_TRIES) {
+                    Thread.yield();
+                }
+
+                return counter + 1;
+            }
+        },
+
+        /**
+         * Spin briefly, then yield, then park the thread for short periods. Uses the least CPU
+         * time while idle, at the cost of latency. This is the default.
+         */
+        PARK {
+            @Override
+            int idle(final int counter) {
+                if (counter >= SPIN_TRIES + YIELD_TRIES) {
+                    LockSupport.parkNanos(PARK_NANOS);
+                } else if (counter >= SPIN_TRIES) {
+                    Thread.yield();
+                }
+
+                return counter + 1;
+            }
+        };
+
+        private static final int SPIN_TRIES = 100;
+        private static final int YIELD_TRIES = 100;
+        private static final long PARK_NANOS = 100;
+
+        /**
+         * Waits once, after `counter` previous unsuccessful tries, and returns the new counter.
+         */
+        abstract int idle(int counter);
+
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PROPERTIES
+    //----------------------------------------------------------------------------------------------
+
+    private final int capacity;
+
+    /**
+     * The sequence number of the last event that was taken by the consumer. Producers may reuse
+     * the slots of the taken events.
+     */
+    private final AtomicLong consumed = new AtomicLong(-1);
+
+    /**
+     * The thread that invokes the subscribers.
+     */
+    private final Thread consumer;
+
+    /**
+     * The sequence number of the last claimed slot.
+     *
+     * @see PRODUCER#MULTI
+     */
+    private final AtomicLong multiProducerSequence = new AtomicLong(-1);
+
+    private final int mask;
+    private final PRODUCER producer;
+
+    /**
+     * The sequence number of the event that was last published in every slot.
+     */
+    private final AtomicLongArray published;
+
+    /**
+     * Whether the consumer should keep waiting for events.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * The sequence number of the last claimed slot.
+     *
+     * @see PRODUCER#SINGLE
+     */
+    private long singleProducerSequence = -1;
+
+    /**
+     * The preallocated slots, which are reused for every lap around the ring buffer.
+     */
+    private final Slot[] slots;
+
+    /**
+     * Released when the consumer thread stops.
+     */
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
+    private final WAIT_STRATEGY waitStrategy;
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * @param mode     Defines whether to use annotation or name convention based subscriber
+     *                 methods.
+     * @param capacity The number of slots in the ring buffer: a power of two.
+     */
+    public RingBufferEventBus(final MODE mode, final int capacity) {
+        this(mode, capacity, PRODUCER.MULTI, WAIT_STRATEGY.PARK);
+    }
+
+    /**
+     * @param mode         Defines whether to use annotation or name convention based subscriber
+     *                     methods.
+     * @param capacity     The number of slots in the ring buffer: a power of two.
+     * @param producer     Defines which threads post events.
+     * @param waitStrategy Defines how the consumer and producers wait.
+     */
+    public RingBufferEventBus(final MODE mode, final int capacity, final PRODUCER producer,
+                              final WAIT_STRATEGY waitStrategy) {
+        super(mode, CONCURRENCY.COPY_ON_WRITE);
+
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new TestableEventBusException("Capacity must be a power of two");
+        } else if (producer == null) {
+            throw new TestableEventBusException("Producer can not be null");
+        } else if (waitStrategy == null) {
+            throw new TestableEventBusException("Wait strategy can not be null");
+        }
+
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.producer = producer;
+        this.published = new AtomicLongArray(capacity);
+        this.slots = new Slot[capacity];
+        this.waitStrategy = waitStrategy;
+
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+            slots[i] = new Slot();
+        }
+
+        setPostedEventsRetention(RETENTION.NONE);
+
+        consumer = new Thread(new Consumer(), "RingBufferEventBus-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Waits until the consumer thread has stopped after {@link #shutdown()}.
+     *
+     * @return Whether the consumer thread stopped before the timeout.
+     */
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    /**
+     * Returns the number of slots in the ring buffer.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns whether {@link #shutdown()} was called.
+     */
+    public boolean isShutdown() {
+        return !running;
+    }
+
+    /**
+     * Stops the consumer thread once it has delivered the published events. Posting afterwards
+     * throws; events that are posted while shutting down may not be delivered.
+     */
+    public void shutdown() {
+        running = false;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PROTECTED METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Publishes the event and its listeners in the next slot of the ring buffer.
+     */
+    @Override
+    protected void deliver(final EventListener[] listeners, final Object event) {
+        checkRunning();
+
+        if (Thread.currentThread() == consumer) {
+            invokeAll(listeners, event);
+        } else if (listeners.length > 0) {
+            publish(claim(1), listeners, event);
+        }
+    }
+
+    /**
+     * Publishes the events in consecutive slots, claiming up to the capacity of the ring buffer at
+     * once.
+     */
+    @Override
+    protected void deliverAll(final EventListener[][] listeners, final Object[] events) {
+        checkRunning();
+
+        if (Thread.currentThread() == consumer) {
+            for (int i = 0; i < events.length; i++) {
+                invokeAll(listeners[i], events[i]);
+            }
+
+            return;
+        }
+
+        int offset = 0;
+
+        while (offset < events.length) {
+            final int count = Math.min(capacity, events.length - offset);
+            final long first = claim(count) - count + 1;
+
+            for (int i = 0; i < count; i++) {
+                publish(first + i, listeners[offset + i], events[offset + i]);
+            }
+
+            offset += count;
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //----------------------------------------------------------------------------------------------
+
+    private void checkRunning() {
+        if (!running) {
+            throw new TestableEventBusException("Event bus is shut down");
+        }
+    }
+
+    /**
+     * Claims the next `count` slots and returns the sequence number of the last one.
+     */
+    private long claim(final int count) {
+        if (producer == PRODUCER.SINGLE) {
+            return singleProducerSequence += count;
+        }
+
+        return multiProducerSequence.addAndGet(count);
+    }
+
+    /**
+     * Invokes the listeners on the consumer thread.
+     */
+    private void invokeAll(final EventListener[] listeners, final Object event) {
+        for (EventListener listener : listeners) {
+            try {
+                invokeListener(listener, event);
+            } catch (RuntimeException e) {
+                // no subscriber exception handler: report it and continue with the next listener
+                final Thread thread = Thread.currentThread();
+
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+    }
+
+    /**
+     * Fills the slot of the claimed sequence number and publishes it to the consumer.
+     *
+     * @throws TestableEventBusException when the event bus is shut down while waiting for a slot.
+     */
+    private void publish(final long sequence, final EventListener[] listeners, final Object event) {
+        // wait until the consumer has taken the event of the previous lap
+        final long wrapPoint = sequence - capacity;
+        int idle = 0;
+
+        while (wrapPoint > consumed.get()) {
+            // the consumer may have stopped: it would never free the slot
+            checkRunning();
+            idle = waitStrategy.idle(idle);
+        }
+
+        final int index = (int) sequence & mask;
+        final Slot slot = slots[index];
+
+        slot.event = event;
+        slot.listeners = listeners;
+
+        // publishes the slot fields to the consumer
+        published.lazySet(index, sequence);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // INNER CLASSES
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Takes the published events in sequence order and invokes their listeners.
+     */
+    private final class Consumer implements Runnable {
+
+        @Override
+        public void run() {
+            long next = 0;
+            int idle = 0;
+
+            try {
+                while (true) {
+                    final int index = (int) next & mask;
+
+                    if (published.get(index) != next) {
+                        if (!running) {
+                            break;
+                        }
+
+                        idle = waitStrategy.idle(idle);
+                        continue;
+                    }
+
+                    final Slot slot = slots[index];
+                    final EventListener[] listeners = slot.listeners;
+                    final Object event = slot.event;
+
+                    // release the slot to the producers before invoking the listeners
+                    slot.event = null;
+                    slot.listeners = null;
+                    consumed.lazySet(next);
+
+                    invokeAll(listeners, event);
+
+                    next++;
+                    idle = 0;
+                }
+            } finally {
+                terminated.countDown();
+            }
+        }
+
+    }
+
+    /**
+     * A preallocated entry of the ring buffer. Its fields are published to the consumer by the
+     * sequence number of the slot.
+     */
+    private static final class Slot {
+
+        Object event;
+        EventListener[] listeners;
+
+    }
+
+}
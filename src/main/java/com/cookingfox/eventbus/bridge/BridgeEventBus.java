@@ -0,0 +1,549 @@
+package com.cookingfox.eventbus.bridge;
+
+import com.cookingfox.eventbus.EventBus;
+import com.cookingfox.eventbus.journal.EventSerializer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decorator for any {@link EventBus} that forwards the posted events of selected types (see
+ * {@link #addForwardedType(Class)}) to a remote bridge over a connected channel, such as a
+ * `SocketChannel` to another process on the same host, and posts the events it receives from the
+ * remote bridge on the wrapped event bus.
+ * - Posting serializes the event into a direct buffer; a writer thread writes all the events that
+ * were posted since its previous write in one batch. When the buffer is full, posting waits until
+ * the writer has taken it.
+ * - A reader thread reads into a direct buffer and posts the received events on the wrapped event
+ * bus, in the order in which they were posted remotely. Received events are not forwarded back.
+ * - The events are written as frames: the length of the rest of the frame (int), whether the event
+ * is sticky (byte) and the payload that the {@link EventSerializer} wrote. Both bridges must use
+ * the same serializer.
+ * <p>
+ * Forwarded events are also posted on the wrapped event bus. When posting a received event throws,
+ * the reader counts the failure (see {@link #getFailedCount()}) and continues. When the connection
+ * fails or the remote bridge closes it, the bridge closes: see {@link #getFailure()}.
+ */
+public class BridgeEventBus implements EventBus, Closeable {
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTANTS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * The default size of the write and read buffers: 64 KiB.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The minimum size of the write and read buffers: 1 KiB.
+     */
+    public static final int MIN_BUFFER_SIZE = 1024;
+
+    /**
+     * How long {@link #close()} waits for the writer thread to write the posted events.
+     */
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * The size of the frame length and the sticky flag.
+     */
+    private static final int HEADER_SIZE = 5;
+
+    private static final byte POST = 0;
+    private static final byte POST_STICKY = 1;
+
+    //----------------------------------------------------------------------------------------------
+    // PROPERTIES
+    //----------------------------------------------------------------------------------------------
+
+    private final int bufferSize;
+    private final ByteChannel channel;
+    private volatile boolean closed = false;
+    private final EventBus eventBus;
+    private volatile long failedCount = 0;
+    private volatile Throwable failure;
+    private volatile Class<?>[] forwardedTypes = new Class<?>[0];
+
+    /**
+     * Guards {@link #pending}, {@link #sentCount} and closing.
+     */
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * The buffer that posted events are serialized into, until the writer thread takes it.
+     */
+    private ByteBuffer pending;
+
+    /**
+     * Signalled when an event is added to the pending buffer, or when closing.
+     */
+    private final Condition pendingAdded = lock.newCondition();
+
+    /**
+     * Signalled when the writer thread takes the pending buffer, or when closing.
+     */
+    private final Condition pendingTaken = lock.newCondition();
+
+    private final Thread reader;
+    private volatile long receivedCount = 0;
+    private long sentCount = 0;
+    private final EventSerializer serializer;
+    private final Thread writer;
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * @param eventBus   The event bus to post the events on.
+     * @param channel    The connected channel to the remote bridge, in blocking mode.
+     * @param serializer Writes and reads the forwarded events.
+     */
+    public BridgeEventBus(final EventBus eventBus, final ByteChannel channel, final EventSerializer serializer) {
+        this(eventBus, channel, serializer, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param eventBus   The event bus to post the events on.
+     * @param channel    The connected channel to the remote bridge, in blocking mode.
+     * @param serializer Writes and reads the forwarded events.
+     * @param bufferSize The size of the write and read buffers in bytes: a frame must fit in one
+     *                   buffer, on both sides.
+     */
+    public BridgeEventBus(final EventBus eventBus, final ByteChannel channel, final EventSerializer serializer,
+                          final int bufferSize) {
+        if (eventBus == null) {
+            throw new IllegalArgumentException("Event bus can not be null");
+        } else if (channel == null) {
+            throw new IllegalArgumentException("Channel can not be null");
+        } else if (serializer == null) {
+            throw new IllegalArgumentException("Serializer can not be null");
+        } else if (bufferSize < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Buffer size must be at least " + MIN_BUFFER_SIZE);
+        } else if (!channel.isOpen()) {
+            throw new IllegalArgumentException("Channel is closed");
+        } else if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+            throw new IllegalArgumentException("Channel must be in blocking mode");
+        }
+
+        this.bufferSize = bufferSize;
+        this.channel = channel;
+        this.eventBus = eventBus;
+        this.pending = ByteBuffer.allocateDirect(bufferSize);
+        this.serializer = serializer;
+
+        reader = new Thread(new Reader(), "BridgeEventBus-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        writer = new Thread(new Writer(), "BridgeEventBus-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Forward the posted events of this type, including its subtypes, to the remote bridge.
+     */
+    public synchronized BridgeEventBus addForwardedType(Class<?> eventType) {
+        if (eventType == null) {
+            throw new IllegalArgumentException("Event type can not be null");
+        }
+
+        if (!Arrays.asList(forwardedTypes).contains(eventType)) {
+            final Class<?>[] types = Arrays.copyOf(forwardedTypes, forwardedTypes.length + 1);
+            types[forwardedTypes.length] = eventType;
+            forwardedTypes = types;
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes the posted events, then closes the channel and stops the threads. Posting forwarded
+     * events afterwards throws. Waits at most a few seconds for a remote bridge that does not read.
+     */
+    @Override
+    public void close() {
+        stop(null);
+
+        // the writer writes the pending events before it stops
+        join(writer, CLOSE_TIMEOUT_MILLIS);
+        closeChannel();
+        join(reader, 0);
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Returns the wrapped event bus.
+     */
+    public EventBus getEventBus() {
+        return eventBus;
+    }
+
+    /**
+     * Returns the number of received events of which posting on the wrapped event bus threw.
+     */
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * Returns the exception that closed the bridge, or null if it is open or closed normally.
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * Returns the number of events that were received from the remote bridge and posted.
+     */
+    public long getReceivedCount() {
+        return receivedCount;
+    }
+
+    /**
+     * Returns the number of events that were queued for the remote bridge.
+     */
+    public long getSentCount() {
+        lock.lock();
+
+        try {
+            return sentCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public <T> T getStickyEvent(final Class<T> eventType) {
+        return eventBus.getStickyEvent(eventType);
+    }
+
+    /**
+     * Returns whether the bridge is closed, by {@link #close()}, by the remote bridge or by a
+     * failure.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void post(final Object event) {
+        forward(event, POST);
+        eventBus.post(event);
+    }
+
+    /**
+     * Forwards the selected events of the batch in iteration order, then posts the batch. The
+     * batch is not atomic on the wire: while posting waits for the writer thread, events that other
+     * threads post can be written between the events of the batch.
+     */
+    @Override
+    public void postAll(final Iterable<?> events) {
+        if (events == null) {
+            // let the wrapped event bus handle it
+            eventBus.postAll(null);
+            return;
+        }
+
+        // the iterable may only be iterated once
+        final List<Object> batch = new ArrayList<>();
+
+        for (Object event : events) {
+            batch.add(event);
+        }
+
+        for (Object event : batch) {
+            forward(event, POST);
+        }
+
+        eventBus.postAll(batch);
+    }
+
+    /**
+     * Forwards the event if its type is selected, then posts it as sticky event. The remote bridge
+     * also posts it as sticky event.
+     */
+    @Override
+    public void postSticky(final Object event) {
+        forward(event, POST_STICKY);
+        eventBus.postSticky(event);
+    }
+
+    @Override
+    public void register(final Object subscriber) {
+        eventBus.register(subscriber);
+    }
+
+    @Override
+    public void removeAllStickyEvents() {
+        eventBus.removeAllStickyEvents();
+    }
+
+    @Override
+    public <T> T removeStickyEvent(final Class<T> eventType) {
+        return eventBus.removeStickyEvent(eventType);
+    }
+
+    @Override
+    public void unregister(final Object subscriber) {
+        eventBus.unregister(subscriber);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //----------------------------------------------------------------------------------------------
+
+    private void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // closing anyway
+        }
+    }
+
+    /**
+     * Serializes the event into the pending buffer if its type is selected, waiting for the writer
+     * thread while the buffer is full.
+     */
+    private void forward(final Object event, final byte kind) {
+        // let the wrapped event bus handle null events
+        if (event == null || !isForwarded(event)) {
+            return;
+        }
+
+        lock.lock();
+
+        try {
+            while (true) {
+                if (closed) {
+                    throw new EventBridgeException("Bridge is closed", failure);
+                } else if (tryPut(event, kind)) {
+                    sentCount++;
+                    pendingAdded.signal();
+
+                    return;
+                } else if (pending.position() == 0) {
+                    throw new EventBridgeException("Frame of event type " + event.getClass().getName() +
+                            " does not fit in a buffer of " + bufferSize + " bytes");
+                }
+
+                pendingTaken.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isForwarded(final Object event) {
+        for (Class<?> type : forwardedTypes) {
+            if (type.isInstance(event)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Posts the event of the frame at the position of the buffer on the wrapped event bus.
+     */
+    private void receive(final ByteBuffer buffer) throws IOException {
+        final int end = buffer.position() + 4 + buffer.getInt();
+        final byte kind = buffer.get();
+
+        final ByteBuffer payload = buffer.duplicate();
+        payload.limit(end);
+        buffer.position(end);
+
+        final Object event = serializer.deserialize(payload);
+
+        try {
+            if (kind == POST_STICKY) {
+                eventBus.postSticky(event);
+            } else {
+                eventBus.post(event);
+            }
+        } catch (RuntimeException e) {
+            failedCount++;
+        }
+
+        // counted once posted, so a count includes the delivery
+        receivedCount++;
+    }
+
+    /**
+     * Marks the bridge as closed and wakes the waiting threads.
+     *
+     * @param cause The failure that closes the bridge, or null.
+     */
+    private void stop(final Throwable cause) {
+        lock.lock();
+
+        try {
+            if (!closed) {
+                failure = cause;
+                closed = true;
+            }
+
+            pendingAdded.signalAll();
+            pendingTaken.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the frame at the position of the pending buffer. Returns false and restores the
+     * position if the frame does not fit.
+     */
+    private boolean tryPut(final Object event, final byte kind) {
+        final int start = pending.position();
+        boolean put = false;
+
+        try {
+            // the length is written last
+            pending.putInt(0);
+            pending.put(kind);
+            serializer.serialize(event, pending);
+            pending.putInt(start, pending.position() - start - 4);
+
+            put = true;
+
+            return true;
+        } catch (BufferOverflowException e) {
+            return false;
+        } catch (IOException e) {
+            throw new EventBridgeException("Could not serialize event: " + event, e);
+        } finally {
+            if (!put) {
+                pending.position(start);
+            }
+        }
+    }
+
+    private static void join(final Thread thread, final long timeoutMillis) {
+        if (thread == Thread.currentThread()) {
+            return;
+        }
+
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // INNER CLASSES
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Reads the frames of the remote bridge and posts their events, until the channel closes.
+     */
+    private final class Reader implements Runnable {
+
+        @Override
+        public void run() {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+
+            try {
+                while (channel.read(buffer) >= 0) {
+                    buffer.flip();
+
+                    while (buffer.remaining() >= HEADER_SIZE) {
+                        final int length = buffer.getInt(buffer.position());
+
+                        if (length < 1 || length > bufferSize - 4) {
+                            throw new IOException("Invalid frame length: " + length);
+                        } else if (buffer.remaining() < length + 4) {
+                            break;
+                        }
+
+                        receive(buffer);
+                    }
+
+                    buffer.compact();
+                }
+
+                // the remote bridge closed the connection
+                stop(null);
+            } catch (IOException | RuntimeException e) {
+                // closing the channel interrupts the read
+                stop(e);
+            }
+
+            closeChannel();
+        }
+
+    }
+
+    /**
+     * Writes the pending buffer to the channel whenever it has frames, until the bridge closes.
+     */
+    private final class Writer implements Runnable {
+
+        /**
+         * The buffer that is being written: swapped with the pending buffer.
+         */
+        private ByteBuffer writing = ByteBuffer.allocateDirect(bufferSize);
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    lock.lock();
+
+                    try {
+                        while (pending.position() == 0 && !closed) {
+                            pendingAdded.awaitUninterruptibly();
+                        }
+
+                        if (pending.position() == 0) {
+                            return;
+                        }
+
+                        final ByteBuffer taken = pending;
+                        pending = writing;
+                        writing = taken;
+
+                        pendingTaken.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+
+                    writing.flip();
+
+                    while (writing.hasRemaining()) {
+                        channel.write(writing);
+                    }
+
+                    writing.clear();
+                }
+            } catch (IOException e) {
+                stop(e);
+                closeChannel();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.cookingfox.eventbus.bridge;
+
+/**
+ * Exception class specific to {@link BridgeEventBus}.
+ */
+public class EventBridgeException extends RuntimeException {
+
+    public EventBridgeException(String message) {
+        super(message);
+    }
+
+    public EventBridgeException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.cookingfox.eventbus.instrumented;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A snapshot of the statistics of an {@link InstrumentedEventBus}.
+ *
+ * @see InstrumentedEventBus#getStatistics()
+ */
+public class EventBusStatistics {
+
+    /**
+     * The latencies of {@link InstrumentedEventBus#postAll(Iterable)}, per batch.
+     */
+    public final LatencyStatistics batchLatency;
+
+    /**
+     * The statistics of {@link InstrumentedEventBus#post(Object)} per event type, in no
+     * particular order.
+     */
+    public final Map<Class<?>, EventTypeStatistics> eventTypes;
+
+    /**
+     * The most recent posts that took at least the slow post threshold, oldest first.
+     */
+    public final List<SlowPost> slowPosts;
+
+    /**
+     * The number of subscribers that are registered through the instrumented event bus.
+     */
+    public final int subscriberCount;
+
+    public EventBusStatistics(LatencyStatistics batchLatency, Map<Class<?>, EventTypeStatistics> eventTypes,
+                              List<SlowPost> slowPosts, int subscriberCount) {
+        this.batchLatency = batchLatency;
+        this.eventTypes = eventTypes;
+        this.slowPosts = slowPosts;
+        this.subscriberCount = subscriberCount;
+    }
+
+    public LatencyStatistics getBatchLatency() {
+        return batchLatency;
+    }
+
+    /**
+     * Returns the statistics of the event type, or null if it was never posted.
+     */
+    public EventTypeStatistics getEventType(Class<?> eventType) {
+        return eventTypes.get(eventType);
+    }
+
+    public Map<Class<?>, EventTypeStatistics> getEventTypes() {
+        return eventTypes;
+    }
+
+    /**
+     * Returns the number of events that were posted using {@link InstrumentedEventBus#post(Object)}.
+     */
+    public long getPosted() {
+        long posted = 0;
+
+        for (EventTypeStatistics statistics : eventTypes.values()) {
+            posted += statistics.getPosted();
+        }
+
+        return posted;
+    }
+
+    public List<SlowPost> getSlowPosts() {
+        return slowPosts;
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount;
+    }
+
+    @Override
+    public String toString() {
+        return "EventBusStatistics{" +
+                "posted=" + getPosted() +
+                ", subscriberCount=" + subscriberCount +
+                ", eventTypes=" + eventTypes.values() +
+                ", batchLatency=" + batchLatency +
+                ", slowPosts=" + slowPosts +
+                '}';
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.cookingfox.eventbus.instrumented;
+
+/**
+ * A snapshot of the statistics of one event type of an {@link InstrumentedEventBus}.
+ */
+public class EventTypeStatistics {
+
+    /**
+     * The event type.
+     */
+    public final Class<?> eventType;
+
+    /**
+     * The number of posts of this type that threw an exception.
+     */
+    public final long failed;
+
+    /**
+     * The latencies of {@link InstrumentedEventBus#post(Object)} for this type, including the
+     * failed posts.
+     */
+    public final LatencyStatistics latency;
+
+    public EventTypeStatistics(Class<?> eventType, long failed, LatencyStatistics latency) {
+        this.eventType = eventType;
+        this.failed = failed;
+        this.latency = latency;
+    }
+
+    public Class<?> getEventType() {
+        return eventType;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public LatencyStatistics getLatency() {
+        return latency;
+    }
+
+    /**
+     * Returns the number of posts of this type.
+     */
+    public long getPosted() {
+        return latency.getCount();
+    }
+
+    @Override
+    public String toString() {
+        return "EventTypeStatistics{" +
+                "eventType=" + eventType.getName() +
+                ", posted=" + getPosted() +
+                ", failed=" + failed +
+                ", latency=" + latency +
+                '}';
+    }
+
+}
@@ -0,0 +1,277 @@
+package com.cookingfox.eventbus.instrumented;
+
+import com.cookingfox.eventbus.EventBus;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorator for any {@link EventBus}, such as an adapter or the testable event bus, that records:
+ * - The latency of {@link #post(Object)} and {@link #postSticky(Object)} per event type, in a
+ * histogram (see {@link LatencyStatistics}), and the number of failed posts.
+ * - The latency of {@link #postAll(Iterable)} per batch.
+ * - The number of registered subscribers.
+ * - The most recent posts that took at least the slow post threshold.
+ * <p>
+ * The latency of a post is the time until the wrapped event bus returns: for synchronous
+ * implementations that includes invoking the subscribers. Recording takes a map lookup and a few
+ * atomic increments per post, so it can stay enabled in production. Use {@link #getStatistics()}
+ * to get a snapshot of the numbers.
+ */
+public class InstrumentedEventBus implements EventBus {
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTANTS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * The default slow post threshold: one millisecond.
+     */
+    public static final long DEFAULT_SLOW_POST_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * The number of most recent slow posts that are kept.
+     */
+    public static final int SLOW_POST_CAPACITY = 32;
+
+    //----------------------------------------------------------------------------------------------
+    // PROPERTIES
+    //----------------------------------------------------------------------------------------------
+
+    private volatile LatencyHistogram batchLatency = new LatencyHistogram();
+
+    private final EventBus eventBus;
+
+    /**
+     * The statistics recorders per event type.
+     */
+    private final ConcurrentMap<Class<?>, EventTypeRecorder> recorders = new ConcurrentHashMap<>();
+
+    /**
+     * The most recent slow posts, oldest first. Guarded by itself.
+     */
+    private final Deque<SlowPost> slowPosts = new ArrayDeque<>();
+
+    private final long slowPostThresholdNanos;
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * @param eventBus The event bus to instrument.
+     */
+    public InstrumentedEventBus(final EventBus eventBus) {
+        this(eventBus, DEFAULT_SLOW_POST_THRESHOLD_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param eventBus          The event bus to instrument.
+     * @param slowPostThreshold Posts that take at least this long are kept as slow posts.
+     * @param unit              The unit of the slow post threshold.
+     */
+    public InstrumentedEventBus(final EventBus eventBus, final long slowPostThreshold, final TimeUnit unit) {
+        if (eventBus == null) {
+            throw new IllegalArgumentException("Event bus can not be null");
+        } else if (slowPostThreshold < 0) {
+            throw new IllegalArgumentException("Slow post threshold can not be negative");
+        }
+
+        this.eventBus = eventBus;
+        this.slowPostThresholdNanos = unit.toNanos(slowPostThreshold);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the instrumented event bus.
+     */
+    public EventBus getEventBus() {
+        return eventBus;
+    }
+
+    @Override
+    public <T> T getStickyEvent(final Class<T> eventType) {
+        return eventBus.getStickyEvent(eventType);
+    }
+
+    /**
+     * Returns a snapshot of the statistics. Posts that finish while the snapshot is taken may be
+     * partially included.
+     */
+    public EventBusStatistics getStatistics() {
+        final Map<Class<?>, EventTypeStatistics> eventTypes = new HashMap<>();
+
+        for (Map.Entry<Class<?>, EventTypeRecorder> entry : recorders.entrySet()) {
+            final EventTypeRecorder recorder = entry.getValue();
+
+            eventTypes.put(entry.getKey(), new EventTypeStatistics(entry.getKey(), recorder.failed.get(),
+                    recorder.latency.snapshot()));
+        }
+
+        final List<SlowPost> slowPostsCopy;
+
+        synchronized (slowPosts) {
+            slowPostsCopy = new ArrayList<>(slowPosts);
+        }
+
+        return new EventBusStatistics(batchLatency.snapshot(), Collections.unmodifiableMap(eventTypes),
+                Collections.unmodifiableList(slowPostsCopy), subscriberCount.get());
+    }
+
+    /**
+     * Returns the slow post threshold, in nanoseconds.
+     */
+    public long getSlowPostThresholdNanos() {
+        return slowPostThresholdNanos;
+    }
+
+    @Override
+    public void post(final Object event) {
+        post(event, false);
+    }
+
+    /**
+     * Records the latency of the whole batch: the wrapped event bus delivers the events.
+     */
+    @Override
+    public void postAll(final Iterable<?> events) {
+        final LatencyHistogram histogram = batchLatency;
+        final long start = System.nanoTime();
+
+        try {
+            eventBus.postAll(events);
+        } finally {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void postSticky(final Object event) {
+        post(event, true);
+    }
+
+    @Override
+    public void register(final Object subscriber) {
+        eventBus.register(subscriber);
+        subscriberCount.incrementAndGet();
+    }
+
+    @Override
+    public void removeAllStickyEvents() {
+        eventBus.removeAllStickyEvents();
+    }
+
+    @Override
+    public <T> T removeStickyEvent(final Class<T> eventType) {
+        return eventBus.removeStickyEvent(eventType);
+    }
+
+    /**
+     * Clears the recorded latencies, failures and slow posts. The subscriber count is not reset.
+     */
+    public void resetStatistics() {
+        recorders.clear();
+        batchLatency = new LatencyHistogram();
+
+        synchronized (slowPosts) {
+            slowPosts.clear();
+        }
+    }
+
+    @Override
+    public void unregister(final Object subscriber) {
+        eventBus.unregister(subscriber);
+        subscriberCount.decrementAndGet();
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //----------------------------------------------------------------------------------------------
+
+    private void addSlowPost(final SlowPost slowPost) {
+        synchronized (slowPosts) {
+            if (slowPosts.size() == SLOW_POST_CAPACITY) {
+                slowPosts.removeFirst();
+            }
+
+            slowPosts.addLast(slowPost);
+        }
+    }
+
+    private EventTypeRecorder getRecorder(final Class<?> eventType) {
+        final EventTypeRecorder recorder = recorders.get(eventType);
+
+        if (recorder != null) {
+            return recorder;
+        }
+
+        final EventTypeRecorder created = new EventTypeRecorder();
+        final EventTypeRecorder existing = recorders.putIfAbsent(eventType, created);
+
+        return existing != null ? existing : created;
+    }
+
+    /**
+     * Posts the event on the wrapped event bus and records the latency.
+     */
+    private void post(final Object event, final boolean sticky) {
+        if (event == null) {
+            // let the wrapped event bus handle it
+            postUnrecorded(null, sticky);
+            return;
+        }
+
+        final EventTypeRecorder recorder = getRecorder(event.getClass());
+        final long start = System.nanoTime();
+        boolean failed = true;
+
+        try {
+            postUnrecorded(event, sticky);
+            failed = false;
+        } finally {
+            final long latencyNanos = System.nanoTime() - start;
+
+            recorder.latency.record(latencyNanos);
+
+            if (failed) {
+                recorder.failed.incrementAndGet();
+            }
+
+            if (latencyNanos >= slowPostThresholdNanos) {
+                addSlowPost(new SlowPost(event.getClass(), latencyNanos, Thread.currentThread().getName(),
+                        System.currentTimeMillis()));
+            }
+        }
+    }
+
+    private void postUnrecorded(final Object event, final boolean sticky) {
+        if (sticky) {
+            eventBus.postSticky(event);
+        } else {
+            eventBus.post(event);
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // INNER CLASSES
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Records the statistics of one event type.
+     */
+    private static final class EventTypeRecorder {
+
+        final AtomicLong failed = new AtomicLong();
+        final LatencyHistogram latency = new LatencyHistogram();
+
+    }
+
+}
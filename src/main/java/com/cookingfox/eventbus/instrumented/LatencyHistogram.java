@@ -0,0 +1,103 @@
+package com.cookingfox.eventbus.instrumented;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds, with log-linear buckets like HdrHistogram: every
+ * power of two is split into {@link #SUB_BUCKET_COUNT} linear sub-buckets, so a recorded value is
+ * off by at most 1/{@link #SUB_BUCKET_COUNT} (about 3%). Recording is a few atomic increments on
+ * preallocated counters.
+ */
+class LatencyHistogram {
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTANTS
+    //----------------------------------------------------------------------------------------------
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /**
+     * The number of linear sub-buckets per power of two.
+     */
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Values from 2^MAX_EXPONENT nanoseconds (about 68 seconds) are recorded in the last bucket.
+     */
+    private static final int MAX_EXPONENT = 36;
+
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    //----------------------------------------------------------------------------------------------
+    // PROPERTIES
+    //----------------------------------------------------------------------------------------------
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    //----------------------------------------------------------------------------------------------
+    // PACKAGE-PRIVATE METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the bucket index of the value.
+     */
+    static int indexOf(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return value < 0 ? 0 : (int) value;
+        }
+
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+
+        final int shift = exponent - SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Returns the highest value that is recorded in the bucket.
+     */
+    static long highestValueOf(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        final int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        final long lowest = (long) (SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1))) << shift;
+
+        return lowest + (1L << shift) - 1;
+    }
+
+    void record(final long nanos) {
+        counts.incrementAndGet(indexOf(nanos));
+        totalNanos.addAndGet(nanos);
+
+        long max = maxNanos.get();
+
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Returns a copy of the recorded values. Values that are recorded while copying may be
+     * partially included.
+     */
+    LatencyStatistics snapshot() {
+        final long[] bucketCounts = new long[BUCKET_COUNT];
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            bucketCounts[i] = counts.get(i);
+        }
+
+        return new LatencyStatistics(bucketCounts, maxNanos.get(), totalNanos.get());
+    }
+
+}
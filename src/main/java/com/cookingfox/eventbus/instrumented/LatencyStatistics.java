@@ -0,0 +1,94 @@
+package com.cookingfox.eventbus.instrumented;
+
+/**
+ * A snapshot of a latency histogram of an {@link InstrumentedEventBus}. Percentiles are accurate
+ * to about 3%.
+ */
+public class LatencyStatistics {
+
+    private final long[] bucketCounts;
+    private final long count;
+    private final long maxNanos;
+    private final long totalNanos;
+
+    LatencyStatistics(long[] bucketCounts, long maxNanos, long totalNanos) {
+        long count = 0;
+
+        for (long bucketCount : bucketCounts) {
+            count += bucketCount;
+        }
+
+        this.bucketCounts = bucketCounts;
+        this.count = count;
+        this.maxNanos = maxNanos;
+        this.totalNanos = totalNanos;
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the highest recorded latency, in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Returns the average recorded latency in nanoseconds, or zero if nothing was recorded.
+     */
+    public long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    /**
+     * Returns the sum of the recorded latencies, in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Returns the latency in nanoseconds that the percentage of the recorded latencies is lower
+     * than or equal to, or zero if nothing was recorded.
+     *
+     * @param percentile A percentage from 0 to 100, for example 99.9.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        } else if (count == 0) {
+            return 0;
+        }
+
+        final long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long cumulative = 0;
+
+        for (int i = 0; i < bucketCounts.length; i++) {
+            cumulative += bucketCounts[i];
+
+            if (cumulative >= target) {
+                return Math.min(LatencyHistogram.highestValueOf(i), maxNanos);
+            }
+        }
+
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyStatistics{" +
+                "count=" + count +
+                ", meanNanos=" + getMeanNanos() +
+                ", p50Nanos=" + getValueAtPercentile(50) +
+                ", p99Nanos=" + getValueAtPercentile(99) +
+                ", p999Nanos=" + getValueAtPercentile(99.9) +
+                ", maxNanos=" + maxNanos +
+                '}';
+    }
+
+}
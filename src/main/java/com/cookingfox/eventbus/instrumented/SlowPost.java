@@ -0,0 +1,61 @@
+package com.cookingfox.eventbus.instrumented;
+
+/**
+ * A post that took at least the slow post threshold of an {@link InstrumentedEventBus}.
+ */
+public class SlowPost {
+
+    /**
+     * The type of the posted event.
+     */
+    public final Class<?> eventType;
+
+    /**
+     * How long posting took, in nanoseconds.
+     */
+    public final long latencyNanos;
+
+    /**
+     * The name of the posting thread.
+     */
+    public final String threadName;
+
+    /**
+     * When posting finished, in milliseconds since the epoch.
+     */
+    public final long timestampMillis;
+
+    public SlowPost(Class<?> eventType, long latencyNanos, String threadName, long timestampMillis) {
+        this.eventType = eventType;
+        this.latencyNanos = latencyNanos;
+        this.threadName = threadName;
+        this.timestampMillis = timestampMillis;
+    }
+
+    public Class<?> getEventType() {
+        return eventType;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "SlowPost{" +
+                "eventType=" + eventType.getName() +
+                ", latencyNanos=" + latencyNanos +
+                ", threadName='" + threadName + '\'' +
+                ", timestampMillis=" + timestampMillis +
+                '}';
+    }
+
+}
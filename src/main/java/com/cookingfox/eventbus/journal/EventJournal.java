@@ -0,0 +1,327 @@
+package com.cookingfox.eventbus.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Appends posted events to memory-mapped segment files in a directory, so that long-running tests
+ * can keep a full trace without holding it on the heap. Attach it to a `TestableEventBus` using
+ * `setEventJournal()`, which also records the types of the subscribers that an event is posted
+ * to, or wrap any event bus in a {@link JournalingEventBus}. Use {@link JournalReader} to read it.
+ * <p>
+ * Appending copies the record into the mapped segment, without a system call: the operating
+ * system writes the dirty pages back in batches. A full segment is forced to the storage device
+ * before the next one is mapped; use {@link #flush()} to force the current one.
+ * <p>
+ * Every record consists of:
+ * - The length of the rest of the record (int). A length of 0 ends the segment: it is written
+ * last, so that a partially written record is never read. The bytes of a record that fails are
+ * zeroed.
+ * - The timestamp in milliseconds since the epoch (long) and the value of
+ * {@link System#nanoTime()} (long).
+ * - The event class name and the subscriber class names, as UTF-8 strings with a short length
+ * prefix, preceded by the number of subscriber types (short).
+ * - The payload that the {@link EventSerializer} wrote, until the end of the record.
+ * <p>
+ * A journal that is opened on a directory with segments appends new segments after them.
+ * Appending is synchronized.
+ */
+public class EventJournal implements Closeable {
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTANTS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * The default segment size: 64 MiB.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * The minimum segment size: 4 KiB.
+     */
+    public static final int MIN_SEGMENT_SIZE = 4 * 1024;
+
+    /**
+     * The file name extension of the segment files.
+     */
+    public static final String SEGMENT_SUFFIX = ".journal";
+
+    /**
+     * The types of a record without subscriber types.
+     */
+    static final Class<?>[] NO_SUBSCRIBER_TYPES = new Class<?>[0];
+
+    //----------------------------------------------------------------------------------------------
+    // PROPERTIES
+    //----------------------------------------------------------------------------------------------
+
+    private boolean closed = false;
+    private final File directory;
+    private long recordCount = 0;
+
+    /**
+     * The mapped segment that records are appended to, at its position.
+     */
+    private MappedByteBuffer segment;
+
+    private int segmentIndex;
+    private final int segmentSize;
+    private final EventSerializer serializer;
+
+    /**
+     * The encoded class names, so that appending does not encode them again.
+     */
+    private final ConcurrentMap<Class<?>, byte[]> typeNames = new ConcurrentHashMap<>();
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * @param directory  The directory of the segment files, which is created if it does not exist.
+     * @param serializer Writes the events to the records.
+     */
+    public EventJournal(final File directory, final EventSerializer serializer) throws IOException {
+        this(directory, serializer, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param directory   The directory of the segment files, which is created if it does not exist.
+     * @param serializer  Writes the events to the records.
+     * @param segmentSize The size of a segment file in bytes: a record must fit in one segment.
+     */
+    public EventJournal(final File directory, final EventSerializer serializer, final int segmentSize)
+            throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory can not be null");
+        } else if (serializer == null) {
+            throw new IllegalArgumentException("Serializer can not be null");
+        } else if (segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Segment size must be at least " + MIN_SEGMENT_SIZE);
+        }
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create journal directory: " + directory);
+        }
+
+        final File[] existing = listSegments(directory);
+
+        this.directory = directory;
+        this.segmentIndex = existing.length == 0 ? 0 : getSegmentIndex(existing[existing.length - 1]) + 1;
+        this.segmentSize = segmentSize;
+        this.serializer = serializer;
+        this.segment = mapSegment(segmentIndex);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Appends a record of the posted event.
+     *
+     * @param event           The posted event.
+     * @param subscriberTypes The types of the subscribers that the event is posted to.
+     * @throws EventJournalException when the journal is closed, the event can not be serialized,
+     *                               or its record does not fit in a segment.
+     */
+    public synchronized void append(final Object event, final Class<?>[] subscriberTypes) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event can not be null");
+        } else if (closed) {
+            throw new EventJournalException("Journal is closed");
+        }
+
+        if (tryAppend(event, subscriberTypes)) {
+            return;
+        }
+
+        // does not fit in the rest of the segment: start a new one
+        try {
+            segment.force();
+            segment = mapSegment(++segmentIndex);
+        } catch (IOException e) {
+            throw new EventJournalException("Could not create journal segment " + segmentIndex, e);
+        }
+
+        if (!tryAppend(event, subscriberTypes)) {
+            throw new EventJournalException("Record of event type " + event.getClass().getName() +
+                    " does not fit in a segment of " + segmentSize + " bytes");
+        }
+    }
+
+    /**
+     * Forces the records and closes the journal. The segments stay mapped until they are garbage
+     * collected.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        segment.force();
+        segment = null;
+        closed = true;
+    }
+
+    /**
+     * Forces the appended records of the current segment to the storage device.
+     */
+    public synchronized void flush() {
+        if (closed) {
+            throw new EventJournalException("Journal is closed");
+        }
+
+        segment.force();
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the number of records that this journal appended.
+     */
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PACKAGE-PRIVATE METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the index in the name of the segment file.
+     */
+    static int getSegmentIndex(final File segment) {
+        final String name = segment.getName();
+
+        return Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Returns the segment files in the directory, in appending order.
+     */
+    static File[] listSegments(final File directory) {
+        final File[] segments = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(SEGMENT_SUFFIX) &&
+                        name.substring(0, name.length() - SEGMENT_SUFFIX.length()).matches("\\d+");
+            }
+        });
+
+        if (segments == null) {
+            return new File[0];
+        }
+
+        Arrays.sort(segments, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Integer.compare(getSegmentIndex(a), getSegmentIndex(b));
+            }
+        });
+
+        return segments;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Zeroes the bytes of a partially written record, so that a shorter record that is appended
+     * next ends with a length of 0 instead of the rest of the partial one.
+     */
+    private void clear(final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            segment.put(i, (byte) 0);
+        }
+    }
+
+    /**
+     * Returns the UTF-8 encoded name of the class.
+     */
+    private byte[] getTypeName(final Class<?> type) {
+        byte[] name = typeNames.get(type);
+
+        if (name == null) {
+            name = type.getName().getBytes(StandardCharsets.UTF_8);
+            typeNames.put(type, name);
+        }
+
+        return name;
+    }
+
+    private MappedByteBuffer mapSegment(final int index) throws IOException {
+        final String name = String.format("%010d%s", index, SEGMENT_SUFFIX);
+
+        try (RandomAccessFile file = new RandomAccessFile(new File(directory, name), "rw")) {
+            // the mapping stays valid after the file is closed
+            return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private void putTypeName(final Class<?> type) {
+        final byte[] name = getTypeName(type);
+
+        segment.putShort((short) name.length);
+        segment.put(name);
+    }
+
+    /**
+     * Writes the record at the position of the segment. Returns false and restores the position if
+     * the record does not fit.
+     */
+    private boolean tryAppend(final Object event, final Class<?>[] subscriberTypes) {
+        final int start = segment.position();
+        boolean appended = false;
+
+        try {
+            // the length is written last
+            segment.putInt(0);
+            segment.putLong(System.currentTimeMillis());
+            segment.putLong(System.nanoTime());
+            putTypeName(event.getClass());
+            segment.putShort((short) subscriberTypes.length);
+
+            for (Class<?> subscriberType : subscriberTypes) {
+                putTypeName(subscriberType);
+            }
+
+            serializer.serialize(event, segment);
+            segment.putInt(start, segment.position() - start - 4);
+
+            recordCount++;
+            appended = true;
+
+            return true;
+        } catch (BufferOverflowException e) {
+            return false;
+        } catch (IOException e) {
+            throw new EventJournalException("Could not serialize event: " + event, e);
+        } finally {
+            if (!appended) {
+                clear(start, segment.position());
+                segment.position(start);
+            }
+        }
+    }
+
+}
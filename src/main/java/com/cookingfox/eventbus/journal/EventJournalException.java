@@ -0,0 +1,16 @@
+package com.cookingfox.eventbus.journal;
+
+/**
+ * Exception class specific to {@link EventJournal}.
+ */
+public class EventJournalException extends RuntimeException {
+
+    public EventJournalException(String message) {
+        super(message);
+    }
+
+    public EventJournalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,209 @@
+package com.cookingfox.eventbus.journal;
+
+import com.cookingfox.eventbus.EventBus;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Posts the events of a recorded stream, such as a {@link JournalReader}, on any {@link EventBus},
+ * to reproduce incidents or to benchmark subscribers. Reads and posts one record at a time, so the
+ * stream is never loaded into memory, and reports the achieved throughput in the returned
+ * {@link ReplayStatistics}.
+ * <p>
+ * Events are posted on the calling thread, in recorded order. Recorded sticky posts are replayed as
+ * regular posts.
+ */
+public class EventReplayer {
+
+    //----------------------------------------------------------------------------------------------
+    // ENUMS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Defines when the recorded events are posted.
+     */
+    public enum TIMING {
+
+        /**
+         * Post every event as soon as the previous post returns. This is the default.
+         */
+        AS_FAST_AS_POSSIBLE,
+
+        /**
+         * Post every event at its recorded offset from the first event, divided by the speed
+         * (see {@link #setSpeed(double)}). When posting falls behind, the late events are posted
+         * immediately: {@link ReplayStatistics#maxLagNanos} reports how late.
+         */
+        ORIGINAL
+
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTANTS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * When the recorded nanosecond and millisecond intervals between two records differ by more
+     * than this, the records are from different sessions, of which the `nanoTime` values are
+     * unrelated: the millisecond interval is used instead.
+     */
+    private static final long SESSION_CHANGE_TOLERANCE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    //----------------------------------------------------------------------------------------------
+    // PROPERTIES
+    //----------------------------------------------------------------------------------------------
+
+    private boolean continueOnFailure = false;
+    private final EventBus eventBus;
+    private double speed = 1;
+    private TIMING timing = TIMING.AS_FAST_AS_POSSIBLE;
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * @param eventBus The event bus to post the recorded events on.
+     */
+    public EventReplayer(final EventBus eventBus) {
+        if (eventBus == null) {
+            throw new IllegalArgumentException("Event bus can not be null");
+        }
+
+        this.eventBus = eventBus;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //----------------------------------------------------------------------------------------------
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public TIMING getTiming() {
+        return timing;
+    }
+
+    /**
+     * Posts the events of the source until it ends.
+     *
+     * @param source The recorded events.
+     * @return The statistics of the replay.
+     * @throws IOException          when the source can not be read.
+     * @throws InterruptedException when the thread is interrupted while waiting for an event's
+     *                              recorded time.
+     * @throws RuntimeException     when posting throws, unless failures are counted instead (see
+     *                              {@link #setContinueOnFailure(boolean)}).
+     */
+    public ReplayStatistics replay(final RecordSource source) throws IOException, InterruptedException {
+        if (source == null) {
+            throw new IllegalArgumentException("Source can not be null");
+        }
+
+        final long start = System.nanoTime();
+        long eventCount = 0;
+        long failedCount = 0;
+        long maxLagNanos = 0;
+
+        JournalRecord previous = null;
+        long recordedOffsetNanos = 0;
+        JournalRecord record;
+
+        while ((record = source.next()) != null) {
+            if (timing == TIMING.ORIGINAL) {
+                if (previous != null) {
+                    recordedOffsetNanos += getRecordedInterval(previous, record);
+                }
+
+                final long due = start + (long) (recordedOffsetNanos / speed);
+                long remaining;
+
+                while ((remaining = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(remaining);
+
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                }
+
+                maxLagNanos = Math.max(maxLagNanos, -remaining);
+                previous = record;
+            }
+
+            try {
+                eventBus.post(record.event);
+            } catch (RuntimeException e) {
+                if (!continueOnFailure) {
+                    throw e;
+                }
+
+                failedCount++;
+            }
+
+            eventCount++;
+        }
+
+        return new ReplayStatistics(System.nanoTime() - start, eventCount, failedCount, maxLagNanos);
+    }
+
+    /**
+     * Set whether the replay continues when posting an event throws, counting the failure in
+     * {@link ReplayStatistics#failedCount}, for example when the event bus has no listeners for
+     * some recorded event types. Disabled by default: the exception stops the replay.
+     */
+    public EventReplayer setContinueOnFailure(boolean continueOnFailure) {
+        this.continueOnFailure = continueOnFailure;
+
+        return this;
+    }
+
+    /**
+     * Set the speed multiplier of the {@link TIMING#ORIGINAL} timing: 2 replays twice as fast as
+     * recorded, 0.5 half as fast. Defaults to 1.
+     */
+    public EventReplayer setSpeed(double speed) {
+        if (!(speed > 0) || Double.isInfinite(speed)) {
+            throw new IllegalArgumentException("Speed must be a positive number");
+        }
+
+        this.speed = speed;
+
+        return this;
+    }
+
+    /**
+     * Set when the recorded events are posted.
+     */
+    public EventReplayer setTiming(TIMING timing) {
+        if (timing == null) {
+            throw new IllegalArgumentException("Timing can not be null");
+        }
+
+        this.timing = timing;
+
+        return this;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the recorded time between two consecutive records, in nanoseconds: the precise
+     * `nanoTime` interval, unless the records are from different sessions.
+     */
+    private static long getRecordedInterval(final JournalRecord previous, final JournalRecord record) {
+        final long nanos = record.timestampNanos - previous.timestampNanos;
+        final long millis = TimeUnit.MILLISECONDS.toNanos(record.timestampMillis - previous.timestampMillis);
+
+        if (nanos >= 0 && Math.abs(nanos - millis) <= SESSION_CHANGE_TOLERANCE_NANOS) {
+            return nanos;
+        }
+
+        return Math.max(0, millis);
+    }
+
+}
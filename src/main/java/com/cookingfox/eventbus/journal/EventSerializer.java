@@ -0,0 +1,38 @@
+package com.cookingfox.eventbus.journal;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Converts events to and from the payload of {@link EventJournal} records. Implementations write
+ * directly into the memory-mapped segment, so a compact binary format keeps the journal small and
+ * fast. Implementations must be thread-safe.
+ * <p>
+ * `BridgeEventBus` uses the same interface to write events into its direct send buffer.
+ *
+ * @see SerializableEventSerializer
+ */
+public interface EventSerializer {
+
+    /**
+     * Writes the event at the position of the buffer, advancing the position.
+     *
+     * @param event  The event to write.
+     * @param buffer The buffer to write to.
+     * @throws BufferOverflowException when the buffer has no room for the event: the journal then
+     *                                 writes the record to a new segment.
+     * @throws IOException             when the event can not be serialized.
+     */
+    void serialize(Object event, ByteBuffer buffer) throws IOException;
+
+    /**
+     * Reads an event that {@link #serialize} wrote, from the position to the limit of the buffer.
+     *
+     * @param buffer The payload of a journal record.
+     * @return The event.
+     * @throws IOException when the event can not be deserialized.
+     */
+    Object deserialize(ByteBuffer buffer) throws IOException;
+
+}
@@ -0,0 +1,144 @@
+package com.cookingfox.eventbus.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the records of an {@link EventJournal} directory in appending order. Maps one segment at a
+ * time and deserializes one record per {@link #next()} call, so the journal is never loaded into
+ * the heap. Reads the segments that exist when it is created; a reader is not thread-safe.
+ *
+ * @see EventReplayer
+ */
+public class JournalReader implements Closeable, RecordSource {
+
+    //----------------------------------------------------------------------------------------------
+    // PROPERTIES
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * The mapped segment that is being read, at the position of the next record, or null.
+     */
+    private MappedByteBuffer segment;
+
+    private final File[] segments;
+    private int segmentIndex = 0;
+    private final EventSerializer serializer;
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * @param directory  The directory of the journal's segment files.
+     * @param serializer Reads the events from the records: the one that wrote them.
+     */
+    public JournalReader(final File directory, final EventSerializer serializer) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory can not be null");
+        } else if (serializer == null) {
+            throw new IllegalArgumentException("Serializer can not be null");
+        } else if (!directory.isDirectory()) {
+            throw new IOException("Not a journal directory: " + directory);
+        }
+
+        this.segments = EventJournal.listSegments(directory);
+        this.serializer = serializer;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Stops reading. The mapped segment stays mapped until it is garbage collected.
+     */
+    @Override
+    public void close() {
+        segment = null;
+        segmentIndex = segments.length;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return The record, or null if all records are read.
+     * @throws IOException when a segment can not be read or an event can not be deserialized.
+     */
+    @Override
+    public JournalRecord next() throws IOException {
+        while (true) {
+            if (segment == null) {
+                if (segmentIndex == segments.length) {
+                    return null;
+                }
+
+                segment = mapSegment(segments[segmentIndex++]);
+            }
+
+            final int position = segment.position();
+
+            // a length of 0 ends the written part of the segment
+            if (segment.remaining() < 4 || segment.getInt(position) == 0) {
+                segment = null;
+                continue;
+            }
+
+            return readRecord();
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //----------------------------------------------------------------------------------------------
+
+    private JournalRecord readRecord() throws IOException {
+        final int length = segment.getInt();
+
+        if (length < 0 || length > segment.remaining()) {
+            throw new IOException("Invalid record length " + length + " at position " +
+                    (segment.position() - 4) + " of segment " + segments[segmentIndex - 1]);
+        }
+
+        final int end = segment.position() + length;
+        final long timestampMillis = segment.getLong();
+        final long timestampNanos = segment.getLong();
+        final String eventType = readTypeName();
+        final int subscriberTypeCount = segment.getShort();
+        final List<String> subscriberTypes = new ArrayList<>(subscriberTypeCount);
+
+        for (int i = 0; i < subscriberTypeCount; i++) {
+            subscriberTypes.add(readTypeName());
+        }
+
+        final ByteBuffer payload = segment.duplicate();
+        payload.limit(end);
+        segment.position(end);
+
+        return new JournalRecord(serializer.deserialize(payload), eventType,
+                Collections.unmodifiableList(subscriberTypes), timestampMillis, timestampNanos);
+    }
+
+    private String readTypeName() {
+        final byte[] name = new byte[segment.getShort()];
+        segment.get(name);
+
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private static MappedByteBuffer mapSegment(final File file) throws IOException {
+        try (RandomAccessFile segment = new RandomAccessFile(file, "r")) {
+            return segment.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, segment.length());
+        }
+    }
+
+}
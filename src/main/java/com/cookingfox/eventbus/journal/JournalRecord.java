@@ -0,0 +1,76 @@
+package com.cookingfox.eventbus.journal;
+
+import java.util.List;
+
+/**
+ * A posted event that {@link JournalReader} read from an {@link EventJournal}.
+ */
+public class JournalRecord {
+
+    /**
+     * The posted event.
+     */
+    public final Object event;
+
+    /**
+     * The name of the event class.
+     */
+    public final String eventType;
+
+    /**
+     * The class names of the subscribers that the event was posted to, or an empty list if the
+     * journal did not know them.
+     */
+    public final List<String> subscriberTypes;
+
+    /**
+     * When the event was posted, in milliseconds since the epoch.
+     */
+    public final long timestampMillis;
+
+    /**
+     * The value of {@link System#nanoTime()} when the event was posted: only the differences
+     * between records of one journal session are meaningful.
+     */
+    public final long timestampNanos;
+
+    public JournalRecord(Object event, String eventType, List<String> subscriberTypes, long timestampMillis,
+                         long timestampNanos) {
+        this.event = event;
+        this.eventType = eventType;
+        this.subscriberTypes = subscriberTypes;
+        this.timestampMillis = timestampMillis;
+        this.timestampNanos = timestampNanos;
+    }
+
+    public Object getEvent() {
+        return event;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public List<String> getSubscriberTypes() {
+        return subscriberTypes;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "JournalRecord{" +
+                "eventType=" + eventType +
+                ", subscriberTypes=" + subscriberTypes +
+                ", timestampMillis=" + timestampMillis +
+                ", timestampNanos=" + timestampNanos +
+                '}';
+    }
+
+}
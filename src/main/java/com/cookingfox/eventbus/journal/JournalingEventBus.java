@@ -0,0 +1,130 @@
+package com.cookingfox.eventbus.journal;
+
+import com.cookingfox.eventbus.EventBus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decorator for any {@link EventBus} that appends every posted event to an {@link EventJournal}
+ * before posting it on the wrapped event bus. The decorator does not know which subscribers an
+ * event is posted to, so its records have no subscriber types: attach the journal to a
+ * `TestableEventBus` using `setEventJournal()` to record them.
+ */
+public class JournalingEventBus implements EventBus {
+
+    //----------------------------------------------------------------------------------------------
+    // PROPERTIES
+    //----------------------------------------------------------------------------------------------
+
+    private final EventBus eventBus;
+    private final EventJournal journal;
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTRUCTORS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * @param eventBus The event bus to post the events on.
+     * @param journal  The journal to append the posted events to.
+     */
+    public JournalingEventBus(final EventBus eventBus, final EventJournal journal) {
+        if (eventBus == null) {
+            throw new IllegalArgumentException("Event bus can not be null");
+        } else if (journal == null) {
+            throw new IllegalArgumentException("Journal can not be null");
+        }
+
+        this.eventBus = eventBus;
+        this.journal = journal;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the wrapped event bus.
+     */
+    public EventBus getEventBus() {
+        return eventBus;
+    }
+
+    public EventJournal getJournal() {
+        return journal;
+    }
+
+    @Override
+    public <T> T getStickyEvent(final Class<T> eventType) {
+        return eventBus.getStickyEvent(eventType);
+    }
+
+    @Override
+    public void post(final Object event) {
+        append(event);
+        eventBus.post(event);
+    }
+
+    /**
+     * Appends the events of the batch in iteration order, then posts the batch.
+     */
+    @Override
+    public void postAll(final Iterable<?> events) {
+        if (events == null) {
+            // let the wrapped event bus handle it
+            eventBus.postAll(null);
+            return;
+        }
+
+        // the iterable may only be iterated once
+        final List<Object> batch = new ArrayList<>();
+
+        for (Object event : events) {
+            batch.add(event);
+        }
+
+        for (Object event : batch) {
+            append(event);
+        }
+
+        eventBus.postAll(batch);
+    }
+
+    @Override
+    public void postSticky(final Object event) {
+        append(event);
+        eventBus.postSticky(event);
+    }
+
+    @Override
+    public void register(final Object subscriber) {
+        eventBus.register(subscriber);
+    }
+
+    @Override
+    public void removeAllStickyEvents() {
+        eventBus.removeAllStickyEvents();
+    }
+
+    @Override
+    public <T> T removeStickyEvent(final Class<T> eventType) {
+        return eventBus.removeStickyEvent(eventType);
+    }
+
+    @Override
+    public void unregister(final Object subscriber) {
+        eventBus.unregister(subscriber);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //----------------------------------------------------------------------------------------------
+
+    private void append(final Object event) {
+        // let the wrapped event bus handle null events
+        if (event != null) {
+            journal.append(event, EventJournal.NO_SUBSCRIBER_TYPES);
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.cookingfox.eventbus.journal;
+
+import java.io.IOException;
+
+/**
+ * A stream of {@link JournalRecord}s, which {@link EventReplayer} reads one at a time.
+ *
+ * @see JournalReader
+ */
+public interface RecordSource {
+
+    /**
+     * Reads the next record.
+     *
+     * @return The record, or null at the end of the stream.
+     * @throws IOException when the record can not be read.
+     */
+    JournalRecord next() throws IOException;
+
+}
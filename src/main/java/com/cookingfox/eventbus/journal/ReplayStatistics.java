@@ -0,0 +1,74 @@
+package com.cookingfox.eventbus.journal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The result of an {@link EventReplayer#replay(RecordSource)} run.
+ */
+public class ReplayStatistics {
+
+    /**
+     * How long the replay took, including reading the records, in nanoseconds.
+     */
+    public final long elapsedNanos;
+
+    /**
+     * The number of events that were posted, including the failed posts.
+     */
+    public final long eventCount;
+
+    /**
+     * The number of posts that threw.
+     *
+     * @see EventReplayer#setContinueOnFailure(boolean)
+     */
+    public final long failedCount;
+
+    /**
+     * The longest time that an event was posted after its due time, in nanoseconds. Always zero
+     * for {@link EventReplayer.TIMING#AS_FAST_AS_POSSIBLE}.
+     */
+    public final long maxLagNanos;
+
+    public ReplayStatistics(long elapsedNanos, long eventCount, long failedCount, long maxLagNanos) {
+        this.elapsedNanos = elapsedNanos;
+        this.eventCount = eventCount;
+        this.failedCount = failedCount;
+        this.maxLagNanos = maxLagNanos;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Returns the achieved throughput in events per second, or zero if no time elapsed.
+     */
+    public double getEventsPerSecond() {
+        return elapsedNanos == 0 ? 0 : eventCount * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public long getMaxLagNanos() {
+        return maxLagNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ReplayStatistics{" +
+                "elapsedNanos=" + elapsedNanos +
+                ", eventCount=" + eventCount +
+                ", eventsPerSecond=" + getEventsPerSecond() +
+                ", failedCount=" + failedCount +
+                ", maxLagNanos=" + maxLagNanos +
+                '}';
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.cookingfox.eventbus.journal;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link EventSerializer} that uses Java serialization, so it supports every event class that
+ * implements {@link Serializable}. Java serialization is slow and verbose: implement a binary
+ * serializer for the event types of long-running load tests.
+ */
+public class SerializableEventSerializer implements EventSerializer {
+
+    //----------------------------------------------------------------------------------------------
+    // PUBLIC METHODS
+    //----------------------------------------------------------------------------------------------
+
+    @Override
+    public Object deserialize(final ByteBuffer buffer) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(buffer))) {
+            return in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown event class: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void serialize(final Object event, final ByteBuffer buffer) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(event);
+        }
+
+        buffer.put(bytes.toByteArray());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // INNER CLASSES
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Reads the remaining bytes of a buffer.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) {
+            if (length == 0) {
+                return 0;
+            } else if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            final int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+
+            return count;
+        }
+
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.cookingfox.eventbus.testable;
+
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Caches a value that is computed from a class, such as the resolved subscriber methods of a
+ * subscriber class or the flattened type hierarchy of an event class.
+ * <p>
+ * Backed by a {@link ClassValue}, which stores the value with the class itself and therefore does
+ * not prevent the class from being unloaded. Platforms without `ClassValue` (Android before API 34)
+ * use a synchronized {@link WeakHashMap}. Its values usually reference their key class, for example
+ * through its methods, so they are held softly: otherwise the keys would never be cleared. Values
+ * that are collected under memory pressure are loaded again on the next lookup.
+ *
+ * @param <V> The type of the cached values.
+ */
+abstract class ClassCache<V> {
+
+    /**
+     * Whether {@link ClassValue} is available on this platform.
+     */
+    private static final boolean CLASS_VALUE_SUPPORTED = SubscriberInvoker.isClassAvailable("java.lang.ClassValue");
+
+    /**
+     * Computes the value for a class that is not in the cache yet.
+     */
+    interface Loader<V> {
+
+        /**
+         * Returns the value for the class. Exceptions are thrown to the caller of
+         * {@link #get(Class)} and nothing is cached.
+         */
+        V load(Class<?> type);
+
+    }
+
+    /**
+     * Returns the cached value for the class, using the loader on a cache miss.
+     */
+    abstract V get(Class<?> type);
+
+    /**
+     * Creates an empty cache for the loader.
+     */
+    static <V> ClassCache<V> create(final Loader<V> loader) {
+        if (CLASS_VALUE_SUPPORTED) {
+            return new ClassValueCache<>(loader);
+        }
+
+        return new MapCache<>(loader);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // IMPLEMENTATIONS
+    //----------------------------------------------------------------------------------------------
+
+    static class ClassValueCache<V> extends ClassCache<V> {
+
+        private final ClassValue<V> values;
+
+        ClassValueCache(final Loader<V> loader) {
+            values = new ClassValue<V>() {
+                @Override
+                protected V computeValue(Class<?> type) {
+                    return loader.load(type);
+                }
+            };
+        }
+
+        @Override
+        V get(final Class<?> type) {
+            return values.get(type);
+        }
+
+    }
+
+    static class MapCache<V> extends ClassCache<V> {
+
+        private final Loader<V> loader;
+        private final Map<Class<?>, SoftReference<V>> values = new WeakHashMap<>();
+
+        MapCache(final Loader<V> loader) {
+            this.loader = loader;
+        }
+
+        @Override
+        synchronized V get(final Class<?> type) {
+            final SoftReference<V> reference = values.get(type);
+            V value = reference == null ? null : reference.get();
+
+            if (value == null) {
+                value = loader.load(type);
+                values.put(type, new SoftReference<>(value));
+            }
+
+            return value;
+        }
+
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.cookingfox.eventbus.testable;
+
+/**
+ * A subscriber method in a {@link SubscriberIndex}, with a precompiled invoker: generated
+ * implementations call the method directly, without reflection.
+ */
+public abstract class IndexedSubscriberMethod {
+
+    public final Class<?> eventClass;
+    public final String methodName;
+
+    /**
+     * The priority that the subscriber annotation of the method declares, or null if it does not
+     * declare one.
+     */
+    public final Integer priority;
+
+    protected IndexedSubscriberMethod(Class<?> eventClass, String methodName) {
+        this(eventClass, methodName, null);
+    }
+
+    protected IndexedSubscriberMethod(Class<?> eventClass, String methodName, Integer priority) {
+        this.eventClass = eventClass;
+        this.methodName = methodName;
+        this.priority = priority;
+    }
+
+    /**
+     * Calls the subscriber method of the subscriber with the event.
+     *
+     * @param subscriber An instance of the indexed subscriber class, or null for a static method.
+     * @param event      An instance of the event class.
+     * @throws Exception when the subscriber method throws.
+     */
+    public abstract void invoke(Object subscriber, Object event) throws Exception;
+
+    public Class<?> getEventClass() {
+        return eventClass;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public Integer getPriority() {
+        return priority;
+    }
+
+}
@@ -8,6 +8,11 @@ public class PostedEvent<T> {
     public final T event;
     public final Object subscriber;
 
+    /**
+     * The posting order of the event in the log, assigned by {@link PostedEventLog}.
+     */
+    long sequence;
+
     public PostedEvent(T event, Object subscriber) {
         this.event = event;
         this.subscriber = subscriber;
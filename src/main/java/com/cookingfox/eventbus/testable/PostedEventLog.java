@@ -0,0 +1,309 @@
+package com.cookingfox.eventbus.testable;
+
+import com.cookingfox.eventbus.testable.TestableEventBus.RETENTION;
+
+import java.util.*;
+
+/**
+ * The log of posted events of a {@link TestableEventBus}, which retains events according to a
+ * {@link TestableEventBus.RETENTION} policy. All methods are synchronized on the log, so it can be
+ * written by multiple posting threads.
+ * <p>
+ * Besides the events in posting order, the log keeps an index of the events per concrete event
+ * class. Queries for a type use the cached list of indexed classes that are assignable to it, so
+ * they do not scan unrelated events: counts and first / last lookups only look at the head and
+ * tail of every matching class.
+ * <p>
+ * The bounded policies use array-backed ring buffers ({@link ArrayDeque}s that never grow beyond
+ * their capacity), so a full log evicts its oldest event without allocating.
+ */
+class PostedEventLog {
+
+    /**
+     * Orders events by their sequence number, which is the posting order.
+     */
+    private static final Comparator<PostedEvent> SEQUENCE_ORDER = new Comparator<PostedEvent>() {
+        @Override
+        public int compare(PostedEvent a, PostedEvent b) {
+            return a.sequence < b.sequence ? -1 : (a.sequence == b.sequence ? 0 : 1);
+        }
+    };
+
+    private final int capacity;
+    private final RETENTION retention;
+
+    /**
+     * Retained events in posting order: used by {@link RETENTION#ALL} and {@link RETENTION#LAST}.
+     * The {@link RETENTION#LAST_PER_TYPE} policy only uses the index.
+     */
+    private final ArrayDeque<PostedEvent> events;
+
+    /**
+     * Index of the retained events per concrete event class, in posting order.
+     */
+    private final Map<Class, ArrayDeque<PostedEvent>> eventsByClass = new LinkedHashMap<>();
+
+    /**
+     * The index entries of the classes that are assignable to a queried type. Cleared when a class
+     * is added to the index.
+     */
+    private final Map<Class, List<ArrayDeque<PostedEvent>>> eventsByQueryType = new HashMap<>();
+
+    /**
+     * The sequence number of the next added event.
+     */
+    private long sequence = 0;
+
+    /**
+     * The number of retained events.
+     */
+    private int size = 0;
+
+    PostedEventLog(final RETENTION retention, final int capacity) {
+        this.capacity = capacity;
+        this.retention = retention;
+
+        switch (retention) {
+            case ALL:
+                events = new ArrayDeque<>();
+                break;
+
+            case LAST:
+                events = new ArrayDeque<>(capacity);
+                break;
+
+            default:
+                events = null;
+        }
+    }
+
+    /**
+     * Returns whether posted events are retained at all: when not, posting can skip creating the
+     * {@link PostedEvent}.
+     */
+    boolean isRecording() {
+        return retention != RETENTION.NONE;
+    }
+
+    /**
+     * Adds the posted event, evicting the oldest event it replaces.
+     */
+    synchronized void add(final PostedEvent posted) {
+        if (!isRecording()) {
+            return;
+        }
+
+        posted.sequence = sequence++;
+
+        final ArrayDeque<PostedEvent> classEvents = getClassEvents(posted.event.getClass());
+
+        switch (retention) {
+            case LAST:
+                if (events.size() == capacity) {
+                    final PostedEvent evicted = events.removeFirst();
+
+                    // the oldest event of the log is also the oldest event of its class
+                    eventsByClass.get(evicted.event.getClass()).removeFirst();
+                    size--;
+                }
+
+                events.addLast(posted);
+                break;
+
+            case LAST_PER_TYPE:
+                if (classEvents.size() == capacity) {
+                    classEvents.removeFirst();
+                    size--;
+                }
+                break;
+
+            default:
+                events.addLast(posted);
+        }
+
+        classEvents.addLast(posted);
+        size++;
+    }
+
+    /**
+     * Removes all retained events.
+     */
+    synchronized void clear() {
+        if (events != null) {
+            events.clear();
+        }
+
+        eventsByClass.clear();
+        eventsByQueryType.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the number of retained events.
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of retained events of the type.
+     */
+    synchronized int size(final Class eventType) {
+        int count = 0;
+
+        for (ArrayDeque<PostedEvent> classEvents : getQueryTypeEvents(eventType)) {
+            count += classEvents.size();
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the oldest retained event, or null.
+     */
+    synchronized PostedEvent getFirst() {
+        if (events != null) {
+            return events.peekFirst();
+        }
+
+        return getFirst(eventsByClass.values());
+    }
+
+    /**
+     * Returns the oldest retained event of the type, or null.
+     */
+    synchronized PostedEvent getFirst(final Class eventType) {
+        return getFirst(getQueryTypeEvents(eventType));
+    }
+
+    /**
+     * Returns the newest retained event, or null.
+     */
+    synchronized PostedEvent getLast() {
+        if (events != null) {
+            return events.peekLast();
+        }
+
+        return getLast(eventsByClass.values());
+    }
+
+    /**
+     * Returns the newest retained event of the type, or null.
+     */
+    synchronized PostedEvent getLast(final Class eventType) {
+        return getLast(getQueryTypeEvents(eventType));
+    }
+
+    /**
+     * Returns a copy of the retained events, in posting order.
+     */
+    synchronized List<PostedEvent> toList() {
+        if (events != null) {
+            return new ArrayList<>(events);
+        }
+
+        return merge(eventsByClass.values(), size);
+    }
+
+    /**
+     * Returns a copy of the retained events of the type, in posting order.
+     */
+    synchronized List<PostedEvent> toList(final Class eventType) {
+        return merge(getQueryTypeEvents(eventType), size(eventType));
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PRIVATE METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the index entry of the event class, creating it if necessary.
+     */
+    private ArrayDeque<PostedEvent> getClassEvents(final Class eventClass) {
+        ArrayDeque<PostedEvent> classEvents = eventsByClass.get(eventClass);
+
+        if (classEvents == null) {
+            classEvents = retention == RETENTION.LAST_PER_TYPE
+                    ? new ArrayDeque<PostedEvent>(capacity)
+                    : new ArrayDeque<PostedEvent>();
+            eventsByClass.put(eventClass, classEvents);
+
+            // the new class may match previously queried types
+            eventsByQueryType.clear();
+        }
+
+        return classEvents;
+    }
+
+    /**
+     * Returns the index entries of the classes that are assignable to the queried type.
+     */
+    private List<ArrayDeque<PostedEvent>> getQueryTypeEvents(final Class eventType) {
+        List<ArrayDeque<PostedEvent>> matching = eventsByQueryType.get(eventType);
+
+        if (matching == null) {
+            matching = new ArrayList<>();
+
+            for (Map.Entry<Class, ArrayDeque<PostedEvent>> entry : eventsByClass.entrySet()) {
+                if (eventType.isAssignableFrom(entry.getKey())) {
+                    matching.add(entry.getValue());
+                }
+            }
+
+            eventsByQueryType.put(eventType, matching);
+        }
+
+        return matching;
+    }
+
+    private static PostedEvent getFirst(final Collection<ArrayDeque<PostedEvent>> classEvents) {
+        PostedEvent first = null;
+
+        for (ArrayDeque<PostedEvent> events : classEvents) {
+            final PostedEvent candidate = events.peekFirst();
+
+            if (candidate != null && (first == null || candidate.sequence < first.sequence)) {
+                first = candidate;
+            }
+        }
+
+        return first;
+    }
+
+    private static PostedEvent getLast(final Collection<ArrayDeque<PostedEvent>> classEvents) {
+        PostedEvent last = null;
+
+        for (ArrayDeque<PostedEvent> events : classEvents) {
+            final PostedEvent candidate = events.peekLast();
+
+            if (candidate != null && (last == null || candidate.sequence > last.sequence)) {
+                last = candidate;
+            }
+        }
+
+        return last;
+    }
+
+    /**
+     * Merges the events of multiple classes into one list in posting order.
+     */
+    private static List<PostedEvent> merge(final Collection<ArrayDeque<PostedEvent>> classEvents, final int size) {
+        final List<PostedEvent> list = new ArrayList<>(size);
+        int nonEmpty = 0;
+
+        for (ArrayDeque<PostedEvent> events : classEvents) {
+            if (!events.isEmpty()) {
+                list.addAll(events);
+                nonEmpty++;
+            }
+        }
+
+        // a single class is already in posting order
+        if (nonEmpty > 1) {
+            Collections.sort(list, SEQUENCE_ORDER);
+        }
+
+        return list;
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.cookingfox.eventbus.testable;
+
+/**
+ * Lists the subscriber methods of subscriber classes, so that {@link TestableEventBus} does not
+ * have to find them using reflection when a subscriber is registered. Implementations are
+ * generated at compile time by the `eventbus-adapter-java-processor` annotation processor, which
+ * should be configured with the same subscriber annotations or method names as the event bus.
+ *
+ * @see TestableEventBus#addIndex(SubscriberIndex)
+ */
+public interface SubscriberIndex {
+
+    /**
+     * Returns the subscriber methods that are declared by the subscriber class, or null if the
+     * class is not indexed.
+     *
+     * @param subscriberClass The class of a subscriber.
+     */
+    IndexedSubscriberMethod[] getSubscriberMethods(Class<?> subscriberClass);
+
+}
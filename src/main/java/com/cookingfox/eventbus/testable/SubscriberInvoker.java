@@ -0,0 +1,288 @@
+package com.cookingfox.eventbus.testable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.Reference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Calls a subscriber method with an event. Instances are bound to one subscriber and created once,
+ * when the subscriber is registered, so that posting an event does not have to repeat the lookup
+ * and access checks.
+ * <p>
+ * Uses a bound {@link MethodHandle} when the platform supports it (not on Android before API 26)
+ * and falls back to reflection otherwise. Methods from a {@link SubscriberIndex} are called
+ * directly by their generated invoker. All implementations wrap exceptions thrown by the
+ * subscriber method in an {@link InvocationTargetException}, like {@link Method#invoke}.
+ * <p>
+ * A {@link WeakInvoker} does not keep its subscriber reachable: it resolves the reference on every
+ * invocation and calls the factory with it.
+ */
+abstract class SubscriberInvoker {
+
+    /**
+     * Whether the `java.lang.invoke` package is available on this platform.
+     */
+    private static final boolean METHOD_HANDLES_SUPPORTED = isClassAvailable("java.lang.invoke.MethodHandles");
+
+    /**
+     * Invoke the subscriber method with the event.
+     *
+     * @param event An event object.
+     * @throws InvocationTargetException when the subscriber method throws.
+     * @throws Exception when the subscriber method could not be invoked.
+     */
+    abstract void invoke(Object event) throws Exception;
+
+    /**
+     * Creates a factory for the fastest available invoker of the subscriber method. The factory
+     * performs the lookup once, so creating an invoker for a subscriber only binds the instance.
+     */
+    static Factory factory(final Method method) {
+        // skip the language access checks on every invocation, where allowed
+        try {
+            method.setAccessible(true);
+        } catch (RuntimeException e) {
+            // not allowed (security manager or module system): the regular checks are performed
+        }
+
+        if (METHOD_HANDLES_SUPPORTED) {
+            try {
+                return new MethodHandleInvoker.Factory(method);
+            } catch (IllegalAccessException e) {
+                // not accessible to a method handle lookup: use reflection
+            }
+        }
+
+        return new ReflectionInvoker.Factory(method);
+    }
+
+    /**
+     * Returns whether the class can be loaded on this platform.
+     */
+    static boolean isClassAvailable(final String className) {
+        try {
+            Class.forName(className);
+            return true;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // FACTORY
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Creates invokers of one subscriber method.
+     */
+    abstract static class Factory {
+
+        /**
+         * Creates an invoker that is bound to the subscriber.
+         */
+        abstract SubscriberInvoker create(Object subscriber);
+
+        /**
+         * Creates an invoker that does not keep the subscriber reachable.
+         */
+        SubscriberInvoker createWeak(final Reference<?> subscriber) {
+            return new WeakInvoker(subscriber, this);
+        }
+
+        /**
+         * Invoke the subscriber method of the subscriber with the event.
+         *
+         * @throws InvocationTargetException when the subscriber method throws.
+         * @throws Exception when the subscriber method could not be invoked.
+         */
+        abstract void invoke(Object subscriber, Object event) throws Exception;
+
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // IMPLEMENTATIONS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Calls the generated invoker of an indexed subscriber method.
+     */
+    static class IndexedInvoker extends SubscriberInvoker {
+
+        private final IndexedSubscriberMethod method;
+        private final Object subscriber;
+
+        IndexedInvoker(final Object subscriber, final IndexedSubscriberMethod method) {
+            this.method = method;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        void invoke(final Object event) throws Exception {
+            try {
+                method.invoke(subscriber, event);
+            } catch (Exception e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+
+        static class Factory extends SubscriberInvoker.Factory {
+
+            private final IndexedSubscriberMethod method;
+
+            Factory(final IndexedSubscriberMethod method) {
+                this.method = method;
+            }
+
+            @Override
+            SubscriberInvoker create(final Object subscriber) {
+                return new IndexedInvoker(subscriber, method);
+            }
+
+            @Override
+            void invoke(final Object subscriber, final Object event) throws Exception {
+                try {
+                    method.invoke(subscriber, event);
+                } catch (Exception e) {
+                    throw new InvocationTargetException(e);
+                }
+            }
+
+        }
+
+    }
+
+    /**
+     * Invokes a method handle that is bound to the subscriber and adapted to `(Object)void`, so
+     * that every call is an exact invocation without argument arrays or boxing.
+     */
+    static class MethodHandleInvoker extends SubscriberInvoker {
+
+        private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class);
+
+        private final MethodHandle handle;
+
+        MethodHandleInvoker(final Object subscriber, final Method method) throws IllegalAccessException {
+            this(subscriber, MethodHandles.lookup().unreflect(method), Modifier.isStatic(method.getModifiers()));
+        }
+
+        private MethodHandleInvoker(final Object subscriber, final MethodHandle unbound, final boolean isStatic) {
+            this.handle = (isStatic ? unbound : unbound.bindTo(subscriber)).asType(INVOKER_TYPE);
+        }
+
+        @Override
+        void invoke(final Object event) throws Exception {
+            try {
+                handle.invokeExact(event);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+
+        static class Factory extends SubscriberInvoker.Factory {
+
+            private static final MethodType UNBOUND_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+            private final boolean isStatic;
+            private final MethodHandle unbound;
+
+            /**
+             * The unbound handle adapted to `(Object, Object)void`, for weakly referenced
+             * subscribers. Static methods ignore the subscriber argument.
+             */
+            private final MethodHandle unboundInvoker;
+
+            Factory(final Method method) throws IllegalAccessException {
+                this.isStatic = Modifier.isStatic(method.getModifiers());
+                this.unbound = MethodHandles.lookup().unreflect(method);
+                this.unboundInvoker = (isStatic ? MethodHandles.dropArguments(unbound, 0, Object.class) : unbound)
+                        .asType(UNBOUND_TYPE);
+            }
+
+            @Override
+            SubscriberInvoker create(final Object subscriber) {
+                return new MethodHandleInvoker(subscriber, unbound, isStatic);
+            }
+
+            @Override
+            void invoke(final Object subscriber, final Object event) throws Exception {
+                try {
+                    unboundInvoker.invokeExact(subscriber, event);
+                } catch (Throwable e) {
+                    throw new InvocationTargetException(e);
+                }
+            }
+
+        }
+
+    }
+
+    /**
+     * Invokes the subscriber method using reflection.
+     */
+    static class ReflectionInvoker extends SubscriberInvoker {
+
+        private final Method method;
+        private final Object subscriber;
+
+        ReflectionInvoker(final Object subscriber, final Method method) {
+            this.method = method;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        void invoke(final Object event) throws Exception {
+            method.invoke(subscriber, event);
+        }
+
+        static class Factory extends SubscriberInvoker.Factory {
+
+            private final Method method;
+
+            Factory(final Method method) {
+                this.method = method;
+            }
+
+            @Override
+            SubscriberInvoker create(final Object subscriber) {
+                return new ReflectionInvoker(subscriber, method);
+            }
+
+            @Override
+            void invoke(final Object subscriber, final Object event) throws Exception {
+                method.invoke(subscriber, event);
+            }
+
+        }
+
+    }
+
+    /**
+     * Invokes the subscriber method of a weakly referenced subscriber through the factory. Does
+     * nothing once the subscriber is collected: the event bus removes the listener later.
+     */
+    static class WeakInvoker extends SubscriberInvoker {
+
+        private final Factory factory;
+        private final Reference<?> subscriber;
+
+        WeakInvoker(final Reference<?> subscriber, final Factory factory) {
+            this.factory = factory;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        void invoke(final Object event) throws Exception {
+            final Object referent = subscriber.get();
+
+            if (referent != null) {
+                factory.invoke(referent, event);
+            }
+        }
+
+    }
+
+}
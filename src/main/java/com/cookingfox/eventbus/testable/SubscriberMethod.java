@@ -0,0 +1,41 @@
+package com.cookingfox.eventbus.testable;
+
+import java.lang.reflect.Method;
+
+/**
+ * A validated subscriber method of a subscriber class, with its event type. Not bound to a
+ * subscriber instance, so it can be shared by all instances of the class.
+ *
+ * @see ClassCache
+ */
+class SubscriberMethod {
+
+    public final Class eventClass;
+    public final SubscriberInvoker.Factory invokerFactory;
+
+    /**
+     * The reflected method, or null for a method from a {@link SubscriberIndex}.
+     */
+    public final Method method;
+
+    /**
+     * The priority that the subscriber annotation of the method declares, or null if it does not
+     * declare one: then the priority of the registration applies.
+     */
+    public final Integer priority;
+
+    public SubscriberMethod(Method method, Class eventClass, Integer priority) {
+        this.eventClass = eventClass;
+        this.invokerFactory = SubscriberInvoker.factory(method);
+        this.method = method;
+        this.priority = priority;
+    }
+
+    public SubscriberMethod(IndexedSubscriberMethod indexedMethod) {
+        this.eventClass = indexedMethod.eventClass;
+        this.invokerFactory = new SubscriberInvoker.IndexedInvoker.Factory(indexedMethod);
+        this.method = null;
+        this.priority = indexedMethod.priority;
+    }
+
+}
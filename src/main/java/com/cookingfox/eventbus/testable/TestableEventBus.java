@@ -1,17 +1,34 @@
 package com.cookingfox.eventbus.testable;
 
 import com.cookingfox.eventbus.EventBus;
+import com.cookingfox.eventbus.journal.EventJournal;
 
 import java.lang.annotation.Annotation;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Simple event bus implementation that makes testing event-based application flows easier.
  * - Executes all events on the posting thread.
+ * - Posting is synchronized, striped by event class or lock-free for multi-threaded use (see
+ * {@link CONCURRENCY}).
  * - Supports both annotation- and name convention based subscriber methods.
+ * - Optionally finds subscriber methods in a compile-time index (see {@link #addIndex}).
+ * - Optionally passes events to listeners of their supertypes (see {@link #setEventInheritance}).
+ * - Sticky events, which are delivered to subscribers on registration (see {@link #postSticky}).
+ * - Optionally references subscribers weakly (see {@link #setWeakSubscribers}).
+ * - Subscriber priorities, and cancelling the delivery to lower priorities (see
+ * {@link #register(Object, int)} and {@link #cancelEventDelivery}).
  * - Helper methods such as {@link #getFirstPostedEvent()} and {@link #getLastPostedEvent()}.
+ * - Optionally appends posted events to a memory-mapped journal (see {@link #setEventJournal}).
  */
 public class TestableEventBus implements EventBus {
 
@@ -39,29 +56,208 @@ public class TestableEventBus implements EventBus {
 
     }
 
+    /**
+     * Defines how posting events relates to the lock of the event bus. Registering and
+     * unregistering is always synchronized.
+     */
+    public enum CONCURRENCY {
+
+        /**
+         * Posting is synchronized on the event bus, so subscribers are never invoked concurrently.
+         * This is the default.
+         */
+        SYNCHRONIZED,
+
+        /**
+         * Posting is synchronized on one of {@link #STRIPE_COUNT} locks, selected by the class of
+         * the posted event: events of the same class are delivered one at a time, while events of
+         * unrelated classes are delivered in parallel. Registering and unregistering update only
+         * the listeners of the affected event classes, and do not wait for posting.
+         * <p>
+         * Events that a subscriber posts are delivered after the event it is receiving, on the same
+         * thread, so that a thread never holds two stripe locks. When a subscriber throws, the
+         * events it posted are not delivered.
+         */
+        STRIPED,
+
+        /**
+         * Posting reads an immutable snapshot of the listeners without locking, so multiple threads
+         * can post at the same time. Registering and unregistering replace the snapshot, which
+         * makes them more expensive: use this mode when listeners rarely change.
+         */
+        COPY_ON_WRITE
+
+    }
+
+    /**
+     * Defines which posted events are retained in the log that the helper methods such as
+     * {@link #getPostedEvents()} query.
+     *
+     * @see #setPostedEventsRetention(RETENTION, int)
+     */
+    public enum RETENTION {
+
+        /**
+         * Retain all posted events. This is the default.
+         */
+        ALL,
+
+        /**
+         * Retain the last `capacity` posted events, in a fixed-capacity ring buffer.
+         */
+        LAST,
+
+        /**
+         * Retain the last `capacity` posted events of every event class.
+         */
+        LAST_PER_TYPE,
+
+        /**
+         * Do not log posted events. The helper methods behave as if nothing was posted. Posting
+         * then allocates nothing in steady state, so the event bus adds no garbage collection
+         * pressure to performance tests.
+         */
+        NONE
+
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // CONSTANTS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * The flattened type hierarchy per event class, computed once per class.
+     *
+     * @see #setEventInheritance(boolean)
+     */
+    private static final ClassCache<Class[]> EVENT_TYPE_HIERARCHY = ClassCache.create(new ClassCache.Loader<Class[]>() {
+        @Override
+        public Class[] load(Class<?> eventClass) {
+            return flattenHierarchy(eventClass);
+        }
+    });
+
+    /**
+     * Orders listeners by descending priority. Sorting is stable, so listeners of the same priority
+     * keep their registration order.
+     */
+    private static final Comparator<EventListener> PRIORITY_ORDER = new Comparator<EventListener>() {
+        @Override
+        public int compare(EventListener a, EventListener b) {
+            return Integer.compare(b.priority, a.priority);
+        }
+    };
+
+    /**
+     * The number of posting locks in the {@link CONCURRENCY#STRIPED} mode: a power of two.
+     */
+    public static final int STRIPE_COUNT = 64;
+
     //----------------------------------------------------------------------------------------------
     // PROPERTIES
     //----------------------------------------------------------------------------------------------
 
     /**
-     * {@link EventListener} VOs ordered by their event type.
+     * The selected concurrency mode.
+     */
+    private final CONCURRENCY concurrency;
+
+    /**
+     * The event that the current thread is delivering, so that its delivery can be cancelled.
+     *
+     * @see #cancelEventDelivery(Object)
+     */
+    private final ThreadLocal<CurrentDelivery> currentDelivery = new ThreadLocal<CurrentDelivery>() {
+        @Override
+        protected CurrentDelivery initialValue() {
+            return new CurrentDelivery();
+        }
+    };
+
+    /**
+     * The references of weakly referenced subscribers that were garbage collected, which are
+     * purged when the dispatch table is rebuilt.
+     *
+     * @see #setWeakSubscribers(boolean)
+     */
+    private final ReferenceQueue<Object> collectedSubscribers = new ReferenceQueue<>();
+
+    /**
+     * {@link EventListener} arrays by posted event class, which {@link #post} iterates, sorted by
+     * priority. Filled on demand from {@link #listenersByEventType} and rebuilt when the registered
+     * listeners change.
+     * In the {@link CONCURRENCY#COPY_ON_WRITE} mode it is an immutable snapshot, which is replaced
+     * on every change so that it can be read without locking. In the {@link CONCURRENCY#STRIPED}
+     * mode it is a concurrent map, of which only the changed entries are replaced.
+     */
+    private volatile Map<Class, EventListener[]> dispatchTable;
+
+    /**
+     * The journal that posted events are appended to, or null.
+     */
+    private volatile EventJournal eventJournal;
+
+    /**
+     * Whether events are also passed to listeners of their superclasses and interfaces.
+     */
+    private boolean eventInheritance = false;
+
+    /**
+     * {@link EventListener} VOs ordered by their event type. Types without listeners are removed.
      */
     private final Map<Class, Set<EventListener>> listenersByEventType = new LinkedHashMap<>();
 
+    /**
+     * The {@link EventListener} VOs of every registered subscriber, so that unregistering only
+     * touches the event types of the subscriber. Also used to avoid duplicate registration. Keyed
+     * by the subscriber key (see {@link EventListener#subscriberKey}).
+     */
+    private final Map<Object, EventListener[]> listenersBySubscriber = new HashMap<>();
+
     /**
      * The selected subscriber mode.
      */
     private final MODE mode;
 
     /**
-     * A log of all the posted events, which can be queried using helper methods.
+     * The deliveries of the current thread in the {@link CONCURRENCY#STRIPED} mode.
+     */
+    private final ThreadLocal<StripedDeliveries> stripedDeliveries = new ThreadLocal<StripedDeliveries>() {
+        @Override
+        protected StripedDeliveries initialValue() {
+            return new StripedDeliveries();
+        }
+    };
+
+    /**
+     * The posting locks in the {@link CONCURRENCY#STRIPED} mode, or null.
+     */
+    private final Object[] stripes;
+
+    /**
+     * A log of the retained posted events, which can be queried using helper methods. Replaced when
+     * the retention policy changes.
+     *
+     * @see #setPostedEventsRetention(RETENTION, int)
+     */
+    private volatile PostedEventLog postedEvents = new PostedEventLog(RETENTION.ALL, 0);
+
+    /**
+     * All event types that listeners were ever registered for. Posting an event of such a type
+     * does not throw, even after all of its listeners have been unregistered.
+     */
+    private final Set<Class> registeredEventTypes = new HashSet<>();
+
+    /**
+     * The most recent sticky event per event class. Lock-free, so that it can be read without
+     * waiting for posting or registering.
      */
-    private final LinkedList<PostedEvent> postedEvents = new LinkedList<>();
+    private final ConcurrentMap<Class, StickyEvent> stickyEvents = new ConcurrentHashMap<>();
 
     /**
-     * All registered subjects, to avoid duplicate registration.
+     * The sequence number of the last posted sticky event.
      */
-    private final Set<Object> registeredSubjects = new LinkedHashSet<>();
+    private final AtomicLong stickyEventSequence = new AtomicLong();
 
     /**
      * All added subscriber annotation classes.
@@ -70,6 +266,11 @@ public class TestableEventBus implements EventBus {
      */
     private final Set<Class<? extends Annotation>> subscriberAnnotations = new LinkedHashSet<>();
 
+    /**
+     * All added subscriber indexes, which are searched before reflection.
+     */
+    private final List<SubscriberIndex> subscriberIndexes = new ArrayList<>();
+
     /**
      * All added subscriber methods names.
      *
@@ -77,10 +278,23 @@ public class TestableEventBus implements EventBus {
      */
     private final Set<String> subscriberMethodNames = new LinkedHashSet<>();
 
+    /**
+     * The resolved subscriber methods per subscriber class. Replaced when the subscriber method
+     * definitions change.
+     */
+    private ClassCache<SubscriberMethod[]> subscriberMethodCache = createSubscriberMethodCache();
+
     /**
      * Handler of uncaught exceptions in subscribers.
      */
-    private SubscriberUncaughtExceptionHandler subscriberUncaughtExceptionHandler;
+    private volatile SubscriberUncaughtExceptionHandler subscriberUncaughtExceptionHandler;
+
+    /**
+     * Whether subscribers are weakly referenced.
+     *
+     * @see #setWeakSubscribers(boolean)
+     */
+    private boolean weakSubscribers = false;
 
     //----------------------------------------------------------------------------------------------
     // CONSTRUCTORS
@@ -90,7 +304,19 @@ public class TestableEventBus implements EventBus {
      * @param mode Defines whether to use annotation or name convention based subscriber methods.
      */
     public TestableEventBus(final MODE mode) {
+        this(mode, CONCURRENCY.SYNCHRONIZED);
+    }
+
+    /**
+     * @param mode        Defines whether to use annotation or name convention based subscriber
+     *                    methods.
+     * @param concurrency Defines whether posting is synchronized on the event bus.
+     */
+    public TestableEventBus(final MODE mode, final CONCURRENCY concurrency) {
+        this.concurrency = concurrency;
+        this.dispatchTable = createDispatchTable(Collections.<Class, EventListener[]>emptyMap());
         this.mode = mode;
+        this.stripes = concurrency == CONCURRENCY.STRIPED ? createStripes() : null;
     }
 
     //----------------------------------------------------------------------------------------------
@@ -128,6 +354,25 @@ public class TestableEventBus implements EventBus {
         }
 
         subscriberAnnotations.addAll(annotations);
+        subscriberMethodCache = createSubscriberMethodCache();
+
+        return this;
+    }
+
+    /**
+     * Add an index of subscriber methods, which is generated at compile time by the
+     * `eventbus-adapter-java-processor` annotation processor. When a subscriber is registered, its
+     * class is looked up in the added indexes first, so that its methods do not have to be found
+     * using reflection; classes that are not indexed fall back to reflection. The index should be
+     * generated for the same annotations or method names that are added to this event bus.
+     */
+    public synchronized TestableEventBus addIndex(SubscriberIndex index) {
+        if (index == null) {
+            throw new TestableEventBusException("Subscriber index can not be null");
+        }
+
+        subscriberIndexes.add(index);
+        subscriberMethodCache = createSubscriberMethodCache();
 
         return this;
     }
@@ -167,10 +412,34 @@ public class TestableEventBus implements EventBus {
         }
 
         subscriberMethodNames.addAll(methodNames);
+        subscriberMethodCache = createSubscriberMethodCache();
 
         return this;
     }
 
+    /**
+     * Cancel the delivery of the event to the listeners that have not received it yet: those with a
+     * lower priority, or registered later. Can only be called by a subscriber that is receiving the
+     * event, on the posting thread: subclasses that deliver events on other threads, such as
+     * {@link com.cookingfox.eventbus.async.AsyncEventBus}, do not support it.
+     *
+     * @param event The event that the calling subscriber is receiving.
+     */
+    public void cancelEventDelivery(final Object event) {
+        if (event == null) {
+            throw new TestableEventBusException("Event can not be null");
+        }
+
+        final CurrentDelivery delivery = currentDelivery.get();
+
+        if (delivery.event != event) {
+            throw new TestableEventBusException("Only a subscriber that is receiving the event on the " +
+                    "posting thread can cancel its delivery");
+        }
+
+        delivery.cancelled = true;
+    }
+
     /**
      * Clear the log of posted events.
      */
@@ -191,12 +460,46 @@ public class TestableEventBus implements EventBus {
      * Returns the total number of posted events of a specified type.
      */
     public int countPostedEvents(Class eventType) {
+        return postedEvents.size(eventType);
+    }
+
+    /**
+     * Appends the logged posted events to the journal, in posting order, so that they can be
+     * replayed with an `EventReplayer`. Consecutive log entries of the same event are appended as
+     * one record, with the types of their subscribers. The records are timestamped when they are
+     * appended, not when the events were posted: replay them as fast as possible.
+     *
+     * @param journal The journal to append the events to.
+     * @return The number of appended records.
+     */
+    public int exportPostedEvents(final EventJournal journal) {
+        if (journal == null) {
+            throw new TestableEventBusException("Journal can not be null");
+        }
+
+        final Set<Class<?>> subscriberTypes = new LinkedHashSet<>();
+        Object event = null;
         int count = 0;
 
-        for (PostedEvent posted : postedEvents) {
-            if (eventType.isInstance(posted.event)) {
-                count++;
+        for (PostedEvent posted : postedEvents.toList()) {
+            if (posted.event != event) {
+                if (event != null) {
+                    journal.append(event, subscriberTypes.toArray(new Class<?>[subscriberTypes.size()]));
+                    count++;
+                }
+
+                event = posted.event;
+                subscriberTypes.clear();
             }
+
+            if (posted.subscriber != null) {
+                subscriberTypes.add(posted.subscriber.getClass());
+            }
+        }
+
+        if (event != null) {
+            journal.append(event, subscriberTypes.toArray(new Class<?>[subscriberTypes.size()]));
+            count++;
         }
 
         return count;
@@ -205,192 +508,280 @@ public class TestableEventBus implements EventBus {
     /**
      * Returns the first posted event.
      */
-    public synchronized PostedEvent getFirstPostedEvent() {
-        return postedEvents.isEmpty() ? null : postedEvents.getFirst();
+    public PostedEvent getFirstPostedEvent() {
+        return postedEvents.getFirst();
     }
 
     /**
      * Returns the first posted event of a specified type.
      */
     @SuppressWarnings("unchecked")
-    public synchronized <T> PostedEvent<T> getFirstPostedEvent(Class<T> eventType) {
-        for (PostedEvent posted : postedEvents) {
-            if (eventType.isInstance(posted.event)) {
-                return posted;
-            }
-        }
-
-        return null;
+    public <T> PostedEvent<T> getFirstPostedEvent(Class<T> eventType) {
+        return postedEvents.getFirst(eventType);
     }
 
     /**
      * Returns the last posted event.
      */
-    public synchronized PostedEvent getLastPostedEvent() {
-        return postedEvents.isEmpty() ? null : postedEvents.getLast();
+    public PostedEvent getLastPostedEvent() {
+        return postedEvents.getLast();
     }
 
     /**
      * Returns the last posted event of a specified type.
      */
     @SuppressWarnings("unchecked")
-    public synchronized <T> PostedEvent<T> getLastPostedEvent(Class<T> eventType) {
-        final Iterator<PostedEvent> iterator = postedEvents.descendingIterator();
-
-        while (iterator.hasNext()) {
-            final PostedEvent posted = iterator.next();
-
-            if (eventType.isInstance(posted.event)) {
-                return posted;
-            }
-        }
-
-        return null;
+    public <T> PostedEvent<T> getLastPostedEvent(Class<T> eventType) {
+        return postedEvents.getLast(eventType);
     }
 
     /**
-     * Returns all posted events.
+     * Returns all posted events, as a copy of the log.
      */
     public Collection<PostedEvent> getPostedEvents() {
-        return postedEvents;
+        return postedEvents.toList();
     }
 
     /**
      * Returns all posted events of a specified type.
      */
     @SuppressWarnings("unchecked")
-    public synchronized <T> Collection<PostedEvent<T>> getPostedEvents(Class<T> eventType) {
-        final Collection<PostedEvent<T>> events = new LinkedList<>();
+    public <T> Collection<PostedEvent<T>> getPostedEvents(Class<T> eventType) {
+        final Collection events = postedEvents.toList(eventType);
+
+        return (Collection<PostedEvent<T>>) events;
+    }
 
-        for (PostedEvent posted : postedEvents) {
-            if (eventType.isInstance(posted.event)) {
-                events.add(posted);
+    /**
+     * Returns the most recent sticky event of the type: a sticky event of exactly this type, or
+     * else the most recently posted sticky event of a subtype. Does not lock.
+     *
+     * @param eventType The type of the sticky event.
+     * @return The sticky event, or null if there is none.
+     */
+    @Override
+    public <T> T getStickyEvent(final Class<T> eventType) {
+        final StickyEvent exact = stickyEvents.get(eventType);
+
+        if (exact != null) {
+            return eventType.cast(exact.event);
+        }
+
+        StickyEvent latest = null;
+
+        for (StickyEvent sticky : stickyEvents.values()) {
+            if (eventType.isInstance(sticky.event) && (latest == null || sticky.sequence > latest.sequence)) {
+                latest = sticky;
             }
         }
 
-        return events;
+        return latest == null ? null : eventType.cast(latest.event);
     }
 
     /**
      * Returns whether events have been posted.
      */
-    public synchronized boolean hasPostedEvents() {
+    public boolean hasPostedEvents() {
         return postedEvents.size() > 0;
     }
 
     /**
      * Returns whether events have been posted of the specified type.
      */
-    public synchronized boolean hasPostedEvents(Class eventType) {
-        if (postedEvents.size() < 1) {
-            return false;
-        }
+    public boolean hasPostedEvents(Class eventType) {
+        return postedEvents.getLast(eventType) != null;
+    }
 
-        for (PostedEvent posted : postedEvents) {
-            if (eventType.isInstance(posted.event)) {
-                return true;
+    /**
+     * Post an event to all subscribers.
+     *
+     * @param event An event object.
+     * @see CONCURRENCY
+     */
+    @Override
+    public void post(final Object event) {
+        purgeCollectedSubscribersOnPost();
+
+        if (concurrency == CONCURRENCY.SYNCHRONIZED) {
+            synchronized (this) {
+                dispatch(event);
             }
+        } else {
+            dispatch(event);
         }
+    }
 
-        return false;
+    /**
+     * Post events to all subscribers, in iteration order. The whole batch is validated before any
+     * event is delivered: if an event is null or has no listeners, nothing is posted. Consecutive
+     * events of the same type share one listener lookup, and synchronized posting takes the lock
+     * once for the whole batch.
+     *
+     * @param events Event objects.
+     * @see CONCURRENCY
+     */
+    @Override
+    public void postAll(final Iterable<?> events) {
+        if (events == null) {
+            throw new TestableEventBusException("Events can not be null");
+        }
+
+        purgeCollectedSubscribersOnPost();
+
+        if (concurrency == CONCURRENCY.SYNCHRONIZED) {
+            synchronized (this) {
+                dispatchAll(events);
+            }
+        } else {
+            dispatchAll(events);
+        }
     }
 
     /**
-     * Post an event to all subscribers.
+     * Post an event to all subscribers and keep it as the sticky event of its class, replacing the
+     * previous one. Subscribers that register later receive it on registration. Unlike
+     * {@link #post(Object)}, posting a sticky event without listeners does not throw.
      *
      * @param event An event object.
+     * @see CONCURRENCY
      */
     @Override
-    public synchronized void post(final Object event) {
+    public void postSticky(final Object event) {
         if (event == null) {
             throw new TestableEventBusException("Event can not be null");
         }
 
-        final Class eventClass = event.getClass();
-        final Set<EventListener> listeners = listenersByEventType.get(eventClass);
+        purgeCollectedSubscribersOnPost();
 
-        if (listeners == null) {
-            throw new TestableEventBusException("No listeners for event type " + eventClass.getName());
+        if (concurrency == CONCURRENCY.SYNCHRONIZED) {
+            synchronized (this) {
+                dispatchSticky(event);
+            }
+        } else {
+            dispatchSticky(event);
         }
+    }
 
-        for (EventListener listener : listeners) {
-            final Object subscriber = listener.subscriber;
+    /**
+     * Register an event subscriber, with the default priority of 0. The subscriber receives the
+     * sticky events that match its listeners, in posting order.
+     *
+     * @param subscriber The object to subscribe.
+     * @see #register(Object, int)
+     */
+    @Override
+    public void register(final Object subscriber) {
+        register(subscriber, 0);
+    }
 
-            try {
-                // invoke the subscriber method
-                listener.method.invoke(subscriber, event);
-
-                // log the posted event
-                postedEvents.add(new PostedEvent(event, subscriber));
-            } catch (Exception e) {
-                if (subscriberUncaughtExceptionHandler == null) {
-                    throw new TestableEventBusException("Exception during invocation of listener " +
-                            "- use `setSubscriberUncaughtExceptionHandler` to handle uncaught " +
-                            "subscriber exceptions", e);
-                } else {
-                    subscriberUncaughtExceptionHandler.handle(e);
-                }
+    /**
+     * Register an event subscriber with a priority. Events are delivered to listeners of a higher
+     * priority first, and to listeners of the same priority in registration order. A subscriber
+     * method whose annotation has an `int priority()` attribute, like the `@Subscribe` annotation
+     * of GreenRobot EventBus, has the priority of the annotation instead, unless it is the
+     * attribute's default value.
+     *
+     * @param subscriber The object to subscribe.
+     * @param priority   The priority of the subscriber's listeners.
+     * @see #cancelEventDelivery(Object)
+     */
+    public void register(final Object subscriber, final int priority) {
+        final List<PendingDelivery> stickyDeliveries;
+
+        synchronized (this) {
+            stickyDeliveries = addSubscriber(subscriber, priority);
+
+            if (concurrency == CONCURRENCY.SYNCHRONIZED) {
+                deliverPending(stickyDeliveries);
+                return;
             }
         }
+
+        // the other modes post without the lock of the event bus: so does this, so that a
+        // delivery that waits, such as for room in a subscriber queue, does not block the bus
+        deliverPending(stickyDeliveries);
+    }
+
+    /**
+     * Removes all sticky events.
+     */
+    @Override
+    public void removeAllStickyEvents() {
+        stickyEvents.clear();
     }
 
     /**
-     * Register an event subscriber.
+     * Removes the sticky event of exactly the type.
      *
-     * @param subscriber The object to subscribe.
+     * @param eventType The class of the sticky event.
+     * @return The removed sticky event, or null if there was none.
      */
     @Override
-    public synchronized void register(final Object subscriber) {
-        if (subscriber == null) {
-            throw new TestableEventBusException("Subject can not be null");
-        }
+    public <T> T removeStickyEvent(final Class<T> eventType) {
+        final StickyEvent removed = stickyEvents.remove(eventType);
 
-        // mode has no added definition(s)? throw
-        if (mode == MODE.ANNOTATION && subscriberAnnotations.isEmpty()) {
-            throw new TestableEventBusException("You should first add subscriber annotations");
-        } else if (mode == MODE.METHOD_NAME && subscriberMethodNames.isEmpty()) {
-            throw new TestableEventBusException("You should first add subscriber method names");
-        }
+        return removed == null ? null : eventType.cast(removed.event);
+    }
 
-        if (registeredSubjects.contains(subscriber)) {
-            throw new TestableEventBusException("Already registered: " + subscriber);
-        }
+    /**
+     * Set whether posted events are also passed to listeners of their superclasses and interfaces,
+     * like the Guava and GreenRobot event buses do. Disabled by default.
+     */
+    public synchronized TestableEventBus setEventInheritance(boolean eventInheritance) {
+        this.eventInheritance = eventInheritance;
 
-        final Method[] subjectMethods = subscriber.getClass().getDeclaredMethods();
-        final Set<EventListener> listeners = new LinkedHashSet<>();
+        rebuildDispatchTable();
 
-        // extract all subscriber's event listeners
-        for (Method method : subjectMethods) {
-            // no subscriber: skip
-            if (!isSubscriber(method)) {
-                continue;
-            }
+        return this;
+    }
+
+    /**
+     * Set a journal that every posted event is appended to, with the types of the subscribers that
+     * it is posted to, before it is delivered. Unlike the log of posted events, the journal is not
+     * kept on the heap: combine it with {@link RETENTION#NONE} for long-running load tests. The
+     * event bus does not close the journal.
+     *
+     * @param journal The journal, or null to stop appending.
+     */
+    public TestableEventBus setEventJournal(EventJournal journal) {
+        this.eventJournal = journal;
 
-            final Class eventClass = getValidEventType(method);
+        return this;
+    }
 
-            listeners.add(new EventListener(subscriber, method, eventClass));
-        }
+    /**
+     * Set which posted events are retained in the log that the helper methods query: use
+     * {@link #setPostedEventsRetention(RETENTION, int)} for the bounded policies. Events that are
+     * retained under the new policy are kept.
+     */
+    public TestableEventBus setPostedEventsRetention(RETENTION retention) {
+        return setPostedEventsRetention(retention, 0);
+    }
 
-        if (listeners.isEmpty()) {
-            throw new TestableEventBusException("No event handler methods in subscriber: " + subscriber);
+    /**
+     * Set which posted events are retained in the log that the helper methods query. Events that
+     * are retained under the new policy are kept.
+     *
+     * @param retention The retention policy.
+     * @param capacity  The maximum number of retained events for {@link RETENTION#LAST} and
+     *                  {@link RETENTION#LAST_PER_TYPE}. Ignored by the other policies.
+     */
+    public synchronized TestableEventBus setPostedEventsRetention(RETENTION retention, int capacity) {
+        if (retention == null) {
+            throw new TestableEventBusException("Retention can not be null");
+        } else if ((retention == RETENTION.LAST || retention == RETENTION.LAST_PER_TYPE) && capacity < 1) {
+            throw new TestableEventBusException("Capacity must be at least 1 for retention " + retention);
         }
 
-        /**
-         * Store the event listeners by event type (more efficient calling in {@link #post}).
-         */
-        for (EventListener listener : listeners) {
-            Set<EventListener> listenersForEvent = listenersByEventType.get(listener.eventClass);
-
-            if (listenersForEvent == null) {
-                listenersForEvent = new LinkedHashSet<>();
-                listenersByEventType.put(listener.eventClass, listenersForEvent);
-            }
+        final PostedEventLog log = new PostedEventLog(retention, capacity);
 
-            listenersForEvent.add(listener);
+        for (PostedEvent posted : postedEvents.toList()) {
+            log.add(posted);
         }
 
-        // should be last
-        registeredSubjects.add(subscriber);
+        postedEvents = log;
+
+        return this;
     }
 
     /**
@@ -409,37 +800,563 @@ public class TestableEventBus implements EventBus {
     }
 
     /**
-     * Unsubscribe from events that are posted on the EventBus.
-     *
-     * @param subscriber The object to unsubscribe.
+     * Set whether subscribers are weakly referenced, so that a subscriber that is only reachable
+     * through the event bus can be garbage collected without unregistering it. The listeners of
+     * collected subscribers are purged once the garbage collector enqueues their references, the
+     * next time an event is posted or the registered listeners change; until then, posting skips
+     * them. Disabled by default: a subscriber that nothing else references, such as
+     * an anonymous class, would silently stop receiving events. Note that the log of posted events
+     * references the subscribers that received them (see {@link #setPostedEventsRetention}).
+     * <p>
+     * Can only be changed while no subscribers are registered.
      */
-    @Override
-    public synchronized void unregister(final Object subscriber) {
-        if (!registeredSubjects.contains(subscriber)) {
-            throw new TestableEventBusException("Subscriber is not registered");
+    public synchronized TestableEventBus setWeakSubscribers(boolean weakSubscribers) {
+        if (!listenersBySubscriber.isEmpty()) {
+            throw new TestableEventBusException("Can not change subscriber references while subscribers are registered");
         }
 
-        final Map<EventListener, Set<EventListener>> toRemove = new HashMap<>();
+        this.weakSubscribers = weakSubscribers;
 
-        // collect the listeners that need to be removed
-        for (Set<EventListener> listeners : listenersByEventType.values()) {
+        return this;
+    }
+
+    /**
+     * Unsubscribe from events that are posted on the EventBus.
+     *
+     * @param subscriber The object to unsubscribe.
+     */
+    @Override
+    public synchronized void unregister(final Object subscriber) {
+        final EventListener[] listeners = listenersBySubscriber.remove(toLookupKey(subscriber));
+
+        if (listeners == null) {
+            throw new TestableEventBusException("Subscriber is not registered");
+        }
+
+        final Set<Class> eventTypes = new HashSet<>();
+
+        removeListeners(listeners, eventTypes);
+        rebuildDispatchTable(eventTypes);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // PROTECTED METHODS
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Delivers the posted event to its listeners. Invokes the listeners on the posting thread:
+     * subclasses can override this to invoke them on another thread instead, using
+     * {@link #invokeListener(EventListener, Object)}.
+     */
+    protected void deliver(final EventListener[] listeners, final Object event) {
+        final CurrentDelivery delivery = currentDelivery.get();
+
+        // a subscriber may post: restore the outer delivery afterwards
+        final Object outerEvent = delivery.event;
+        final boolean outerCancelled = delivery.cancelled;
+
+        delivery.event = event;
+        delivery.cancelled = false;
+
+        try {
             for (EventListener listener : listeners) {
-                if (listener.subscriber.equals(subscriber)) {
-                    toRemove.put(listener, listeners);
+                invokeListener(listener, event);
+
+                if (delivery.cancelled) {
+                    break;
                 }
             }
+        } finally {
+            delivery.event = outerEvent;
+            delivery.cancelled = outerCancelled;
+        }
+    }
+
+    /**
+     * Delivers a batch of posted events to their listeners: `listeners[i]` are the listeners of
+     * `events[i]`. Delivers the events one by one: subclasses can override this to hand over the
+     * batch at once.
+     */
+    protected void deliverAll(final EventListener[][] listeners, final Object[] events) {
+        for (int i = 0; i < events.length; i++) {
+            deliver(listeners[i], events[i]);
         }
+    }
+
+    /**
+     * Invokes the listener with the event, logs the posted event and handles exceptions of the
+     * subscriber.
+     */
+    protected final void invokeListener(final EventListener listener, final Object event) {
+        try {
+            // invoke the subscriber method
+            listener.invoker.invoke(event);
+
+            // log the posted event
+            final PostedEventLog log = postedEvents;
+
+            if (log.isRecording()) {
+                final Object subscriber = listener.getSubscriber();
 
-        // actually remove the listeners
-        for (Map.Entry<EventListener, Set<EventListener>> entry : toRemove.entrySet()) {
-            entry.getValue().remove(entry.getKey());
+                // null: the weakly referenced subscriber was collected and not invoked
+                if (subscriber != null) {
+                    log.add(new PostedEvent(event, subscriber));
+                }
+            }
+        } catch (Exception e) {
+            if (subscriberUncaughtExceptionHandler == null) {
+                throw new TestableEventBusException("Exception during invocation of listener " +
+                        "- use `setSubscriberUncaughtExceptionHandler` to handle uncaught " +
+                        "subscriber exceptions", e);
+            } else {
+                subscriberUncaughtExceptionHandler.handle(e);
+            }
         }
     }
 
+    /**
+     * Returns the class, its superclasses and all of its interfaces, in that order. Computed once
+     * per class.
+     */
+    protected static Class[] getTypeHierarchy(final Class<?> eventClass) {
+        return EVENT_TYPE_HIERARCHY.get(eventClass);
+    }
+
+    /**
+     * Called while registering, after the subscriber's listeners are added and before its sticky
+     * events are delivered. Subclasses can override this to prepare the delivery to the subscriber.
+     *
+     * @param subscriberKey The key of the subscriber: see {@link EventListener#subscriberKey}.
+     */
+    protected void onRegistered(final Object subscriberKey) {
+        // no-op
+    }
+
+    /**
+     * Called while holding the lock, after the subscriber's listeners are removed: because it was
+     * unregistered, or because it was weakly referenced and garbage collected. Subclasses can
+     * override this to release what {@link #onRegistered(Object)} prepared.
+     *
+     * @param subscriberKey The key of the subscriber: see {@link EventListener#subscriberKey}.
+     */
+    protected void onUnregistered(final Object subscriberKey) {
+        // no-op
+    }
+
     //----------------------------------------------------------------------------------------------
     // PRIVATE METHODS
     //----------------------------------------------------------------------------------------------
 
+    /**
+     * Adds the listeners of the subscriber and returns the deliveries of its sticky events. Must
+     * be called while holding the lock.
+     */
+    private List<PendingDelivery> addSubscriber(final Object subscriber, final int priority) {
+        if (subscriber == null) {
+            throw new TestableEventBusException("Subject can not be null");
+        }
+
+        // mode has no added definition(s)? throw
+        if (mode == MODE.ANNOTATION && subscriberAnnotations.isEmpty()) {
+            throw new TestableEventBusException("You should first add subscriber annotations");
+        } else if (mode == MODE.METHOD_NAME && subscriberMethodNames.isEmpty()) {
+            throw new TestableEventBusException("You should first add subscriber method names");
+        }
+
+        if (listenersBySubscriber.containsKey(toLookupKey(subscriber))) {
+            throw new TestableEventBusException("Already registered: " + subscriber);
+        }
+
+        final SubscriberMethod[] subscriberMethods = subscriberMethodCache.get(subscriber.getClass());
+
+        if (subscriberMethods.length == 0) {
+            throw new TestableEventBusException("No event handler methods in subscriber: " + subscriber);
+        }
+
+        final Object subscriberKey = weakSubscribers
+                ? new SubscriberReference(subscriber, collectedSubscribers)
+                : subscriber;
+        final EventListener[] listeners = new EventListener[subscriberMethods.length];
+        final Set<Class> eventTypes = new HashSet<>();
+
+        // bind the subscriber's event listeners
+        for (int i = 0; i < subscriberMethods.length; i++) {
+            listeners[i] = new EventListener(subscriberKey, subscriberMethods[i], priority);
+        }
+
+        /**
+         * Store the event listeners by event type (more efficient calling in {@link #post}).
+         */
+        for (EventListener listener : listeners) {
+            Set<EventListener> listenersForEvent = listenersByEventType.get(listener.eventClass);
+
+            if (listenersForEvent == null) {
+                listenersForEvent = new LinkedHashSet<>();
+                listenersByEventType.put(listener.eventClass, listenersForEvent);
+                registeredEventTypes.add(listener.eventClass);
+            }
+
+            listenersForEvent.add(listener);
+            eventTypes.add(listener.eventClass);
+        }
+
+        // should be last
+        listenersBySubscriber.put(subscriberKey, listeners);
+
+        rebuildDispatchTable(eventTypes);
+        onRegistered(subscriberKey);
+
+        return collectStickyDeliveries(listeners);
+    }
+
+    /**
+     * Appends the posted event to the journal, if there is one.
+     *
+     * @param listeners The listeners of the event, or null.
+     */
+    private void appendToJournal(final EventListener[] listeners, final Object event) {
+        final EventJournal journal = eventJournal;
+
+        if (journal == null) {
+            return;
+        }
+
+        // the distinct types of the subscribers, in delivery order
+        final Set<Class<?>> subscriberTypes = new LinkedHashSet<>();
+
+        if (listeners != null) {
+            for (EventListener listener : listeners) {
+                final Object subscriber = listener.getSubscriber();
+
+                if (subscriber != null) {
+                    subscriberTypes.add(subscriber.getClass());
+                }
+            }
+        }
+
+        journal.append(event, subscriberTypes.toArray(new Class<?>[subscriberTypes.size()]));
+    }
+
+    /**
+     * Collects the registered listeners for the posted event class: when event inheritance is
+     * enabled, including the listeners for all of its superclasses and interfaces. Returns null if
+     * no listeners were ever registered for any of these types. Must be called while holding the
+     * lock.
+     */
+    private EventListener[] collectListeners(final Class eventClass) {
+        final Class[] eventTypes = eventInheritance ? EVENT_TYPE_HIERARCHY.get(eventClass) : new Class[]{eventClass};
+        List<EventListener> listeners = null;
+
+        for (Class eventType : eventTypes) {
+            if (!registeredEventTypes.contains(eventType)) {
+                continue;
+            }
+
+            if (listeners == null) {
+                listeners = new ArrayList<>();
+            }
+
+            final Set<EventListener> registered = listenersByEventType.get(eventType);
+
+            if (registered != null) {
+                listeners.addAll(registered);
+            }
+        }
+
+        if (listeners == null) {
+            return null;
+        }
+
+        // sort once here, so that posting simply iterates
+        Collections.sort(listeners, PRIORITY_ORDER);
+
+        return toArray(listeners);
+    }
+
+    /**
+     * Returns the deliveries of the matching sticky events to the listeners of a new subscriber,
+     * in posting order. Must be called while holding the lock.
+     */
+    private List<PendingDelivery> collectStickyDeliveries(final EventListener[] listeners) {
+        final List<PendingDelivery> deliveries = new ArrayList<>();
+
+        if (stickyEvents.isEmpty()) {
+            return deliveries;
+        }
+
+        final List<StickyEvent> sorted = new ArrayList<>(stickyEvents.values());
+
+        Collections.sort(sorted, new Comparator<StickyEvent>() {
+            @Override
+            public int compare(StickyEvent a, StickyEvent b) {
+                return Long.compare(a.sequence, b.sequence);
+            }
+        });
+
+        for (StickyEvent sticky : sorted) {
+            final Class eventClass = sticky.event.getClass();
+            final List<EventListener> matching = new ArrayList<>();
+
+            for (EventListener listener : listeners) {
+                if (eventInheritance ? listener.eventClass.isAssignableFrom(eventClass) : listener.eventClass == eventClass) {
+                    matching.add(listener);
+                }
+            }
+
+            if (!matching.isEmpty()) {
+                Collections.sort(matching, PRIORITY_ORDER);
+                deliveries.add(new PendingDelivery(toArray(matching), sticky.event));
+            }
+        }
+
+        return deliveries;
+    }
+
+    /**
+     * Creates a dispatch table that can be published: immutable when posting is not synchronized.
+     */
+    private Map<Class, EventListener[]> createDispatchTable(final Map<Class, EventListener[]> entries) {
+        if (concurrency == CONCURRENCY.SYNCHRONIZED) {
+            return new HashMap<>(entries);
+        } else if (concurrency == CONCURRENCY.STRIPED) {
+            return new ConcurrentHashMap<>(entries);
+        }
+
+        return Collections.unmodifiableMap(new HashMap<>(entries));
+    }
+
+    /**
+     * Creates an empty subscriber method cache for the current subscriber method definitions.
+     */
+    private ClassCache<SubscriberMethod[]> createSubscriberMethodCache() {
+        return ClassCache.create(new ClassCache.Loader<SubscriberMethod[]>() {
+            @Override
+            public SubscriberMethod[] load(Class<?> subscriberClass) {
+                return findSubscriberMethods(subscriberClass);
+            }
+        });
+    }
+
+    /**
+     * Delivers the events, in order.
+     */
+    private void deliverPending(final List<PendingDelivery> deliveries) {
+        for (PendingDelivery delivery : deliveries) {
+            deliverPosted(delivery.listeners, delivery.event);
+        }
+    }
+
+    /**
+     * Delivers a posted event: under its stripe lock in the {@link CONCURRENCY#STRIPED} mode.
+     */
+    private void deliverPosted(final EventListener[] listeners, final Object event) {
+        if (concurrency == CONCURRENCY.STRIPED) {
+            deliverStriped(listeners, event);
+        } else {
+            deliver(listeners, event);
+        }
+    }
+
+    /**
+     * Delivers the event while holding the stripe lock of its class, and then the events that its
+     * subscribers posted. Must not be called while holding the lock of the event bus.
+     */
+    private void deliverStriped(final EventListener[] listeners, final Object event) {
+        final StripedDeliveries deliveries = stripedDeliveries.get();
+
+        // posted by a subscriber: taking a second stripe lock could deadlock
+        if (deliveries.delivering) {
+            deliveries.nested.addLast(new PendingDelivery(listeners, event));
+            return;
+        }
+
+        deliveries.delivering = true;
+
+        try {
+            synchronized (stripeFor(event.getClass())) {
+                deliver(listeners, event);
+            }
+
+            PendingDelivery nested;
+
+            while ((nested = deliveries.nested.pollFirst()) != null) {
+                synchronized (stripeFor(nested.event.getClass())) {
+                    deliver(nested.listeners, nested.event);
+                }
+            }
+        } finally {
+            deliveries.delivering = false;
+            deliveries.nested.clear();
+        }
+    }
+
+    /**
+     * Invoke the listeners of the event and log the successful invocations.
+     */
+    private void dispatch(final Object event) {
+        if (event == null) {
+            throw new TestableEventBusException("Event can not be null");
+        }
+
+        final Class eventClass = event.getClass();
+        final EventListener[] listeners = getListeners(eventClass);
+
+        if (listeners == null) {
+            throw new TestableEventBusException("No listeners for event type " + eventClass.getName());
+        }
+
+        appendToJournal(listeners, event);
+        deliverPosted(listeners, event);
+    }
+
+    /**
+     * Looks up the listeners of all events and then delivers them, so that an invalid event does
+     * not leave the batch partially posted.
+     */
+    private void dispatchAll(final Iterable<?> events) {
+        final Object[] batch = events instanceof Collection
+                ? ((Collection<?>) events).toArray()
+                : toObjectArray(events);
+        final EventListener[][] listeners = new EventListener[batch.length][];
+
+        Class previousClass = null;
+        EventListener[] previousListeners = null;
+
+        for (int i = 0; i < batch.length; i++) {
+            final Object event = batch[i];
+
+            if (event == null) {
+                throw new TestableEventBusException("Event can not be null");
+            }
+
+            final Class eventClass = event.getClass();
+
+            if (eventClass != previousClass) {
+                previousListeners = getListeners(eventClass);
+                previousClass = eventClass;
+
+                if (previousListeners == null) {
+                    throw new TestableEventBusException("No listeners for event type " + eventClass.getName());
+                }
+            }
+
+            listeners[i] = previousListeners;
+        }
+
+        if (eventJournal != null) {
+            for (int i = 0; i < batch.length; i++) {
+                appendToJournal(listeners[i], batch[i]);
+            }
+        }
+
+        if (concurrency == CONCURRENCY.STRIPED) {
+            for (int i = 0; i < batch.length; i++) {
+                deliverStriped(listeners[i], batch[i]);
+            }
+        } else {
+            deliverAll(listeners, batch);
+        }
+    }
+
+    /**
+     * Stores the sticky event and delivers it to its listeners, if there are any.
+     */
+    private void dispatchSticky(final Object event) {
+        final Class eventClass = event.getClass();
+
+        stickyEvents.put(eventClass, new StickyEvent(event, stickyEventSequence.incrementAndGet()));
+
+        final EventListener[] listeners = getListeners(eventClass);
+
+        appendToJournal(listeners, event);
+
+        if (listeners != null) {
+            deliverPosted(listeners, event);
+        }
+    }
+
+    /**
+     * Extracts and validates the subscriber methods of a subscriber class.
+     */
+    private SubscriberMethod[] findSubscriberMethods(final Class<?> subscriberClass) {
+        for (SubscriberIndex index : subscriberIndexes) {
+            final IndexedSubscriberMethod[] indexedMethods = index.getSubscriberMethods(subscriberClass);
+
+            if (indexedMethods != null) {
+                return toSubscriberMethods(indexedMethods);
+            }
+        }
+
+        final List<SubscriberMethod> subscriberMethods = new ArrayList<>();
+
+        for (Method method : subscriberClass.getDeclaredMethods()) {
+            // no subscriber: skip
+            if (!isSubscriber(method)) {
+                continue;
+            }
+
+            subscriberMethods.add(new SubscriberMethod(method, getValidEventType(method), getDeclaredPriority(method)));
+        }
+
+        return subscriberMethods.toArray(new SubscriberMethod[subscriberMethods.size()]);
+    }
+
+    /**
+     * Returns the priority that the subscriber annotation of the method declares in an
+     * `int priority()` attribute, or null if it has no such attribute or it has its default value.
+     */
+    private Integer getDeclaredPriority(final Method method) {
+        if (mode != MODE.ANNOTATION) {
+            return null;
+        }
+
+        for (Class<? extends Annotation> annotationClass : subscriberAnnotations) {
+            final Annotation annotation = method.getAnnotation(annotationClass);
+
+            if (annotation == null) {
+                continue;
+            }
+
+            try {
+                final Method attribute = annotationClass.getMethod("priority");
+
+                if (attribute.getReturnType() != int.class) {
+                    continue;
+                }
+
+                attribute.setAccessible(true);
+
+                final Object priority = attribute.invoke(annotation);
+
+                if (!priority.equals(attribute.getDefaultValue())) {
+                    return (Integer) priority;
+                }
+            } catch (NoSuchMethodException e) {
+                // no priority attribute
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new TestableEventBusException("Could not read the priority of subscriber method " + method, e);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the listeners for the event class from the dispatch table, or null if no listeners
+     * were ever registered for it. Only takes the lock when the table has no entry yet.
+     */
+    private EventListener[] getListeners(final Class eventClass) {
+        final EventListener[] listeners = dispatchTable.get(eventClass);
+
+        if (listeners != null) {
+            return listeners;
+        }
+
+        synchronized (this) {
+            return resolveListeners(eventClass);
+        }
+    }
+
     /**
      * Validates the subscriber method and returns its event type.
      */
@@ -497,25 +1414,424 @@ public class TestableEventBus implements EventBus {
         return false;
     }
 
+    /**
+     * Rebuilds the dispatch table after the dispatching rules have changed. Must be called while
+     * holding the lock. When posting is synchronized the entries are simply dropped and resolved
+     * again on demand; otherwise the entries of the previously posted event classes are rebuilt,
+     * so that posting threads do not have to take the lock.
+     */
+    private void rebuildDispatchTable() {
+        rebuildDispatchTable(null);
+    }
+
+    /**
+     * Purges the listeners of the weakly referenced subscribers that were garbage collected since
+     * the last call, and returns their event types. Must be called while holding the lock.
+     */
+    private Set<Class> purgeCollectedSubscribers(Reference<?> collected) {
+        final Set<Class> eventTypes = new HashSet<>();
+
+        while (collected != null) {
+            final EventListener[] listeners = listenersBySubscriber.remove(collected);
+
+            // null: unregistered before it was collected
+            if (listeners != null) {
+                removeListeners(listeners, eventTypes);
+            }
+
+            collected = collectedSubscribers.poll();
+        }
+
+        return eventTypes;
+    }
+
+    /**
+     * Purges the listeners of collected subscribers when the garbage collector has enqueued their
+     * references, so that posting does not keep passing dead listeners. Polling an empty reference
+     * queue does not lock or allocate, and the listeners are never scanned.
+     */
+    private void purgeCollectedSubscribersOnPost() {
+        if (!weakSubscribers) {
+            return;
+        }
+
+        final Reference<?> collected = collectedSubscribers.poll();
+
+        if (collected == null) {
+            return;
+        }
+
+        synchronized (this) {
+            final Set<Class> purgedTypes = purgeCollectedSubscribers(collected);
+
+            if (!purgedTypes.isEmpty()) {
+                rebuildDispatchTable(purgedTypes);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the dispatch table entries of the posted event classes that are assignable to one of
+     * the changed event types, or all entries if `changedTypes` is null. Also purges the listeners
+     * of collected subscribers, so that posting never has to skip them for long. Must be called
+     * while holding the lock.
+     */
+    private void rebuildDispatchTable(Collection<Class> changedTypes) {
+        final Set<Class> purgedTypes = purgeCollectedSubscribers(collectedSubscribers.poll());
+
+        if (changedTypes != null && !purgedTypes.isEmpty()) {
+            purgedTypes.addAll(changedTypes);
+            changedTypes = purgedTypes;
+        }
+
+        if (concurrency == CONCURRENCY.SYNCHRONIZED) {
+            if (changedTypes == null) {
+                dispatchTable.clear();
+                return;
+            }
+
+            final Iterator<Class> eventClasses = dispatchTable.keySet().iterator();
+
+            while (eventClasses.hasNext()) {
+                if (isAffected(eventClasses.next(), changedTypes)) {
+                    eventClasses.remove();
+                }
+            }
+
+            return;
+        } else if (concurrency == CONCURRENCY.STRIPED) {
+            // replace the changed entries only, so that posting other event classes never waits
+            for (Map.Entry<Class, EventListener[]> entry : dispatchTable.entrySet()) {
+                if (!isAffected(entry.getKey(), changedTypes)) {
+                    continue;
+                }
+
+                final EventListener[] listeners = collectListeners(entry.getKey());
+
+                if (listeners == null) {
+                    dispatchTable.remove(entry.getKey());
+                } else {
+                    dispatchTable.put(entry.getKey(), listeners);
+                }
+            }
+
+            return;
+        }
+
+        final Map<Class, EventListener[]> entries = new HashMap<>();
+        boolean changed = false;
+
+        for (Map.Entry<Class, EventListener[]> entry : dispatchTable.entrySet()) {
+            final Class eventClass = entry.getKey();
+
+            if (!isAffected(eventClass, changedTypes)) {
+                entries.put(eventClass, entry.getValue());
+                continue;
+            }
+
+            final EventListener[] listeners = collectListeners(eventClass);
+
+            if (listeners != null) {
+                entries.put(eventClass, listeners);
+            }
+
+            changed = true;
+        }
+
+        // nothing was posted that the change affects: keep the published snapshot
+        if (changed) {
+            dispatchTable = createDispatchTable(entries);
+        }
+    }
+
+    /**
+     * Removes the listeners of a subscriber from their event types, dropping types without
+     * listeners, and adds the event types to `eventTypes`. Must be called while holding the lock.
+     */
+    private void removeListeners(final EventListener[] listeners, final Set<Class> eventTypes) {
+        for (EventListener listener : listeners) {
+            final Set<EventListener> listenersForEvent = listenersByEventType.get(listener.eventClass);
+
+            listenersForEvent.remove(listener);
+
+            if (listenersForEvent.isEmpty()) {
+                listenersByEventType.remove(listener.eventClass);
+            }
+
+            eventTypes.add(listener.eventClass);
+        }
+
+        onUnregistered(listeners[0].subscriberKey);
+    }
+
+    /**
+     * Adds the listeners for the event class to the dispatch table, if it has no entry yet. Must
+     * be called while holding the lock.
+     */
+    private EventListener[] resolveListeners(final Class eventClass) {
+        EventListener[] listeners = dispatchTable.get(eventClass);
+
+        if (listeners != null) {
+            return listeners;
+        }
+
+        listeners = collectListeners(eventClass);
+
+        if (listeners == null) {
+            return null;
+        }
+
+        if (concurrency == CONCURRENCY.SYNCHRONIZED || concurrency == CONCURRENCY.STRIPED) {
+            dispatchTable.put(eventClass, listeners);
+        } else {
+            final Map<Class, EventListener[]> entries = new HashMap<>(dispatchTable);
+            entries.put(eventClass, listeners);
+
+            dispatchTable = createDispatchTable(entries);
+        }
+
+        return listeners;
+    }
+
+    /**
+     * Returns the posting lock of the event class.
+     *
+     * @see CONCURRENCY#STRIPED
+     */
+    private Object stripeFor(final Class eventClass) {
+        final int hash = eventClass.hashCode();
+
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * Returns a key that finds the subscriber in {@link #listenersBySubscriber}, without
+     * registering a reference.
+     */
+    private Object toLookupKey(final Object subscriber) {
+        return weakSubscribers ? new SubscriberReference(subscriber, null) : subscriber;
+    }
+
+    private static Object[] createStripes() {
+        final Object[] stripes = new Object[STRIPE_COUNT];
+
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+
+        return stripes;
+    }
+
+    /**
+     * Returns the class, its superclasses and all of its interfaces, in that order.
+     */
+    private static Class[] flattenHierarchy(final Class<?> eventClass) {
+        final Set<Class> types = new LinkedHashSet<>();
+        final LinkedList<Class<?>> interfaces = new LinkedList<>();
+
+        for (Class<?> type = eventClass; type != null; type = type.getSuperclass()) {
+            types.add(type);
+            interfaces.addAll(Arrays.asList(type.getInterfaces()));
+        }
+
+        while (!interfaces.isEmpty()) {
+            final Class<?> type = interfaces.removeFirst();
+
+            if (types.add(type)) {
+                interfaces.addAll(Arrays.asList(type.getInterfaces()));
+            }
+        }
+
+        return types.toArray(new Class[types.size()]);
+    }
+
+    /**
+     * Returns whether the dispatch table entry of the posted event class depends on one of the
+     * changed event types, or on any type if `changedTypes` is null.
+     */
+    private static boolean isAffected(final Class eventClass, final Collection<Class> changedTypes) {
+        if (changedTypes == null) {
+            return true;
+        }
+
+        for (Class changedType : changedTypes) {
+            if (changedType.isAssignableFrom(eventClass)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static EventListener[] toArray(final Collection<EventListener> listeners) {
+        return listeners.toArray(new EventListener[listeners.size()]);
+    }
+
+    private static Object[] toObjectArray(final Iterable<?> iterable) {
+        final List<Object> list = new ArrayList<>();
+
+        for (Object element : iterable) {
+            list.add(element);
+        }
+
+        return list.toArray();
+    }
+
+    private static SubscriberMethod[] toSubscriberMethods(final IndexedSubscriberMethod[] indexedMethods) {
+        final SubscriberMethod[] subscriberMethods = new SubscriberMethod[indexedMethods.length];
+
+        for (int i = 0; i < indexedMethods.length; i++) {
+            subscriberMethods[i] = new SubscriberMethod(indexedMethods[i]);
+        }
+
+        return subscriberMethods;
+    }
+
     //----------------------------------------------------------------------------------------------
     // INNER CLASSES
     //----------------------------------------------------------------------------------------------
 
     /**
-     * Wraps a subscriber with its event type and listener method.
+     * Wraps a subscriber with its event type, listener method and method invoker.
      */
-    static class EventListener {
+    protected static class EventListener {
 
         public final Class eventClass;
+        public final SubscriberInvoker invoker;
+
+        /**
+         * The reflected method, or null for a method from a {@link SubscriberIndex}.
+         */
         public final Method method;
-        public final Object subscriber;
 
-        public EventListener(Object subscriber, Method method, Class eventClass) {
-            this.eventClass = eventClass;
-            this.method = method;
-            this.subscriber = subscriber;
+        /**
+         * The delivery priority: higher priorities receive events first.
+         */
+        public final int priority;
+
+        /**
+         * Identifies the subscriber: the subscriber itself, or its {@link SubscriberReference}
+         * when subscribers are weakly referenced. Use {@link #getSubscriber()} for the subscriber.
+         */
+        public final Object subscriberKey;
+
+        public EventListener(Object subscriberKey, SubscriberMethod subscriberMethod, int priority) {
+            this.eventClass = subscriberMethod.eventClass;
+            this.invoker = subscriberKey instanceof SubscriberReference
+                    ? subscriberMethod.invokerFactory.createWeak((SubscriberReference) subscriberKey)
+                    : subscriberMethod.invokerFactory.create(subscriberKey);
+            this.method = subscriberMethod.method;
+            this.priority = subscriberMethod.priority != null ? subscriberMethod.priority : priority;
+            this.subscriberKey = subscriberKey;
+        }
+
+        /**
+         * Returns the subscriber, or null if it was weakly referenced and garbage collected.
+         */
+        public Object getSubscriber() {
+            return subscriberKey instanceof SubscriberReference
+                    ? ((SubscriberReference) subscriberKey).get()
+                    : subscriberKey;
+        }
+
+    }
+
+    /**
+     * The event that a thread is delivering, and whether a subscriber cancelled its delivery.
+     *
+     * @see #cancelEventDelivery(Object)
+     */
+    private static final class CurrentDelivery {
+
+        boolean cancelled = false;
+        Object event;
+
+    }
+
+    /**
+     * An event with the listeners it is delivered to.
+     */
+    private static final class PendingDelivery {
+
+        final EventListener[] listeners;
+        final Object event;
+
+        PendingDelivery(final EventListener[] listeners, final Object event) {
+            this.listeners = listeners;
+            this.event = event;
         }
 
     }
 
+    /**
+     * A weak reference to a subscriber that is equal to the references to the same subscriber, by
+     * identity, while it is reachable. Once cleared it is only equal to itself, so that it can
+     * still be removed from the maps it is a key of.
+     *
+     * @see #setWeakSubscribers(boolean)
+     */
+    private static final class SubscriberReference extends WeakReference<Object> {
+
+        private final int hash;
+
+        SubscriberReference(final Object subscriber, final ReferenceQueue<Object> queue) {
+            super(subscriber, queue);
+
+            this.hash = System.identityHashCode(subscriber);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (o == this) {
+                return true;
+            } else if (!(o instanceof SubscriberReference)) {
+                return false;
+            }
+
+            final Object referent = get();
+
+            return referent != null && referent == ((SubscriberReference) o).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+    /**
+     * A sticky event with its sequence number, which orders the sticky events by posting time.
+     */
+    private static final class StickyEvent {
+
+        final Object event;
+        final long sequence;
+
+        StickyEvent(final Object event, final long sequence) {
+            this.event = event;
+            this.sequence = sequence;
+        }
+
+    }
+
+    /**
+     * The striped deliveries of one thread.
+     *
+     * @see CONCURRENCY#STRIPED
+     */
+    private static final class StripedDeliveries {
+
+        /**
+         * Whether the thread is delivering an event, so that it holds a stripe lock.
+         */
+        boolean delivering = false;
+
+        /**
+         * The events that subscribers posted while the thread was delivering.
+         */
+        final ArrayDeque<PendingDelivery> nested = new ArrayDeque<>();
+
+    }
+
 }
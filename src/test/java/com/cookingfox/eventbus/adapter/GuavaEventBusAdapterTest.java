@@ -4,9 +4,16 @@ import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Integration tests for {@link GuavaEventBusAdapter}.
@@ -33,6 +40,103 @@ public class GuavaEventBusAdapterTest {
         assertSame(event, receivedEvent.get());
     }
 
+    @Test
+    public void postAll_should_post_every_event() throws Exception {
+        final GuavaEventBusAdapter eventBus = new GuavaEventBusAdapter(new EventBus());
+        final List<ExampleEvent> receivedEvents = new ArrayList<ExampleEvent>();
+        final List<ExampleEvent> events = Arrays.asList(new ExampleEvent(), new ExampleEvent());
+
+        final ExampleSubscriber subscriber = new ExampleSubscriber() {
+            @Subscribe
+            public void onEvent(ExampleEvent event) {
+                receivedEvents.add(event);
+            }
+        };
+
+        eventBus.register(subscriber);
+        eventBus.postAll(events);
+        eventBus.unregister(subscriber);
+
+        assertEquals(events, receivedEvents);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void post_should_throw_if_event_null() throws Exception {
+        new GuavaEventBusAdapter(new EventBus()).post(null);
+    }
+
+    @Test
+    public void postAll_should_throw_and_post_nothing_if_event_null() throws Exception {
+        final GuavaEventBusAdapter eventBus = new GuavaEventBusAdapter(new EventBus());
+        final List<ExampleEvent> receivedEvents = new ArrayList<ExampleEvent>();
+
+        eventBus.register(new ExampleSubscriber() {
+            @Subscribe
+            public void onEvent(ExampleEvent event) {
+                receivedEvents.add(event);
+            }
+        });
+
+        try {
+            eventBus.postAll(Arrays.asList(new ExampleEvent(), null));
+            fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        assertTrue(receivedEvents.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void postSticky_should_throw_if_event_null() throws Exception {
+        new GuavaEventBusAdapter(new EventBus()).postSticky(null);
+    }
+
+    @Test
+    public void postSticky_should_post_and_keep_latest_event() throws Exception {
+        final GuavaEventBusAdapter eventBus = new GuavaEventBusAdapter(new EventBus());
+        final AtomicReference<ExampleEvent> receivedEvent = new AtomicReference<ExampleEvent>();
+        final ExampleEvent first = new ExampleEvent();
+        final ExampleEvent second = new ExampleEvent();
+
+        final ExampleSubscriber subscriber = new ExampleSubscriber() {
+            @Subscribe
+            public void onEvent(ExampleEvent event) {
+                receivedEvent.set(event);
+            }
+        };
+
+        eventBus.register(subscriber);
+        eventBus.postSticky(first);
+        eventBus.postSticky(second);
+        eventBus.unregister(subscriber);
+
+        assertSame(second, receivedEvent.get());
+        assertSame(second, eventBus.getStickyEvent(ExampleEvent.class));
+    }
+
+    @Test
+    public void removeStickyEvent_should_remove_sticky_event() throws Exception {
+        final GuavaEventBusAdapter eventBus = new GuavaEventBusAdapter(new EventBus());
+        final ExampleEvent event = new ExampleEvent();
+
+        eventBus.postSticky(event);
+
+        assertSame(event, eventBus.removeStickyEvent(ExampleEvent.class));
+        assertNull(eventBus.getStickyEvent(ExampleEvent.class));
+        assertNull(eventBus.removeStickyEvent(ExampleEvent.class));
+    }
+
+    @Test
+    public void removeAllStickyEvents_should_remove_sticky_events() throws Exception {
+        final GuavaEventBusAdapter eventBus = new GuavaEventBusAdapter(new EventBus());
+
+        eventBus.postSticky(new ExampleEvent());
+        eventBus.removeAllStickyEvents();
+
+        assertNull(eventBus.getStickyEvent(ExampleEvent.class));
+    }
+
     static class ExampleEvent {
     }
 
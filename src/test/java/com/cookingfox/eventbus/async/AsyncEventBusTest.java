@@ -0,0 +1,731 @@
+package com.cookingfox.eventbus.async;
+
+import com.cookingfox.eventbus.testable.SubscriberUncaughtExceptionHandler;
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import com.cookingfox.eventbus.testable.TestableEventBusException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link AsyncEventBus}.
+ */
+public class AsyncEventBusTest {
+
+    private static final String DEFAULT_EXCEPTION_MESSAGE = "Example exception message";
+    private static final String DEFAULT_METHOD_NAME = "onEvent";
+
+    private AsyncEventBus eventBus;
+    private ManualExecutor executor;
+
+    //----------------------------------------------------------------------------------------------
+    // SETUP & TEARDOWN
+    //----------------------------------------------------------------------------------------------
+
+    @Before
+    public void setUp() throws Exception {
+        executor = new ManualExecutor();
+        eventBus = createInstance(executor, AsyncEventBus.ORDERING.PER_SUBSCRIBER);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: addConflatedEventType
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = TestableEventBusException.class)
+    public void addConflatedEventType_should_throw_if_event_type_null() throws Exception {
+        eventBus.addConflatedEventType(null);
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void addConflatedEventType_should_throw_if_key_extractor_null() throws Exception {
+        eventBus.addConflatedEventType(NumberedEvent.class, null);
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void addConflatedEventType_should_throw_if_not_ordered_per_subscriber() throws Exception {
+        createInstance(executor, AsyncEventBus.ORDERING.UNORDERED).addConflatedEventType(MyEvent.class);
+    }
+
+    @Test
+    public void addConflatedEventType_should_replace_waiting_event() throws Exception {
+        final OrderListener listener = new OrderListener(1);
+
+        eventBus.addConflatedEventType(NumberedEvent.class);
+        eventBus.register(listener);
+
+        for (int i = 0; i < 100; i++) {
+            eventBus.post(new NumberedEvent(i));
+        }
+
+        final DispatchStatistics waiting = eventBus.getStatistics();
+
+        executor.runAll();
+
+        assertEquals(1, waiting.queueDepth);
+        assertEquals(99, waiting.conflated);
+        assertEquals(createRange(100).subList(99, 100), listener.received);
+        assertEquals(1, eventBus.getStatistics().delivered);
+    }
+
+    @Test
+    public void addConflatedEventType_should_only_replace_event_with_same_key() throws Exception {
+        final OrderListener listener = new OrderListener(4);
+
+        eventBus.addConflatedEventType(NumberedEvent.class, new EventKeyExtractor<NumberedEvent>() {
+            @Override
+            public Object getKey(NumberedEvent event) {
+                return event.number % 2;
+            }
+        });
+        eventBus.register(listener);
+
+        for (int i = 0; i < 6; i++) {
+            eventBus.post(new NumberedEvent(i));
+        }
+
+        executor.runAll();
+
+        // position of the first waiting event, value of the last
+        assertEquals(Arrays.asList(4, 5), listener.received);
+        assertEquals(4, eventBus.getStatistics().conflated);
+    }
+
+    @Test
+    public void addConflatedEventType_should_queue_event_again_once_delivery_started() throws Exception {
+        final OrderListener listener = new OrderListener(2);
+
+        eventBus.addConflatedEventType(NumberedEvent.class);
+        eventBus.register(listener);
+        eventBus.post(new NumberedEvent(0));
+        executor.runAll();
+        eventBus.post(new NumberedEvent(1));
+        eventBus.post(new NumberedEvent(2));
+        executor.runAll();
+
+        assertEquals(Arrays.asList(0, 2), listener.received);
+        assertEquals(1, eventBus.getStatistics().conflated);
+    }
+
+    @Test
+    public void addConflatedEventType_should_not_replace_other_event_types() throws Exception {
+        final CountingListener listener = new CountingListener();
+
+        eventBus.addConflatedEventType(NumberedEvent.class);
+        eventBus.register(listener);
+        eventBus.post(new MyEvent());
+        eventBus.post(new MyEvent());
+        executor.runAll();
+
+        assertEquals(2, listener.counter.get());
+        assertEquals(0, eventBus.getStatistics().conflated);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: constructor
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = TestableEventBusException.class)
+    public void constructor_should_throw_if_executor_null() throws Exception {
+        new AsyncEventBus(TestableEventBus.MODE.METHOD_NAME, null);
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void constructor_should_throw_if_ordering_null() throws Exception {
+        new AsyncEventBus(TestableEventBus.MODE.METHOD_NAME, executor, null);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: getStatistics
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void getStatistics_should_report_queue_depth() throws Exception {
+        eventBus.register(new CountingListener());
+        eventBus.register(new CountingListener());
+        eventBus.post(new MyEvent());
+        eventBus.post(new MyEvent());
+
+        DispatchStatistics waiting = eventBus.getStatistics();
+
+        executor.runAll();
+
+        DispatchStatistics delivered = eventBus.getStatistics();
+
+        assertEquals(4, waiting.queueDepth);
+        assertEquals(0, waiting.delivered);
+        assertEquals(0, delivered.queueDepth);
+        assertEquals(4, delivered.maxQueueDepth);
+        assertEquals(4, delivered.delivered);
+    }
+
+    @Test
+    public void getStatistics_should_report_dispatch_latency() throws Exception {
+        eventBus.register(new CountingListener());
+        eventBus.post(new MyEvent());
+
+        Thread.sleep(10);
+        executor.runAll();
+
+        DispatchStatistics result = eventBus.getStatistics();
+
+        assertTrue(result.maxLatencyNanos >= TimeUnit.MILLISECONDS.toNanos(10));
+        assertEquals(result.maxLatencyNanos, result.getAverageLatencyNanos());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: post
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void post_should_not_log_posted_events_by_default() throws Exception {
+        eventBus.register(new CountingListener());
+        eventBus.post(new MyEvent());
+        executor.runAll();
+
+        assertEquals(0, eventBus.countPostedEvents());
+    }
+
+    @Test
+    public void post_should_not_invoke_subscriber_on_posting_thread() throws Exception {
+        final CountingListener listener = new CountingListener();
+
+        eventBus.setPostedEventsRetention(TestableEventBus.RETENTION.ALL);
+        eventBus.register(listener);
+        eventBus.post(new MyEvent());
+
+        assertEquals(0, listener.counter.get());
+        assertEquals(0, eventBus.countPostedEvents());
+
+        executor.runAll();
+
+        assertEquals(1, listener.counter.get());
+        assertEquals(1, eventBus.countPostedEvents());
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void post_should_throw_if_no_listeners() throws Exception {
+        eventBus.post(new MyEvent());
+    }
+
+    @Test
+    public void post_perSubscriber_should_schedule_one_task_per_subscriber() throws Exception {
+        eventBus.register(new CountingListener());
+        eventBus.register(new CountingListener());
+        eventBus.post(new MyEvent());
+        eventBus.post(new MyEvent());
+
+        assertEquals(2, executor.tasks.size());
+    }
+
+    @Test
+    public void post_unordered_should_schedule_one_task_per_delivery() throws Exception {
+        eventBus = createInstance(executor, AsyncEventBus.ORDERING.UNORDERED);
+        eventBus.register(new CountingListener());
+        eventBus.register(new CountingListener());
+        eventBus.post(new MyEvent());
+        eventBus.post(new MyEvent());
+
+        assertEquals(4, executor.tasks.size());
+    }
+
+    @Test
+    public void post_perEvent_should_schedule_one_task_per_event() throws Exception {
+        final CountingListener first = new CountingListener();
+        final CountingListener second = new CountingListener();
+
+        eventBus = createInstance(executor, AsyncEventBus.ORDERING.PER_EVENT);
+        eventBus.register(first);
+        eventBus.register(second);
+        eventBus.post(new MyEvent());
+        eventBus.post(new MyEvent());
+
+        assertEquals(2, executor.tasks.size());
+        assertEquals(2, eventBus.getStatistics().queueDepth);
+
+        executor.runAll();
+
+        assertEquals(2, first.counter.get());
+        assertEquals(2, second.counter.get());
+    }
+
+    @Test
+    public void post_perEvent_should_not_schedule_task_without_listeners() throws Exception {
+        final CountingListener listener = new CountingListener();
+
+        eventBus = createInstance(executor, AsyncEventBus.ORDERING.PER_EVENT);
+        eventBus.register(listener);
+        eventBus.unregister(listener);
+        eventBus.post(new MyEvent());
+
+        assertTrue(executor.tasks.isEmpty());
+    }
+
+    @Test
+    public void post_perSubscriber_should_deliver_in_posting_order() throws Exception {
+        final int numEvents = 1000;
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        final OrderListener first = new OrderListener(numEvents);
+        final OrderListener second = new OrderListener(numEvents);
+
+        try {
+            eventBus = createInstance(pool, AsyncEventBus.ORDERING.PER_SUBSCRIBER);
+            eventBus.register(first);
+            eventBus.register(second);
+
+            for (int i = 0; i < numEvents; i++) {
+                eventBus.post(new NumberedEvent(i));
+            }
+
+            assertTrue(first.done.await(10, TimeUnit.SECONDS));
+            assertTrue(second.done.await(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertFalse(first.concurrent);
+        assertFalse(second.concurrent);
+        assertEquals(createRange(numEvents), first.received);
+        assertEquals(createRange(numEvents), second.received);
+    }
+
+    @Test
+    public void post_should_pass_subscriber_exception_to_handler() throws Exception {
+        final AtomicReference<Exception> handled = new AtomicReference<>();
+
+        eventBus.setSubscriberUncaughtExceptionHandler(new SubscriberUncaughtExceptionHandler() {
+            @Override
+            public void handle(Exception e) {
+                handled.set(e);
+            }
+        });
+
+        eventBus.register(new ThrowingListener());
+        eventBus.post(new MyEvent());
+        executor.runAll();
+
+        assertNotNull(handled.get());
+        assertSame(DEFAULT_EXCEPTION_MESSAGE, handled.get().getCause().getMessage());
+    }
+
+    @Test
+    public void post_should_continue_delivering_after_unhandled_subscriber_exception() throws Exception {
+        final ThrowingListener listener = new ThrowingListener();
+
+        eventBus.register(listener);
+        eventBus.post(new MyEvent());
+        eventBus.post(new MyEvent());
+
+        try {
+            executor.runNext();
+            fail("Expected exception");
+        } catch (TestableEventBusException e) {
+            // expected
+        }
+
+        try {
+            executor.runNext();
+            fail("Expected exception");
+        } catch (TestableEventBusException e) {
+            // expected
+        }
+
+        assertEquals(2, listener.counter.get());
+        assertTrue(executor.tasks.isEmpty());
+    }
+
+    @Test
+    public void post_should_throw_if_executor_rejects() throws Exception {
+        eventBus = createInstance(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        }, AsyncEventBus.ORDERING.PER_SUBSCRIBER);
+
+        eventBus.register(new CountingListener());
+
+        try {
+            eventBus.post(new MyEvent());
+            fail("Expected exception");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+
+        assertEquals(0, eventBus.getStatistics().queueDepth);
+    }
+
+    @Test
+    public void post_should_keep_deliveries_of_other_posters_if_executor_rejects() throws Exception {
+        final OrderListener listener = new OrderListener(1);
+        final AtomicInteger calls = new AtomicInteger(0);
+
+        eventBus = createInstance(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                if (calls.getAndIncrement() == 0) {
+                    // another poster adds a delivery before the rejection is handled
+                    eventBus.post(new NumberedEvent(1));
+                    throw new RejectedExecutionException();
+                }
+
+                executor.execute(command);
+            }
+        }, AsyncEventBus.ORDERING.PER_SUBSCRIBER);
+
+        eventBus.register(listener);
+
+        try {
+            eventBus.post(new NumberedEvent(0));
+            fail("Expected exception");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+
+        executor.runAll();
+
+        assertEquals(Arrays.asList(1), listener.received);
+        assertEquals(0, eventBus.getStatistics().queueDepth);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: register
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void register_should_deliver_sticky_event_through_subscriber_queue() throws Exception {
+        final CountingListener listener = new CountingListener();
+
+        eventBus.postSticky(new MyEvent());
+        eventBus.register(listener);
+
+        assertEquals(0, listener.counter.get());
+
+        executor.runAll();
+
+        assertEquals(1, listener.counter.get());
+    }
+
+    @Test(timeout = 10000)
+    public void register_should_not_hold_lock_while_sticky_delivery_waits_for_full_queue() throws Exception {
+        final StickyListener listener = new StickyListener();
+
+        eventBus.setQueueCapacity(1, AsyncEventBus.OVERFLOW.BLOCK);
+        eventBus.postSticky(new MyEvent());
+        eventBus.postSticky(new NumberedEvent(1));
+
+        final Thread registering = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                eventBus.register(listener);
+            }
+        });
+
+        registering.start();
+
+        while (registering.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+
+        // takes the lock of the event bus
+        eventBus.register(new CountingListener());
+
+        executor.runAll();
+        registering.join();
+        executor.runAll();
+
+        assertEquals(2, listener.counter.get());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: resetStatistics
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void resetStatistics_should_keep_queue_depth() throws Exception {
+        eventBus.register(new CountingListener());
+        eventBus.post(new MyEvent());
+        executor.runAll();
+        eventBus.post(new MyEvent());
+        eventBus.post(new MyEvent());
+        eventBus.resetStatistics();
+
+        DispatchStatistics result = eventBus.getStatistics();
+
+        assertEquals(0, result.delivered);
+        assertEquals(0, result.totalLatencyNanos);
+        assertEquals(2, result.queueDepth);
+        assertEquals(2, result.maxQueueDepth);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: setQueueCapacity
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = TestableEventBusException.class)
+    public void setQueueCapacity_should_throw_if_capacity_less_than_one() throws Exception {
+        eventBus.setQueueCapacity(0, AsyncEventBus.OVERFLOW.BLOCK);
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void setQueueCapacity_should_throw_if_overflow_null() throws Exception {
+        eventBus.setQueueCapacity(1, null);
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void setQueueCapacity_should_throw_if_not_ordered_per_subscriber() throws Exception {
+        createInstance(executor, AsyncEventBus.ORDERING.PER_EVENT).setQueueCapacity(1, AsyncEventBus.OVERFLOW.BLOCK);
+    }
+
+    @Test
+    public void setQueueCapacity_dropNewest_should_drop_posted_events() throws Exception {
+        final OrderListener listener = postNumberedEvents(AsyncEventBus.OVERFLOW.DROP_NEWEST, 3, 5);
+
+        executor.runAll();
+
+        assertEquals(Arrays.asList(0, 1, 2), listener.received);
+        assertEquals(2, eventBus.getStatistics().rejected);
+    }
+
+    @Test
+    public void setQueueCapacity_dropOldest_should_drop_waiting_events() throws Exception {
+        final OrderListener listener = postNumberedEvents(AsyncEventBus.OVERFLOW.DROP_OLDEST, 3, 5);
+
+        assertEquals(3, eventBus.getStatistics().queueDepth);
+
+        executor.runAll();
+
+        assertEquals(Arrays.asList(2, 3, 4), listener.received);
+        assertEquals(2, eventBus.getStatistics().rejected);
+    }
+
+    @Test
+    public void setQueueCapacity_callerRuns_should_invoke_subscriber_on_posting_thread() throws Exception {
+        final OrderListener listener = postNumberedEvents(AsyncEventBus.OVERFLOW.CALLER_RUNS, 3, 5);
+
+        assertEquals(Arrays.asList(3, 4), listener.received);
+
+        executor.runAll();
+
+        assertEquals(Arrays.asList(3, 4, 0, 1, 2), listener.received);
+        assertEquals(2, eventBus.getStatistics().rejected);
+        assertEquals(5, eventBus.getStatistics().delivered);
+    }
+
+    @Test
+    public void setQueueCapacity_failFast_should_throw_if_queue_full() throws Exception {
+        try {
+            postNumberedEvents(AsyncEventBus.OVERFLOW.FAIL_FAST, 3, 4);
+            fail("Expected exception");
+        } catch (TestableEventBusException e) {
+            assertEquals(3, eventBus.getStatistics().queueDepth);
+            assertEquals(1, eventBus.getStatistics().rejected);
+        }
+    }
+
+    @Test
+    public void setQueueCapacity_block_should_wait_for_room() throws Exception {
+        final OrderListener listener = postNumberedEvents(AsyncEventBus.OVERFLOW.BLOCK, 2, 2);
+        final CountDownLatch posted = new CountDownLatch(1);
+
+        final Thread poster = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                eventBus.post(new NumberedEvent(2));
+                posted.countDown();
+            }
+        });
+        poster.start();
+
+        assertFalse(posted.await(50, TimeUnit.MILLISECONDS));
+
+        // delivers the first event, which makes room: the poster continues
+        executor.runNext();
+
+        assertTrue(posted.await(10, TimeUnit.SECONDS));
+        poster.join();
+        executor.runAll();
+
+        assertEquals(Arrays.asList(0, 1, 2), listener.received);
+        assertEquals(0, eventBus.getStatistics().rejected);
+    }
+
+    @Test
+    public void setQueueCapacity_should_not_reject_conflated_events() throws Exception {
+        eventBus.addConflatedEventType(NumberedEvent.class);
+
+        final OrderListener listener = postNumberedEvents(AsyncEventBus.OVERFLOW.FAIL_FAST, 1, 10);
+
+        executor.runAll();
+
+        assertEquals(Arrays.asList(9), listener.received);
+        assertEquals(0, eventBus.getStatistics().rejected);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: unregister
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void unregister_should_allow_registering_again() throws Exception {
+        final CountingListener listener = new CountingListener();
+
+        eventBus.register(listener);
+        eventBus.unregister(listener);
+        eventBus.register(listener);
+        eventBus.post(new MyEvent());
+        executor.runAll();
+
+        assertEquals(1, listener.counter.get());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // HELPERS
+    //----------------------------------------------------------------------------------------------
+
+    private static AsyncEventBus createInstance(Executor executor, AsyncEventBus.ORDERING ordering) {
+        final AsyncEventBus instance = new AsyncEventBus(TestableEventBus.MODE.METHOD_NAME, executor, ordering);
+        instance.addMethodName(DEFAULT_METHOD_NAME);
+
+        return instance;
+    }
+
+    /**
+     * Bounds the queues, registers a listener and posts numbered events, without running them.
+     */
+    private OrderListener postNumberedEvents(AsyncEventBus.OVERFLOW overflow, int capacity, int numEvents) {
+        final OrderListener listener = new OrderListener(numEvents);
+
+        eventBus.setQueueCapacity(capacity, overflow);
+        eventBus.register(listener);
+
+        for (int i = 0; i < numEvents; i++) {
+            eventBus.post(new NumberedEvent(i));
+        }
+
+        return listener;
+    }
+
+    private static List<Integer> createRange(int size) {
+        final List<Integer> range = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            range.add(i);
+        }
+
+        return range;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // FIXTURES
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Runs the submitted tasks when the test tells it to.
+     */
+    static class ManualExecutor implements Executor {
+        final LinkedList<Runnable> tasks = new LinkedList<>();
+
+        @Override
+        public synchronized void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (hasTasks()) {
+                runNext();
+            }
+        }
+
+        void runNext() {
+            final Runnable task;
+
+            synchronized (this) {
+                task = tasks.removeFirst();
+            }
+
+            task.run();
+        }
+
+        synchronized boolean hasTasks() {
+            return !tasks.isEmpty();
+        }
+    }
+
+    static class MyEvent {
+
+    }
+
+    static class NumberedEvent {
+        final int number;
+
+        NumberedEvent(int number) {
+            this.number = number;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class CountingListener {
+        final AtomicInteger counter = new AtomicInteger(0);
+
+        public void onEvent(MyEvent event) {
+            counter.incrementAndGet();
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class OrderListener {
+        final AtomicInteger active = new AtomicInteger(0);
+        volatile boolean concurrent = false;
+        final CountDownLatch done;
+        final List<Integer> received = new ArrayList<>();
+
+        OrderListener(int numEvents) {
+            done = new CountDownLatch(numEvents);
+        }
+
+        public void onEvent(NumberedEvent event) {
+            if (active.incrementAndGet() > 1) {
+                concurrent = true;
+            }
+
+            received.add(event.number);
+            active.decrementAndGet();
+            done.countDown();
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class StickyListener {
+        final AtomicInteger counter = new AtomicInteger(0);
+
+        public void onEvent(MyEvent event) {
+            counter.incrementAndGet();
+        }
+
+        public void onEvent(NumberedEvent event) {
+            counter.incrementAndGet();
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class ThrowingListener {
+        final AtomicInteger counter = new AtomicInteger(0);
+
+        public void onEvent(MyEvent event) throws Exception {
+            counter.incrementAndGet();
+            throw new Exception(DEFAULT_EXCEPTION_MESSAGE);
+        }
+    }
+
+}
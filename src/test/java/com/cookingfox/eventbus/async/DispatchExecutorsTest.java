@@ -0,0 +1,202 @@
+package com.cookingfox.eventbus.async;
+
+import com.cookingfox.eventbus.testable.TestableEventBusException;
+
+import org.junit.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link DispatchExecutors}.
+ */
+public class DispatchExecutorsTest {
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: newVirtualThreadExecutor
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = TestableEventBusException.class)
+    public void newVirtualThreadExecutor_should_throw_if_max_concurrency_invalid() throws Exception {
+        DispatchExecutors.newVirtualThreadExecutor(0);
+    }
+
+    @Test
+    public void newVirtualThreadExecutor_should_use_virtual_threads_if_supported() throws Exception {
+        final ExecutorService executor = DispatchExecutors.newVirtualThreadExecutor(1);
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+
+        try {
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    thread.set(Thread.currentThread());
+                }
+            }).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(DispatchExecutors.isVirtualThreadsSupported(), isVirtual(thread.get()));
+    }
+
+    @Test
+    public void newVirtualThreadExecutor_should_limit_concurrency() throws Exception {
+        assertConcurrencyLimited(DispatchExecutors.newVirtualThreadExecutor(2), 2);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: ConcurrencyLimitedExecutorService
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void concurrencyLimited_should_limit_concurrency_of_unbounded_delegate() throws Exception {
+        assertConcurrencyLimited(new DispatchExecutors.ConcurrencyLimitedExecutorService(
+                Executors.newCachedThreadPool(), 2), 2);
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void concurrencyLimited_should_reject_if_shut_down() throws Exception {
+        final ExecutorService executor = new DispatchExecutors.ConcurrencyLimitedExecutorService(
+                Executors.newCachedThreadPool(), 1);
+
+        executor.shutdown();
+        executor.execute(new CountDownTask(new CountDownLatch(1)));
+    }
+
+    @Test
+    public void concurrencyLimited_should_return_waiting_tasks_on_shutdownNow() throws Exception {
+        final ExecutorService executor = new DispatchExecutors.ConcurrencyLimitedExecutorService(
+                Executors.newCachedThreadPool(), 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch waitingRun = new CountDownLatch(1);
+        final Runnable waitingTask = new CountDownTask(waitingRun);
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        executor.execute(waitingTask);
+
+        assertTrue(executor.shutdownNow().contains(waitingTask));
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1, waitingRun.getCount());
+    }
+
+    @Test
+    public void concurrencyLimited_should_run_waiting_tasks_after_task_throws() throws Exception {
+        final ExecutorService executor = new DispatchExecutors.ConcurrencyLimitedExecutorService(
+                Executors.newCachedThreadPool(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        final Thread thread = new Thread(runnable);
+                        thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+                            @Override
+                            public void uncaughtException(Thread t, Throwable e) {
+                                // expected
+                            }
+                        });
+
+                        return thread;
+                    }
+                }), 1);
+        final CountDownLatch done = new CountDownLatch(2);
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    throw new RuntimeException("Expected");
+                }
+            });
+            executor.execute(new CountDownTask(done));
+            executor.execute(new CountDownTask(done));
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // HELPERS
+    //----------------------------------------------------------------------------------------------
+
+    private static void assertConcurrencyLimited(ExecutorService executor, int maxConcurrency) throws Exception {
+        final int numTasks = 20;
+        final AtomicInteger active = new AtomicInteger(0);
+        final AtomicInteger maxActive = new AtomicInteger(0);
+        final CountDownLatch done = new CountDownLatch(numTasks);
+
+        try {
+            for (int i = 0; i < numTasks; i++) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final int current = active.incrementAndGet();
+
+                        if (current > maxActive.get()) {
+                            maxActive.set(current);
+                        }
+
+                        try {
+                            Thread.sleep(5);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+
+                        active.decrementAndGet();
+                        done.countDown();
+                    }
+                });
+            }
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(maxActive.get() <= maxConcurrency);
+    }
+
+    private static boolean isVirtual(Thread thread) throws Exception {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // FIXTURES
+    //----------------------------------------------------------------------------------------------
+
+    static class CountDownTask implements Runnable {
+        final CountDownLatch latch;
+
+        CountDownTask(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public void run() {
+            latch.countDown();
+        }
+    }
+
+}
@@ -0,0 +1,315 @@
+package com.cookingfox.eventbus.async;
+
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import com.cookingfox.eventbus.testable.TestableEventBusException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link PartitionedEventBus}.
+ */
+public class PartitionedEventBusTest {
+
+    private static final String DEFAULT_METHOD_NAME = "onEvent";
+    private static final int LANE_COUNT = 4;
+
+    private PartitionedEventBus eventBus;
+
+    //----------------------------------------------------------------------------------------------
+    // SETUP & TEARDOWN
+    //----------------------------------------------------------------------------------------------
+
+    @Before
+    public void setUp() throws Exception {
+        eventBus = new PartitionedEventBus(TestableEventBus.MODE.METHOD_NAME, LANE_COUNT);
+        eventBus.addMethodName(DEFAULT_METHOD_NAME);
+        eventBus.addKeyExtractor(KeyedEvent.class, new EventKeyExtractor<KeyedEvent>() {
+            @Override
+            public Object getKey(KeyedEvent event) {
+                return event.key;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        eventBus.shutdown();
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: constructor
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = TestableEventBusException.class)
+    public void constructor_should_throw_if_lane_count_zero() throws Exception {
+        new PartitionedEventBus(TestableEventBus.MODE.METHOD_NAME, 0);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: addKeyExtractor
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = TestableEventBusException.class)
+    public void addKeyExtractor_should_throw_if_event_type_null() throws Exception {
+        eventBus.addKeyExtractor(null, new EventKeyExtractor<Object>() {
+            @Override
+            public Object getKey(Object event) {
+                return null;
+            }
+        });
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void addKeyExtractor_should_throw_if_key_extractor_null() throws Exception {
+        eventBus.addKeyExtractor(KeyedEvent.class, null);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: getLane
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void getLane_should_return_same_lane_for_same_key() throws Exception {
+        for (int key = 0; key < 100; key++) {
+            final int lane = eventBus.getLane(new KeyedEvent(key, 0));
+
+            assertTrue(lane >= 0 && lane < LANE_COUNT);
+            assertEquals(lane, eventBus.getLane(new KeyedEvent(key, 1)));
+        }
+    }
+
+    @Test
+    public void getLane_should_use_key_extractor_of_supertype() throws Exception {
+        for (int key = 0; key < 100; key++) {
+            assertEquals(eventBus.getLane(new KeyedEvent(key, 0)), eventBus.getLane(new KeyedSubEvent(key, 0)));
+        }
+    }
+
+    @Test
+    public void getLane_should_prefer_key_extractor_of_subtype() throws Exception {
+        eventBus.getLane(new KeyedSubEvent(0, 0));
+        eventBus.addKeyExtractor(KeyedSubEvent.class, new EventKeyExtractor<KeyedSubEvent>() {
+            @Override
+            public Object getKey(KeyedSubEvent event) {
+                return event.sequence;
+            }
+        });
+
+        for (int sequence = 0; sequence < 100; sequence++) {
+            assertEquals(eventBus.getLane(new KeyedEvent(sequence, 0)),
+                    eventBus.getLane(new KeyedSubEvent(0, sequence)));
+        }
+    }
+
+    @Test
+    public void getLane_should_use_event_class_without_key_extractor() throws Exception {
+        assertEquals(eventBus.getLane(new UnkeyedEvent()), eventBus.getLane(new UnkeyedEvent()));
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: post
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void post_should_deliver_events_with_same_key_in_posting_order() throws Exception {
+        final int numKeys = 10;
+        final int eventsPerKey = 200;
+        final OrderListener listener = new OrderListener(numKeys * eventsPerKey);
+
+        eventBus.register(listener);
+
+        for (int sequence = 0; sequence < eventsPerKey; sequence++) {
+            for (int key = 0; key < numKeys; key++) {
+                eventBus.post(new KeyedEvent(key, sequence));
+            }
+        }
+
+        assertTrue(listener.done.await(10, TimeUnit.SECONDS));
+
+        for (int key = 0; key < numKeys; key++) {
+            assertEquals(createRange(eventsPerKey), listener.getSequences(key));
+        }
+    }
+
+    @Test
+    public void post_should_deliver_events_of_different_lanes_in_parallel() throws Exception {
+        final KeyedEvent blocking = new KeyedEvent(0, 0);
+        final KeyedEvent other = new KeyedEvent(findKeyOnOtherLane(blocking), 0);
+        final BlockingListener listener = new BlockingListener(blocking);
+
+        eventBus.register(listener);
+        eventBus.post(blocking);
+        eventBus.post(other);
+
+        // the blocked lane does not delay the other one
+        assertTrue(listener.otherDelivered.await(10, TimeUnit.SECONDS));
+
+        listener.release.countDown();
+    }
+
+    @Test
+    public void post_should_not_log_posted_events_by_default() throws Exception {
+        final OrderListener listener = new OrderListener(1);
+
+        eventBus.register(listener);
+        eventBus.post(new KeyedEvent(0, 0));
+
+        assertTrue(listener.done.await(10, TimeUnit.SECONDS));
+        assertEquals(0, eventBus.countPostedEvents());
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void post_should_throw_after_shutdown() throws Exception {
+        eventBus.register(new OrderListener(1));
+        eventBus.shutdown();
+
+        assertTrue(eventBus.awaitTermination(10, TimeUnit.SECONDS));
+
+        eventBus.post(new KeyedEvent(0, 0));
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: getLaneStatistics
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void getLaneStatistics_should_report_queue_depth_per_lane() throws Exception {
+        final KeyedEvent blocking = new KeyedEvent(0, 0);
+        final int blockedLane = eventBus.getLane(blocking);
+        final BlockingListener listener = new BlockingListener(blocking);
+
+        eventBus.register(listener);
+        eventBus.post(blocking);
+
+        assertTrue(listener.blockedDelivering.await(10, TimeUnit.SECONDS));
+
+        eventBus.post(new KeyedEvent(0, 1));
+        eventBus.post(new KeyedEvent(0, 2));
+
+        final List<LaneStatistics> waiting = eventBus.getLaneStatistics();
+
+        listener.release.countDown();
+        eventBus.shutdown();
+        assertTrue(eventBus.awaitTermination(10, TimeUnit.SECONDS));
+
+        final LaneStatistics delivered = eventBus.getLaneStatistics().get(blockedLane);
+
+        assertEquals(LANE_COUNT, waiting.size());
+        assertEquals(2, waiting.get(blockedLane).queueDepth);
+        assertEquals(0, delivered.queueDepth);
+        assertEquals(3, delivered.delivered);
+        assertTrue(delivered.maxQueueDepth >= 2);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // HELPERS
+    //----------------------------------------------------------------------------------------------
+
+    private static List<Integer> createRange(int size) {
+        final List<Integer> range = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            range.add(i);
+        }
+
+        return range;
+    }
+
+    private int findKeyOnOtherLane(KeyedEvent event) {
+        final int lane = eventBus.getLane(event);
+
+        for (int key = 1; ; key++) {
+            if (eventBus.getLane(new KeyedEvent(key, 0)) != lane) {
+                return key;
+            }
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // FIXTURES
+    //----------------------------------------------------------------------------------------------
+
+    static class KeyedEvent {
+        final int key;
+        final int sequence;
+
+        KeyedEvent(int key, int sequence) {
+            this.key = key;
+            this.sequence = sequence;
+        }
+    }
+
+    static class KeyedSubEvent extends KeyedEvent {
+        KeyedSubEvent(int key, int sequence) {
+            super(key, sequence);
+        }
+    }
+
+    static class UnkeyedEvent {
+
+    }
+
+    @SuppressWarnings("unused")
+    static class BlockingListener {
+        final KeyedEvent blocking;
+        final CountDownLatch blockedDelivering = new CountDownLatch(1);
+        final CountDownLatch otherDelivered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        BlockingListener(KeyedEvent blocking) {
+            this.blocking = blocking;
+        }
+
+        public void onEvent(KeyedEvent event) throws InterruptedException {
+            if (event == blocking) {
+                blockedDelivering.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            } else {
+                otherDelivered.countDown();
+            }
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class OrderListener {
+        final CountDownLatch done;
+        private final Map<Integer, List<Integer>> sequences = new HashMap<>();
+
+        OrderListener(int numEvents) {
+            done = new CountDownLatch(numEvents);
+        }
+
+        public void onEvent(KeyedEvent event) {
+            synchronized (sequences) {
+                List<Integer> received = sequences.get(event.key);
+
+                if (received == null) {
+                    received = new ArrayList<>();
+                    sequences.put(event.key, received);
+                }
+
+                received.add(event.sequence);
+            }
+
+            done.countDown();
+        }
+
+        List<Integer> getSequences(int key) {
+            synchronized (sequences) {
+                return new ArrayList<>(sequences.get(key));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,360 @@
+package com.cookingfox.eventbus.async;
+
+import com.cookingfox.eventbus.testable.SubscriberUncaughtExceptionHandler;
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import com.cookingfox.eventbus.testable.TestableEventBusException;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link RingBufferEventBus}.
+ */
+public class RingBufferEventBusTest {
+
+    private static final String DEFAULT_EXCEPTION_MESSAGE = "Example exception message";
+    private static final String DEFAULT_METHOD_NAME = "onEvent";
+
+    private RingBufferEventBus eventBus;
+
+    //----------------------------------------------------------------------------------------------
+    // SETUP & TEARDOWN
+    //----------------------------------------------------------------------------------------------
+
+    @After
+    public void tearDown() throws Exception {
+        if (eventBus != null) {
+            eventBus.shutdown();
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: constructor
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = TestableEventBusException.class)
+    public void constructor_should_throw_if_capacity_not_power_of_two() throws Exception {
+        new RingBufferEventBus(TestableEventBus.MODE.METHOD_NAME, 12);
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void constructor_should_throw_if_capacity_zero() throws Exception {
+        new RingBufferEventBus(TestableEventBus.MODE.METHOD_NAME, 0);
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void constructor_should_throw_if_wait_strategy_null() throws Exception {
+        new RingBufferEventBus(TestableEventBus.MODE.METHOD_NAME, 8, RingBufferEventBus.PRODUCER.MULTI, null);
+    }
+
+    @Test
+    public void constructor_should_disable_posted_events_log() throws Exception {
+        final CountingListener listener = new CountingListener(1);
+
+        eventBus = createInstance(8, RingBufferEventBus.PRODUCER.SINGLE, RingBufferEventBus.WAIT_STRATEGY.PARK);
+        eventBus.register(listener);
+        eventBus.post(new NumberedEvent(0));
+
+        assertTrue(listener.done.await(10, TimeUnit.SECONDS));
+        assertEquals(0, eventBus.countPostedEvents());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: post
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void post_should_deliver_in_posting_order_for_every_wait_strategy() throws Exception {
+        for (RingBufferEventBus.WAIT_STRATEGY waitStrategy : RingBufferEventBus.WAIT_STRATEGY.values()) {
+            final int numEvents = 1000;
+            final CountingListener listener = new CountingListener(numEvents);
+
+            // small capacity, so the producer laps the ring buffer many times
+            eventBus = createInstance(4, RingBufferEventBus.PRODUCER.SINGLE, waitStrategy);
+            eventBus.register(listener);
+
+            for (int i = 0; i < numEvents; i++) {
+                eventBus.post(new NumberedEvent(i));
+            }
+
+            assertTrue(waitStrategy.name(), listener.done.await(10, TimeUnit.SECONDS));
+            assertEquals(waitStrategy.name(), createRange(numEvents), listener.received);
+
+            eventBus.shutdown();
+        }
+    }
+
+    @Test
+    public void post_multiProducer_should_deliver_all_events() throws Exception {
+        final int numThreads = 4;
+        final int numEventsPerThread = 1000;
+        final CountingListener listener = new CountingListener(numThreads * numEventsPerThread);
+        final List<Thread> threads = new ArrayList<>();
+
+        eventBus = createInstance(16, RingBufferEventBus.PRODUCER.MULTI, RingBufferEventBus.WAIT_STRATEGY.YIELD);
+        eventBus.register(listener);
+
+        for (int t = 0; t < numThreads; t++) {
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < numEventsPerThread; i++) {
+                        eventBus.post(new NumberedEvent(i));
+                    }
+                }
+            });
+
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(listener.done.await(10, TimeUnit.SECONDS));
+        assertEquals(numThreads * numEventsPerThread, listener.received.size());
+    }
+
+    @Test
+    public void post_should_not_invoke_subscriber_on_posting_thread() throws Exception {
+        final CountingListener listener = new CountingListener(1);
+
+        eventBus = createInstance(8, RingBufferEventBus.PRODUCER.SINGLE, RingBufferEventBus.WAIT_STRATEGY.PARK);
+        eventBus.register(listener);
+        eventBus.post(new NumberedEvent(0));
+
+        assertTrue(listener.done.await(10, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), listener.thread.get());
+    }
+
+    @Test
+    public void post_should_pass_subscriber_exception_to_handler() throws Exception {
+        final AtomicReference<Exception> handled = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(2);
+
+        eventBus = createInstance(8, RingBufferEventBus.PRODUCER.SINGLE, RingBufferEventBus.WAIT_STRATEGY.PARK);
+        eventBus.setSubscriberUncaughtExceptionHandler(new SubscriberUncaughtExceptionHandler() {
+            @Override
+            public void handle(Exception e) {
+                handled.set(e);
+                done.countDown();
+            }
+        });
+
+        eventBus.register(new ThrowingListener());
+        eventBus.post(new NumberedEvent(0));
+        eventBus.post(new NumberedEvent(1));
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertSame(DEFAULT_EXCEPTION_MESSAGE, handled.get().getCause().getMessage());
+    }
+
+    @Test(timeout = 10000)
+    public void post_from_subscriber_should_deliver_on_consumer_thread_when_ring_is_full() throws Exception {
+        final int numEvents = 10;
+        final CountingListener listener = new CountingListener(numEvents);
+
+        eventBus = createInstance(2, RingBufferEventBus.PRODUCER.MULTI, RingBufferEventBus.WAIT_STRATEGY.PARK);
+        eventBus.register(listener);
+        eventBus.register(new RepostingListener(eventBus, numEvents));
+        eventBus.post(new TriggerEvent());
+
+        assertTrue(listener.done.await(10, TimeUnit.SECONDS));
+        assertEquals(createRange(numEvents), listener.received);
+    }
+
+    @Test(timeout = 10000)
+    public void post_should_throw_if_shut_down_while_waiting_for_slot() throws Exception {
+        final BlockingListener listener = new BlockingListener();
+        final AtomicReference<Exception> thrown = new AtomicReference<>();
+
+        eventBus = createInstance(2, RingBufferEventBus.PRODUCER.MULTI, RingBufferEventBus.WAIT_STRATEGY.PARK);
+        eventBus.register(listener);
+        eventBus.post(new NumberedEvent(0));
+
+        assertTrue(listener.blocked.await(10, TimeUnit.SECONDS));
+
+        // fills the ring buffer while the consumer is blocked
+        eventBus.post(new NumberedEvent(1));
+        eventBus.post(new NumberedEvent(2));
+
+        final Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    eventBus.post(new NumberedEvent(3));
+                } catch (Exception e) {
+                    thrown.set(e);
+                }
+            }
+        });
+
+        producer.start();
+        eventBus.shutdown();
+        producer.join();
+        listener.release.countDown();
+
+        assertTrue(thrown.get() instanceof TestableEventBusException);
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void post_should_throw_if_shut_down() throws Exception {
+        eventBus = createInstance(8, RingBufferEventBus.PRODUCER.SINGLE, RingBufferEventBus.WAIT_STRATEGY.PARK);
+        eventBus.register(new CountingListener(1));
+        eventBus.shutdown();
+        eventBus.post(new NumberedEvent(0));
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: postAll
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void postAll_should_deliver_batch_larger_than_capacity_in_order() throws Exception {
+        final int numEvents = 100;
+        final CountingListener listener = new CountingListener(numEvents);
+        final List<NumberedEvent> events = new ArrayList<>();
+
+        for (int i = 0; i < numEvents; i++) {
+            events.add(new NumberedEvent(i));
+        }
+
+        eventBus = createInstance(8, RingBufferEventBus.PRODUCER.MULTI, RingBufferEventBus.WAIT_STRATEGY.PARK);
+        eventBus.register(listener);
+        eventBus.postAll(events);
+
+        assertTrue(listener.done.await(10, TimeUnit.SECONDS));
+        assertEquals(createRange(numEvents), listener.received);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: shutdown
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void shutdown_should_deliver_published_events_and_stop_consumer() throws Exception {
+        final int numEvents = 100;
+        final CountingListener listener = new CountingListener(numEvents);
+
+        eventBus = createInstance(128, RingBufferEventBus.PRODUCER.SINGLE, RingBufferEventBus.WAIT_STRATEGY.PARK);
+        eventBus.register(listener);
+
+        for (int i = 0; i < numEvents; i++) {
+            eventBus.post(new NumberedEvent(i));
+        }
+
+        eventBus.shutdown();
+
+        assertTrue(eventBus.isShutdown());
+        assertTrue(eventBus.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(numEvents, listener.received.size());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // HELPERS
+    //----------------------------------------------------------------------------------------------
+
+    private static RingBufferEventBus createInstance(int capacity, RingBufferEventBus.PRODUCER producer,
+                                                     RingBufferEventBus.WAIT_STRATEGY waitStrategy) {
+        final RingBufferEventBus instance = new RingBufferEventBus(TestableEventBus.MODE.METHOD_NAME, capacity,
+                producer, waitStrategy);
+        instance.addMethodName(DEFAULT_METHOD_NAME);
+
+        return instance;
+    }
+
+    private static List<Integer> createRange(int size) {
+        final List<Integer> range = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            range.add(i);
+        }
+
+        return range;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // FIXTURES
+    //----------------------------------------------------------------------------------------------
+
+    static class NumberedEvent {
+        final int number;
+
+        NumberedEvent(int number) {
+            this.number = number;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class CountingListener {
+        final CountDownLatch done;
+        final List<Integer> received = new ArrayList<>();
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+
+        CountingListener(int numEvents) {
+            done = new CountDownLatch(numEvents);
+        }
+
+        public void onEvent(NumberedEvent event) {
+            thread.set(Thread.currentThread());
+            received.add(event.number);
+            done.countDown();
+        }
+    }
+
+    static class TriggerEvent {
+
+    }
+
+    @SuppressWarnings("unused")
+    static class BlockingListener {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        public void onEvent(NumberedEvent event) throws InterruptedException {
+            blocked.countDown();
+            release.await(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Posts `numEvents` numbered events from the consumer thread for every trigger event.
+     */
+    @SuppressWarnings("unused")
+    static class RepostingListener {
+        final RingBufferEventBus eventBus;
+        final int numEvents;
+
+        RepostingListener(RingBufferEventBus eventBus, int numEvents) {
+            this.eventBus = eventBus;
+            this.numEvents = numEvents;
+        }
+
+        public void onEvent(TriggerEvent event) {
+            for (int i = 0; i < numEvents; i++) {
+                eventBus.post(new NumberedEvent(i));
+            }
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class ThrowingListener {
+        final AtomicInteger counter = new AtomicInteger(0);
+
+        public void onEvent(NumberedEvent event) throws Exception {
+            counter.incrementAndGet();
+            throw new Exception(DEFAULT_EXCEPTION_MESSAGE);
+        }
+    }
+
+}
@@ -0,0 +1,358 @@
+package com.cookingfox.eventbus.bridge;
+
+import com.cookingfox.eventbus.journal.EventSerializer;
+import com.cookingfox.eventbus.journal.SerializableEventSerializer;
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link BridgeEventBus}, connecting two bridges over a localhost socket.
+ */
+public class BridgeEventBusTest {
+
+    private static final String DEFAULT_METHOD_NAME = "onEvent";
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private SocketChannel localChannel;
+    private TestableEventBus localEventBus;
+    private SocketChannel remoteChannel;
+    private TestableEventBus remoteEventBus;
+    private MyListener remoteListener;
+
+    //----------------------------------------------------------------------------------------------
+    // SETUP & TEARDOWN
+    //----------------------------------------------------------------------------------------------
+
+    @Before
+    public void setUp() throws Exception {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            localChannel = SocketChannel.open(server.getLocalAddress());
+            remoteChannel = server.accept();
+        }
+
+        localEventBus = createEventBus();
+        localEventBus.register(new MyListener());
+
+        remoteEventBus = createEventBus();
+        remoteListener = new MyListener();
+        remoteEventBus.register(remoteListener);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        localChannel.close();
+        remoteChannel.close();
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: constructor
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_should_throw_if_channel_null() throws Exception {
+        new BridgeEventBus(localEventBus, null, new SerializableEventSerializer());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_should_throw_if_buffer_size_too_small() throws Exception {
+        new BridgeEventBus(localEventBus, localChannel, new SerializableEventSerializer(),
+                BridgeEventBus.MIN_BUFFER_SIZE - 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_should_throw_if_channel_non_blocking() throws Exception {
+        localChannel.configureBlocking(false);
+
+        new BridgeEventBus(localEventBus, localChannel, new SerializableEventSerializer());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: post
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void post_should_forward_event_to_remote_subscribers() throws Exception {
+        final BridgeEventBus local = createBridge(localEventBus, localChannel).addForwardedType(MyEvent.class);
+        final BridgeEventBus remote = createBridge(remoteEventBus, remoteChannel);
+
+        local.post(new MyEvent(1));
+
+        awaitReceived(remote, 1);
+        assertEquals(Collections.singletonList(1), remoteListener.getValues());
+        assertEquals(1, localEventBus.countPostedEvents());
+        assertEquals(1, local.getSentCount());
+
+        local.close();
+        remote.close();
+    }
+
+    @Test
+    public void post_should_forward_events_in_order() throws Exception {
+        final BridgeEventBus local = createBridge(localEventBus, localChannel).addForwardedType(MyEvent.class);
+        final BridgeEventBus remote = createBridge(remoteEventBus, remoteChannel);
+        final List<Integer> expected = new ArrayList<>();
+
+        // more events than fit in one buffer, so posting waits for the writer
+        for (int i = 0; i < 10000; i++) {
+            local.post(new MyEvent(i));
+            expected.add(i);
+        }
+
+        awaitReceived(remote, expected.size());
+        assertEquals(expected, remoteListener.getValues());
+
+        local.close();
+        remote.close();
+    }
+
+    @Test
+    public void post_should_not_forward_unselected_types() throws Exception {
+        final BridgeEventBus local = createBridge(localEventBus, localChannel).addForwardedType(String.class);
+        final BridgeEventBus remote = createBridge(remoteEventBus, remoteChannel);
+
+        local.post(new MyEvent(1));
+        local.close();
+
+        awaitClosed(remote);
+        assertEquals(0, remote.getReceivedCount());
+        assertEquals(1, localEventBus.countPostedEvents());
+    }
+
+    @Test
+    public void post_should_forward_subtypes_of_selected_types() throws Exception {
+        final BridgeEventBus local = createBridge(localEventBus, localChannel).addForwardedType(Serializable.class);
+        final BridgeEventBus remote = createBridge(remoteEventBus, remoteChannel);
+
+        local.post(new MyEvent(1));
+
+        awaitReceived(remote, 1);
+
+        local.close();
+        remote.close();
+    }
+
+    @Test
+    public void post_should_forward_in_both_directions() throws Exception {
+        final BridgeEventBus local = createBridge(localEventBus, localChannel).addForwardedType(MyEvent.class);
+        final BridgeEventBus remote = createBridge(remoteEventBus, remoteChannel).addForwardedType(MyEvent.class);
+
+        local.post(new MyEvent(1));
+        remote.post(new MyEvent(2));
+
+        awaitReceived(local, 1);
+        awaitReceived(remote, 1);
+
+        // received events are not forwarded back
+        assertEquals(1, local.getSentCount());
+        assertEquals(1, remote.getSentCount());
+
+        local.close();
+        remote.close();
+    }
+
+    @Test
+    public void post_should_count_failed_remote_posts() throws Exception {
+        final BridgeEventBus local = createBridge(localEventBus, localChannel).addForwardedType(Object.class);
+        final BridgeEventBus remote = createBridge(remoteEventBus, remoteChannel);
+
+        localEventBus.register(new MyOtherListener());
+
+        // the remote event bus has no listeners for this type
+        local.post(new MyOtherEvent());
+        local.post(new MyEvent(1));
+
+        awaitReceived(remote, 2);
+        assertEquals(1, remote.getFailedCount());
+        assertEquals(Collections.singletonList(1), remoteListener.getValues());
+        assertFalse(remote.isClosed());
+
+        local.close();
+        remote.close();
+    }
+
+    @Test(expected = EventBridgeException.class)
+    public void post_should_throw_if_frame_does_not_fit_in_buffer() throws Exception {
+        final BridgeEventBus local = createBridge(localEventBus, localChannel).addForwardedType(MyEvent.class);
+
+        try {
+            local.post(new MyEvent(1, new byte[BridgeEventBus.DEFAULT_BUFFER_SIZE]));
+        } finally {
+            local.close();
+        }
+    }
+
+    @Test(expected = EventBridgeException.class)
+    public void post_should_throw_if_closed() throws Exception {
+        final BridgeEventBus local = createBridge(localEventBus, localChannel).addForwardedType(MyEvent.class);
+
+        local.close();
+        local.post(new MyEvent(1));
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: postAll
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void postAll_should_forward_batch() throws Exception {
+        final BridgeEventBus local = createBridge(localEventBus, localChannel).addForwardedType(MyEvent.class);
+        final BridgeEventBus remote = createBridge(remoteEventBus, remoteChannel);
+
+        local.postAll(Arrays.asList(new MyEvent(1), new MyEvent(2), new MyEvent(3)));
+
+        awaitReceived(remote, 3);
+        assertEquals(Arrays.asList(1, 2, 3), remoteListener.getValues());
+
+        local.close();
+        remote.close();
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: postSticky
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void postSticky_should_post_sticky_event_remotely() throws Exception {
+        final BridgeEventBus local = createBridge(localEventBus, localChannel).addForwardedType(MyEvent.class);
+        final BridgeEventBus remote = createBridge(remoteEventBus, remoteChannel);
+
+        local.postSticky(new MyEvent(1));
+
+        awaitReceived(remote, 1);
+        assertEquals(1, remoteEventBus.getStickyEvent(MyEvent.class).value);
+
+        local.close();
+        remote.close();
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: close
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void close_should_write_pending_events_and_close_remote_bridge() throws Exception {
+        final BridgeEventBus local = createBridge(localEventBus, localChannel).addForwardedType(MyEvent.class);
+        final BridgeEventBus remote = createBridge(remoteEventBus, remoteChannel);
+
+        for (int i = 0; i < 100; i++) {
+            local.post(new MyEvent(i));
+        }
+
+        local.close();
+
+        awaitClosed(remote);
+        assertEquals(100, remote.getReceivedCount());
+        assertNull(remote.getFailure());
+        assertFalse(localChannel.isOpen());
+
+        remote.close();
+
+        assertFalse(remoteChannel.isOpen());
+    }
+
+    @Test
+    public void close_should_record_failure_of_invalid_frame() throws Exception {
+        final BridgeEventBus remote = createBridge(remoteEventBus, remoteChannel);
+        final ByteBuffer frame = ByteBuffer.allocate(8);
+        frame.putInt(-1).putInt(0).flip();
+
+        localChannel.write(frame);
+
+        awaitClosed(remote);
+        assertNotNull(remote.getFailure());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // HELPERS
+    //----------------------------------------------------------------------------------------------
+
+    private void awaitClosed(final BridgeEventBus bridge) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+
+        while (!bridge.isClosed()) {
+            assertTrue("Bridge did not close", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private void awaitReceived(final BridgeEventBus bridge, final long count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+
+        while (bridge.getReceivedCount() < count) {
+            assertTrue("Received " + bridge.getReceivedCount() + " of " + count + " events",
+                    System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private BridgeEventBus createBridge(final TestableEventBus eventBus, final SocketChannel channel) {
+        final EventSerializer serializer = new SerializableEventSerializer();
+
+        return new BridgeEventBus(eventBus, channel, serializer);
+    }
+
+    private TestableEventBus createEventBus() {
+        final TestableEventBus eventBus = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME);
+        eventBus.addMethodName(DEFAULT_METHOD_NAME);
+
+        return eventBus;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // FIXTURES
+    //----------------------------------------------------------------------------------------------
+
+    static class MyEvent implements Serializable {
+        final byte[] padding;
+        final int value;
+
+        MyEvent(int value) {
+            this(value, new byte[0]);
+        }
+
+        MyEvent(int value, byte[] padding) {
+            this.padding = padding;
+            this.value = value;
+        }
+    }
+
+    static class MyOtherEvent implements Serializable {
+    }
+
+    @SuppressWarnings("unused")
+    static class MyListener {
+        private final List<Integer> values = new ArrayList<>();
+
+        public synchronized void onEvent(MyEvent event) {
+            values.add(event.value);
+        }
+
+        synchronized List<Integer> getValues() {
+            return new ArrayList<>(values);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class MyOtherListener {
+        public void onEvent(MyOtherEvent event) {
+            // no-op
+        }
+    }
+
+}
@@ -0,0 +1,234 @@
+package com.cookingfox.eventbus.instrumented;
+
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import com.cookingfox.eventbus.testable.TestableEventBusException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link InstrumentedEventBus}.
+ */
+public class InstrumentedEventBusTest {
+
+    private static final String DEFAULT_METHOD_NAME = "onEvent";
+
+    private TestableEventBus testableEventBus;
+
+    //----------------------------------------------------------------------------------------------
+    // SETUP & TEARDOWN
+    //----------------------------------------------------------------------------------------------
+
+    @Before
+    public void setUp() throws Exception {
+        testableEventBus = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME);
+        testableEventBus.addMethodName(DEFAULT_METHOD_NAME);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: constructor
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_should_throw_if_event_bus_null() throws Exception {
+        new InstrumentedEventBus(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_should_throw_if_threshold_negative() throws Exception {
+        new InstrumentedEventBus(testableEventBus, -1, TimeUnit.MILLISECONDS);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: post
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void post_should_record_latency_per_event_type() throws Exception {
+        final InstrumentedEventBus eventBus = new InstrumentedEventBus(testableEventBus);
+
+        eventBus.register(new MyListener());
+        eventBus.post(new MyEvent());
+        eventBus.post(new MyEvent());
+        eventBus.post(new MyOtherEvent());
+
+        final EventBusStatistics statistics = eventBus.getStatistics();
+
+        assertEquals(3, statistics.getPosted());
+        assertEquals(2, statistics.getEventType(MyEvent.class).getPosted());
+        assertEquals(1, statistics.getEventType(MyOtherEvent.class).getPosted());
+        assertEquals(3, testableEventBus.countPostedEvents());
+    }
+
+    @Test
+    public void post_should_record_failure_and_rethrow() throws Exception {
+        final InstrumentedEventBus eventBus = new InstrumentedEventBus(testableEventBus);
+
+        try {
+            // no listeners
+            eventBus.post(new MyEvent());
+            fail("Expected exception");
+        } catch (TestableEventBusException e) {
+            // expected
+        }
+
+        final EventTypeStatistics statistics = eventBus.getStatistics().getEventType(MyEvent.class);
+
+        assertEquals(1, statistics.getPosted());
+        assertEquals(1, statistics.getFailed());
+    }
+
+    @Test
+    public void post_should_keep_slow_posts() throws Exception {
+        final InstrumentedEventBus eventBus = new InstrumentedEventBus(testableEventBus, 10, TimeUnit.MILLISECONDS);
+
+        eventBus.register(new SleepingListener());
+        eventBus.post(new MyEvent());
+        eventBus.post(new MyOtherEvent());
+
+        final EventBusStatistics statistics = eventBus.getStatistics();
+
+        assertEquals(1, statistics.getSlowPosts().size());
+        assertEquals(MyEvent.class, statistics.getSlowPosts().get(0).getEventType());
+        assertTrue(statistics.getSlowPosts().get(0).getLatencyNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(statistics.getEventType(MyEvent.class).getLatency().getMaxNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void post_should_keep_most_recent_slow_posts() throws Exception {
+        final InstrumentedEventBus eventBus = new InstrumentedEventBus(testableEventBus, 0, TimeUnit.NANOSECONDS);
+
+        eventBus.register(new MyListener());
+
+        for (int i = 0; i < InstrumentedEventBus.SLOW_POST_CAPACITY; i++) {
+            eventBus.post(new MyEvent());
+        }
+
+        eventBus.post(new MyOtherEvent());
+
+        final EventBusStatistics statistics = eventBus.getStatistics();
+
+        assertEquals(InstrumentedEventBus.SLOW_POST_CAPACITY, statistics.getSlowPosts().size());
+        assertEquals(MyOtherEvent.class, statistics.getSlowPosts().get(InstrumentedEventBus.SLOW_POST_CAPACITY - 1).getEventType());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: postAll
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void postAll_should_record_batch_latency() throws Exception {
+        final InstrumentedEventBus eventBus = new InstrumentedEventBus(testableEventBus);
+
+        eventBus.register(new MyListener());
+        eventBus.postAll(Arrays.asList(new MyEvent(), new MyOtherEvent()));
+
+        final EventBusStatistics statistics = eventBus.getStatistics();
+
+        assertEquals(1, statistics.getBatchLatency().getCount());
+        assertEquals(2, testableEventBus.countPostedEvents());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: postSticky
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void postSticky_should_record_latency_and_keep_sticky_event() throws Exception {
+        final InstrumentedEventBus eventBus = new InstrumentedEventBus(testableEventBus);
+        final MyEvent event = new MyEvent();
+
+        eventBus.postSticky(event);
+
+        assertEquals(1, eventBus.getStatistics().getEventType(MyEvent.class).getPosted());
+        assertSame(event, eventBus.getStickyEvent(MyEvent.class));
+        assertSame(event, eventBus.removeStickyEvent(MyEvent.class));
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: register & unregister
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void register_and_unregister_should_count_subscribers() throws Exception {
+        final InstrumentedEventBus eventBus = new InstrumentedEventBus(testableEventBus);
+        final MyListener first = new MyListener();
+
+        eventBus.register(first);
+        eventBus.register(new MyListener());
+        eventBus.unregister(first);
+
+        assertEquals(1, eventBus.getStatistics().getSubscriberCount());
+    }
+
+    @Test
+    public void unregister_should_not_count_if_event_bus_throws() throws Exception {
+        final InstrumentedEventBus eventBus = new InstrumentedEventBus(testableEventBus);
+
+        try {
+            eventBus.unregister(new MyListener());
+            fail("Expected exception");
+        } catch (TestableEventBusException e) {
+            // expected
+        }
+
+        assertEquals(0, eventBus.getStatistics().getSubscriberCount());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: resetStatistics
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void resetStatistics_should_clear_recorded_statistics() throws Exception {
+        final InstrumentedEventBus eventBus = new InstrumentedEventBus(testableEventBus, 0, TimeUnit.NANOSECONDS);
+
+        eventBus.register(new MyListener());
+        eventBus.post(new MyEvent());
+        eventBus.postAll(Arrays.asList(new MyEvent()));
+        eventBus.resetStatistics();
+
+        final EventBusStatistics statistics = eventBus.getStatistics();
+
+        assertEquals(0, statistics.getPosted());
+        assertEquals(0, statistics.getBatchLatency().getCount());
+        assertTrue(statistics.getSlowPosts().isEmpty());
+        assertEquals(1, statistics.getSubscriberCount());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // FIXTURES
+    //----------------------------------------------------------------------------------------------
+
+    static class MyEvent {
+
+    }
+
+    static class MyOtherEvent {
+
+    }
+
+    @SuppressWarnings("unused")
+    static class MyListener {
+        public void onEvent(MyEvent event) {
+        }
+
+        public void onEvent(MyOtherEvent event) {
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class SleepingListener {
+        public void onEvent(MyEvent event) throws InterruptedException {
+            Thread.sleep(20);
+        }
+
+        public void onEvent(MyOtherEvent event) {
+        }
+    }
+
+}
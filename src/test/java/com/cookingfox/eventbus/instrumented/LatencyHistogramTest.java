@@ -0,0 +1,71 @@
+package com.cookingfox.eventbus.instrumented;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest {
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: indexOf
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void indexOf_should_be_exact_for_small_values() throws Exception {
+        for (int value = 0; value < 2 * LatencyHistogram.SUB_BUCKET_COUNT; value++) {
+            assertEquals(value, LatencyHistogram.indexOf(value));
+            assertEquals(value, LatencyHistogram.highestValueOf(value));
+        }
+    }
+
+    @Test
+    public void indexOf_should_stay_within_relative_error() throws Exception {
+        for (long value = 1; value < (1L << 36); value = value * 3 / 2 + 1) {
+            final long highest = LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value));
+
+            assertTrue(highest >= value);
+            assertTrue(highest - value <= value / LatencyHistogram.SUB_BUCKET_COUNT);
+        }
+    }
+
+    @Test
+    public void indexOf_should_clamp_large_and_negative_values() throws Exception {
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+        assertEquals(0, LatencyHistogram.indexOf(-1));
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: snapshot
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void snapshot_should_return_percentiles() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        final LatencyStatistics statistics = histogram.snapshot();
+
+        assertEquals(1000, statistics.getCount());
+        assertEquals(1000000, statistics.getMaxNanos());
+        assertEquals(500500, statistics.getMeanNanos());
+        assertEquals(500000, statistics.getValueAtPercentile(50), 500000 / LatencyHistogram.SUB_BUCKET_COUNT);
+        assertEquals(990000, statistics.getValueAtPercentile(99), 990000 / LatencyHistogram.SUB_BUCKET_COUNT);
+        assertEquals(1000000, statistics.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void snapshot_should_return_zero_if_empty() throws Exception {
+        final LatencyStatistics statistics = new LatencyHistogram().snapshot();
+
+        assertEquals(0, statistics.getCount());
+        assertEquals(0, statistics.getMeanNanos());
+        assertEquals(0, statistics.getValueAtPercentile(99));
+    }
+
+}
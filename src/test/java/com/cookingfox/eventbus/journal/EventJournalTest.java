@@ -0,0 +1,254 @@
+package com.cookingfox.eventbus.journal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link EventJournal} and {@link JournalReader}.
+ */
+public class EventJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: constructor
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_should_throw_if_directory_null() throws Exception {
+        new EventJournal(null, new SerializableEventSerializer());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_should_throw_if_serializer_null() throws Exception {
+        new EventJournal(folder.getRoot(), null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_should_throw_if_segment_size_too_small() throws Exception {
+        new EventJournal(folder.getRoot(), new SerializableEventSerializer(), EventJournal.MIN_SEGMENT_SIZE - 1);
+    }
+
+    @Test
+    public void constructor_should_append_after_existing_segments() throws Exception {
+        final EventJournal first = new EventJournal(folder.getRoot(), new PaddedEventSerializer(0),
+                EventJournal.MIN_SEGMENT_SIZE);
+        first.append(new MyEvent(1), EventJournal.NO_SUBSCRIBER_TYPES);
+        first.close();
+
+        final EventJournal second = new EventJournal(folder.getRoot(), new PaddedEventSerializer(0),
+                EventJournal.MIN_SEGMENT_SIZE);
+        second.append(new MyEvent(2), EventJournal.NO_SUBSCRIBER_TYPES);
+        second.close();
+
+        assertEquals(2, EventJournal.listSegments(folder.getRoot()).length);
+        assertEquals(Arrays.asList(1, 2), readValues(new PaddedEventSerializer(0)));
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: append
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void append_should_write_records_that_reader_reads() throws Exception {
+        final EventJournal journal = new EventJournal(folder.getRoot(), new SerializableEventSerializer());
+        final long before = System.currentTimeMillis();
+
+        journal.append(new MyEvent(1), new Class<?>[]{String.class, Integer.class});
+        journal.append(new MyEvent(2), EventJournal.NO_SUBSCRIBER_TYPES);
+        journal.close();
+
+        final JournalReader reader = new JournalReader(folder.getRoot(), new SerializableEventSerializer());
+        final JournalRecord first = reader.next();
+        final JournalRecord second = reader.next();
+
+        assertEquals(1, ((MyEvent) first.event).value);
+        assertEquals(MyEvent.class.getName(), first.eventType);
+        assertEquals(Arrays.asList(String.class.getName(), Integer.class.getName()), first.subscriberTypes);
+        assertTrue(first.timestampMillis >= before);
+        assertEquals(2, ((MyEvent) second.event).value);
+        assertEquals(Collections.<String>emptyList(), second.subscriberTypes);
+        assertTrue(second.timestampNanos >= first.timestampNanos);
+        assertNull(reader.next());
+        assertEquals(2, journal.getRecordCount());
+    }
+
+    @Test
+    public void append_should_start_new_segment_when_full() throws Exception {
+        final EventJournal journal = new EventJournal(folder.getRoot(), new PaddedEventSerializer(1000),
+                EventJournal.MIN_SEGMENT_SIZE);
+        final List<Integer> expected = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            journal.append(new MyEvent(i), EventJournal.NO_SUBSCRIBER_TYPES);
+            expected.add(i);
+        }
+
+        journal.close();
+
+        assertTrue(EventJournal.listSegments(folder.getRoot()).length > 1);
+        assertEquals(expected, readValues(new PaddedEventSerializer(1000)));
+    }
+
+    @Test(expected = EventJournalException.class)
+    public void append_should_throw_if_record_does_not_fit_in_segment() throws Exception {
+        final EventJournal journal = new EventJournal(folder.getRoot(),
+                new PaddedEventSerializer(EventJournal.MIN_SEGMENT_SIZE), EventJournal.MIN_SEGMENT_SIZE);
+
+        journal.append(new MyEvent(1), EventJournal.NO_SUBSCRIBER_TYPES);
+    }
+
+    @Test(expected = EventJournalException.class)
+    public void append_should_throw_if_closed() throws Exception {
+        final EventJournal journal = new EventJournal(folder.getRoot(), new SerializableEventSerializer());
+
+        journal.close();
+        journal.append(new MyEvent(1), EventJournal.NO_SUBSCRIBER_TYPES);
+    }
+
+    @Test
+    public void append_should_skip_event_that_can_not_be_serialized() throws Exception {
+        final EventJournal journal = new EventJournal(folder.getRoot(), new SerializableEventSerializer());
+
+        journal.append(new MyEvent(1), EventJournal.NO_SUBSCRIBER_TYPES);
+
+        try {
+            journal.append(new Object(), EventJournal.NO_SUBSCRIBER_TYPES);
+            fail("Expected exception");
+        } catch (EventJournalException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+
+        journal.append(new MyEvent(2), EventJournal.NO_SUBSCRIBER_TYPES);
+        journal.close();
+
+        assertEquals(Arrays.asList(1, 2), readValues(new SerializableEventSerializer()));
+    }
+
+    @Test
+    public void append_should_clear_failed_record_before_shorter_record() throws Exception {
+        final EventJournal journal = new EventJournal(folder.getRoot(), new FailingEventSerializer(),
+                EventJournal.MIN_SEGMENT_SIZE);
+
+        journal.append(new MyEvent(1), EventJournal.NO_SUBSCRIBER_TYPES);
+
+        try {
+            journal.append(new MyEvent(-1), EventJournal.NO_SUBSCRIBER_TYPES);
+            fail("Expected exception");
+        } catch (EventJournalException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+
+        journal.append(new MyEvent(2), EventJournal.NO_SUBSCRIBER_TYPES);
+        journal.close();
+
+        assertEquals(Arrays.asList(1, 2), readValues(new FailingEventSerializer()));
+    }
+
+    @Test(expected = IOException.class)
+    public void next_should_throw_if_record_length_exceeds_segment() throws Exception {
+        final EventJournal journal = new EventJournal(folder.getRoot(), new PaddedEventSerializer(0),
+                EventJournal.MIN_SEGMENT_SIZE);
+        journal.append(new MyEvent(1), EventJournal.NO_SUBSCRIBER_TYPES);
+        journal.close();
+
+        final File segment = EventJournal.listSegments(folder.getRoot())[0];
+
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.writeInt(EventJournal.MIN_SEGMENT_SIZE);
+        }
+
+        new JournalReader(folder.getRoot(), new PaddedEventSerializer(0)).next();
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // HELPERS
+    //----------------------------------------------------------------------------------------------
+
+    private List<Integer> readValues(final EventSerializer serializer) throws IOException {
+        final List<Integer> values = new ArrayList<>();
+        final JournalReader reader = new JournalReader(folder.getRoot(), serializer);
+        JournalRecord record;
+
+        while ((record = reader.next()) != null) {
+            values.add(((MyEvent) record.event).value);
+        }
+
+        reader.close();
+
+        return values;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // FIXTURES
+    //----------------------------------------------------------------------------------------------
+
+    static class MyEvent implements Serializable {
+        final int value;
+
+        MyEvent(int value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Writes the value of a {@link MyEvent} followed by `padding` bytes.
+     */
+    static class PaddedEventSerializer implements EventSerializer {
+        final int padding;
+
+        PaddedEventSerializer(int padding) {
+            this.padding = padding;
+        }
+
+        @Override
+        public void serialize(Object event, ByteBuffer buffer) {
+            buffer.putInt(((MyEvent) event).value);
+            buffer.put(new byte[padding]);
+        }
+
+        @Override
+        public Object deserialize(ByteBuffer buffer) {
+            return new MyEvent(buffer.getInt());
+        }
+    }
+
+    /**
+     * Writes the value of a {@link MyEvent}, or fails after writing 200 non-zero bytes if the value
+     * is negative.
+     */
+    static class FailingEventSerializer implements EventSerializer {
+        @Override
+        public void serialize(Object event, ByteBuffer buffer) throws IOException {
+            if (((MyEvent) event).value < 0) {
+                final byte[] garbage = new byte[200];
+                Arrays.fill(garbage, (byte) 0x7f);
+                buffer.put(garbage);
+
+                throw new IOException("Can not serialize " + event);
+            }
+
+            buffer.putInt(((MyEvent) event).value);
+        }
+
+        @Override
+        public Object deserialize(ByteBuffer buffer) {
+            return new MyEvent(buffer.getInt());
+        }
+    }
+
+}
@@ -0,0 +1,289 @@
+package com.cookingfox.eventbus.journal;
+
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import com.cookingfox.eventbus.testable.TestableEventBusException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link EventReplayer} and `TestableEventBus.exportPostedEvents()`.
+ */
+public class EventReplayerTest {
+
+    private static final String DEFAULT_METHOD_NAME = "onEvent";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TestableEventBus eventBus;
+
+    //----------------------------------------------------------------------------------------------
+    // SETUP
+    //----------------------------------------------------------------------------------------------
+
+    @Before
+    public void setUp() throws Exception {
+        eventBus = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME);
+        eventBus.addMethodName(DEFAULT_METHOD_NAME);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: constructor
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_should_throw_if_event_bus_null() throws Exception {
+        new EventReplayer(null);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: replay
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void replay_should_post_journal_events_in_order() throws Exception {
+        final EventJournal journal = createJournal();
+
+        for (int i = 1; i <= 100; i++) {
+            journal.append(new MyEvent(i), EventJournal.NO_SUBSCRIBER_TYPES);
+        }
+
+        journal.close();
+
+        final MyListener listener = new MyListener();
+        eventBus.register(listener);
+
+        final ReplayStatistics statistics = new EventReplayer(eventBus)
+                .replay(new JournalReader(folder.getRoot(), new SerializableEventSerializer()));
+
+        assertEquals(100, statistics.eventCount);
+        assertEquals(0, statistics.failedCount);
+        assertEquals(0, statistics.maxLagNanos);
+        assertEquals(100, listener.values.size());
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i + 1, (int) listener.values.get(i));
+        }
+    }
+
+    @Test
+    public void replay_should_wait_for_recorded_intervals() throws Exception {
+        eventBus.register(new MyListener());
+
+        final ReplayStatistics statistics = new EventReplayer(eventBus)
+                .setTiming(EventReplayer.TIMING.ORIGINAL)
+                .replay(createSource(0, 100));
+
+        assertEquals(2, statistics.eventCount);
+        assertTrue(statistics.elapsedNanos >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void replay_should_divide_recorded_intervals_by_speed() throws Exception {
+        eventBus.register(new MyListener());
+
+        final ReplayStatistics statistics = new EventReplayer(eventBus)
+                .setTiming(EventReplayer.TIMING.ORIGINAL)
+                .setSpeed(4)
+                .replay(createSource(0, 200, 400));
+
+        assertEquals(3, statistics.eventCount);
+        assertTrue(statistics.elapsedNanos >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(statistics.elapsedNanos < TimeUnit.MILLISECONDS.toNanos(400));
+    }
+
+    @Test
+    public void replay_should_use_millis_for_records_of_different_sessions() throws Exception {
+        eventBus.register(new MyListener());
+
+        final List<JournalRecord> records = new ArrayList<>();
+        records.add(createRecord(1, 0, TimeUnit.HOURS.toNanos(1)));
+        records.add(createRecord(2, 50, 0));
+
+        final ReplayStatistics statistics = new EventReplayer(eventBus)
+                .setTiming(EventReplayer.TIMING.ORIGINAL)
+                .replay(new ListSource(records));
+
+        assertEquals(2, statistics.eventCount);
+        assertTrue(statistics.elapsedNanos >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(statistics.elapsedNanos < TimeUnit.MINUTES.toNanos(1));
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void replay_should_stop_on_failure_by_default() throws Exception {
+        new EventReplayer(eventBus).replay(createSource(0, 0));
+    }
+
+    @Test
+    public void replay_should_count_failures_if_continue_on_failure() throws Exception {
+        final List<JournalRecord> records = new ArrayList<>();
+        records.add(createRecord(1, 0, 0));
+        records.add(new JournalRecord("unknown", String.class.getName(),
+                Collections.<String>emptyList(), 0, 0));
+        records.add(createRecord(3, 0, 0));
+
+        final MyListener listener = new MyListener();
+        eventBus.register(listener);
+
+        final ReplayStatistics statistics = new EventReplayer(eventBus)
+                .setContinueOnFailure(true)
+                .replay(new ListSource(records));
+
+        assertEquals(3, statistics.eventCount);
+        assertEquals(1, statistics.failedCount);
+        assertEquals(Arrays.asList(1, 3), listener.values);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void replay_should_throw_if_source_null() throws Exception {
+        new EventReplayer(eventBus).replay(null);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: setSpeed
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setSpeed_should_throw_if_zero() throws Exception {
+        new EventReplayer(eventBus).setSpeed(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setSpeed_should_throw_if_not_a_number() throws Exception {
+        new EventReplayer(eventBus).setSpeed(Double.NaN);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: TestableEventBus.exportPostedEvents
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void exportPostedEvents_should_append_one_record_per_event() throws Exception {
+        eventBus.register(new MyListener());
+        eventBus.register(new MyOtherListener());
+        eventBus.post(new MyEvent(1));
+        eventBus.post(new MyEvent(2));
+
+        final EventJournal journal = createJournal();
+
+        assertEquals(2, eventBus.exportPostedEvents(journal));
+        journal.close();
+
+        final JournalReader reader = new JournalReader(folder.getRoot(), new SerializableEventSerializer());
+        final List<String> subscriberTypes = Arrays.asList(MyListener.class.getName(), MyOtherListener.class.getName());
+
+        for (int i = 1; i <= 2; i++) {
+            final JournalRecord record = reader.next();
+
+            assertEquals(i, ((MyEvent) record.event).value);
+            assertEquals(subscriberTypes, record.subscriberTypes);
+        }
+
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void exportPostedEvents_should_be_replayable() throws Exception {
+        eventBus.register(new MyListener());
+        eventBus.post(new MyEvent(1));
+        eventBus.post(new MyEvent(2));
+
+        final EventJournal journal = createJournal();
+        eventBus.exportPostedEvents(journal);
+        journal.close();
+
+        final TestableEventBus target = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME);
+        final MyListener listener = new MyListener();
+        target.addMethodName(DEFAULT_METHOD_NAME);
+        target.register(listener);
+
+        new EventReplayer(target).replay(new JournalReader(folder.getRoot(), new SerializableEventSerializer()));
+
+        assertEquals(Arrays.asList(1, 2), listener.values);
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void exportPostedEvents_should_throw_if_journal_null() throws Exception {
+        eventBus.exportPostedEvents(null);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // HELPERS
+    //----------------------------------------------------------------------------------------------
+
+    private EventJournal createJournal() throws Exception {
+        return new EventJournal(folder.getRoot(), new SerializableEventSerializer(), EventJournal.MIN_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates a source of {@link MyEvent} records at the offsets, in milliseconds.
+     */
+    private static RecordSource createSource(long... offsetsMillis) {
+        final List<JournalRecord> records = new ArrayList<>();
+
+        for (int i = 0; i < offsetsMillis.length; i++) {
+            records.add(createRecord(i + 1, offsetsMillis[i], TimeUnit.MILLISECONDS.toNanos(offsetsMillis[i])));
+        }
+
+        return new ListSource(records);
+    }
+
+    private static JournalRecord createRecord(int value, long timestampMillis, long timestampNanos) {
+        return new JournalRecord(new MyEvent(value), MyEvent.class.getName(),
+                Collections.<String>emptyList(), timestampMillis, timestampNanos);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // FIXTURES
+    //----------------------------------------------------------------------------------------------
+
+    static class ListSource implements RecordSource {
+        final Iterator<JournalRecord> records;
+
+        ListSource(List<JournalRecord> records) {
+            this.records = records.iterator();
+        }
+
+        @Override
+        public JournalRecord next() {
+            return records.hasNext() ? records.next() : null;
+        }
+    }
+
+    static class MyEvent implements Serializable {
+        final int value;
+
+        MyEvent(int value) {
+            this.value = value;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class MyListener {
+        final List<Integer> values = new ArrayList<>();
+
+        public void onEvent(MyEvent event) {
+            values.add(event.value);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class MyOtherListener {
+        public void onEvent(MyEvent event) {
+            // no-op
+        }
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.cookingfox.eventbus.journal;
+
+import com.cookingfox.eventbus.testable.TestableEventBus;
+import com.cookingfox.eventbus.testable.TestableEventBusException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link JournalingEventBus} and `TestableEventBus.setEventJournal()`.
+ */
+public class JournalingEventBusTest {
+
+    private static final String DEFAULT_METHOD_NAME = "onEvent";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private EventJournal journal;
+    private TestableEventBus testableEventBus;
+
+    //----------------------------------------------------------------------------------------------
+    // SETUP & TEARDOWN
+    //----------------------------------------------------------------------------------------------
+
+    @Before
+    public void setUp() throws Exception {
+        journal = new EventJournal(folder.getRoot(), new SerializableEventSerializer(), EventJournal.MIN_SEGMENT_SIZE);
+        testableEventBus = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME);
+        testableEventBus.addMethodName(DEFAULT_METHOD_NAME);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        journal.close();
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: constructor
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_should_throw_if_journal_null() throws Exception {
+        new JournalingEventBus(testableEventBus, null);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: post
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void post_should_append_event_and_post_it() throws Exception {
+        final JournalingEventBus eventBus = new JournalingEventBus(testableEventBus, journal);
+        final MyEvent event = new MyEvent(1);
+
+        eventBus.register(new MyListener());
+        eventBus.post(event);
+
+        final List<JournalRecord> records = readRecords();
+
+        assertEquals(1, records.size());
+        assertEquals(1, ((MyEvent) records.get(0).event).value);
+        assertTrue(records.get(0).subscriberTypes.isEmpty());
+        assertSame(event, testableEventBus.getLastPostedEvent().event);
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void post_should_pass_null_to_wrapped_event_bus() throws Exception {
+        new JournalingEventBus(testableEventBus, journal).post(null);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: postAll
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void postAll_should_append_events_of_single_use_iterable() throws Exception {
+        final JournalingEventBus eventBus = new JournalingEventBus(testableEventBus, journal);
+        final Iterator<MyEvent> events = Arrays.asList(new MyEvent(1), new MyEvent(2)).iterator();
+
+        eventBus.register(new MyListener());
+        eventBus.postAll(new Iterable<MyEvent>() {
+            @Override
+            public Iterator<MyEvent> iterator() {
+                return events;
+            }
+        });
+
+        assertEquals(2, readRecords().size());
+        assertEquals(2, testableEventBus.countPostedEvents());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: TestableEventBus.setEventJournal
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void setEventJournal_should_append_events_with_subscriber_types() throws Exception {
+        testableEventBus.setEventJournal(journal);
+        testableEventBus.register(new MyListener());
+        testableEventBus.register(new MyListener());
+        testableEventBus.register(new MyOtherListener());
+        testableEventBus.post(new MyEvent(1));
+        testableEventBus.postAll(Arrays.asList(new MyEvent(2)));
+        testableEventBus.postSticky(new MyEvent(3));
+        testableEventBus.setEventJournal(null);
+        testableEventBus.post(new MyEvent(4));
+
+        final List<JournalRecord> records = readRecords();
+        final List<String> subscriberTypes = Arrays.asList(MyListener.class.getName(), MyOtherListener.class.getName());
+
+        assertEquals(3, records.size());
+
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i + 1, ((MyEvent) records.get(i).event).value);
+            assertEquals(subscriberTypes, records.get(i).subscriberTypes);
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // HELPERS
+    //----------------------------------------------------------------------------------------------
+
+    private List<JournalRecord> readRecords() throws IOException {
+        final List<JournalRecord> records = new ArrayList<>();
+        final JournalReader reader = new JournalReader(folder.getRoot(), new SerializableEventSerializer());
+        JournalRecord record;
+
+        while ((record = reader.next()) != null) {
+            records.add(record);
+        }
+
+        reader.close();
+
+        return records;
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // FIXTURES
+    //----------------------------------------------------------------------------------------------
+
+    static class MyEvent implements Serializable {
+        final int value;
+
+        MyEvent(int value) {
+            this.value = value;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class MyListener {
+        public void onEvent(MyEvent event) {
+            // no-op
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class MyOtherListener {
+        public void onEvent(MyEvent event) {
+            // no-op
+        }
+    }
+
+}
@@ -0,0 +1,192 @@
+package com.cookingfox.eventbus.testable;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link SubscriberInvoker}.
+ */
+public class SubscriberInvokerTest {
+
+    private static final String DEFAULT_EXCEPTION_MESSAGE = "Example exception message";
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: factory
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void factory_should_prefer_method_handle_invoker() throws Exception {
+        final MyListener listener = new MyListener();
+
+        SubscriberInvoker result = SubscriberInvoker.factory(getOnEvent(MyListener.class)).create(listener);
+
+        assertTrue(result instanceof SubscriberInvoker.MethodHandleInvoker);
+    }
+
+    @Test
+    public void factory_should_bind_created_invokers_to_subscriber() throws Exception {
+        final SubscriberInvoker.Factory factory = SubscriberInvoker.factory(getOnEvent(MyListener.class));
+        final MyListener first = new MyListener();
+        final MyListener second = new MyListener();
+        final MyEvent event = new MyEvent();
+
+        factory.create(first);
+        factory.create(second).invoke(event);
+
+        assertNull(first.received.get());
+        assertSame(event, second.received.get());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: invoke (method handle)
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void methodHandle_invoke_should_pass_event_to_subscriber() throws Exception {
+        final MyListener listener = new MyListener();
+        final MyEvent event = new MyEvent();
+
+        new SubscriberInvoker.MethodHandleInvoker(listener, getOnEvent(MyListener.class)).invoke(event);
+
+        assertSame(event, listener.received.get());
+    }
+
+    @Test
+    public void methodHandle_invoke_should_support_static_method() throws Exception {
+        final MyEvent event = new MyEvent();
+
+        new SubscriberInvoker.MethodHandleInvoker(null, getOnEvent(StaticListener.class)).invoke(event);
+
+        assertSame(event, StaticListener.RECEIVED.get());
+    }
+
+    @Test
+    public void methodHandle_invoke_should_wrap_subscriber_exception() throws Exception {
+        final SubscriberInvoker invoker = new SubscriberInvoker.MethodHandleInvoker(new ThrowingListener(),
+                getOnEvent(ThrowingListener.class));
+
+        assertWrapsSubscriberException(invoker);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: invoke (reflection)
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void reflection_invoke_should_pass_event_to_subscriber() throws Exception {
+        final MyListener listener = new MyListener();
+        final MyEvent event = new MyEvent();
+
+        new SubscriberInvoker.ReflectionInvoker(listener, getOnEvent(MyListener.class)).invoke(event);
+
+        assertSame(event, listener.received.get());
+    }
+
+    @Test
+    public void reflection_invoke_should_wrap_subscriber_exception() throws Exception {
+        final SubscriberInvoker invoker = new SubscriberInvoker.ReflectionInvoker(new ThrowingListener(),
+                getOnEvent(ThrowingListener.class));
+
+        assertWrapsSubscriberException(invoker);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: invoke (weak)
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void weak_invoke_should_pass_event_to_referent() throws Exception {
+        final MyListener listener = new MyListener();
+        final MyEvent event = new MyEvent();
+
+        SubscriberInvoker.factory(getOnEvent(MyListener.class))
+                .createWeak(new WeakReference<>(listener)).invoke(event);
+
+        assertSame(event, listener.received.get());
+    }
+
+    @Test
+    public void weak_invoke_should_support_static_method() throws Exception {
+        final MyEvent event = new MyEvent();
+        final StaticListener listener = new StaticListener();
+
+        SubscriberInvoker.factory(getOnEvent(StaticListener.class))
+                .createWeak(new WeakReference<>(listener)).invoke(event);
+
+        assertSame(event, StaticListener.RECEIVED.get());
+    }
+
+    @Test
+    public void weak_invoke_should_skip_cleared_reference() throws Exception {
+        final WeakReference<MyListener> reference = new WeakReference<>(new MyListener());
+
+        reference.clear();
+
+        // would throw if the method was invoked without a subscriber
+        SubscriberInvoker.factory(getOnEvent(MyListener.class)).createWeak(reference).invoke(new MyEvent());
+    }
+
+    @Test
+    public void weak_invoke_should_wrap_subscriber_exception() throws Exception {
+        final ThrowingListener listener = new ThrowingListener();
+        final SubscriberInvoker invoker = SubscriberInvoker.factory(getOnEvent(ThrowingListener.class))
+                .createWeak(new WeakReference<>(listener));
+
+        assertWrapsSubscriberException(invoker);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // HELPERS
+    //----------------------------------------------------------------------------------------------
+
+    private static void assertWrapsSubscriberException(SubscriberInvoker invoker) {
+        try {
+            invoker.invoke(new MyEvent());
+            fail("Expected exception");
+        } catch (Exception e) {
+            assertTrue(e instanceof InvocationTargetException);
+            assertSame(DEFAULT_EXCEPTION_MESSAGE, e.getCause().getMessage());
+        }
+    }
+
+    private static Method getOnEvent(Class<?> listenerClass) throws NoSuchMethodException {
+        return listenerClass.getDeclaredMethod("onEvent", MyEvent.class);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // FIXTURES
+    //----------------------------------------------------------------------------------------------
+
+    static class MyEvent {
+
+    }
+
+    static class MyListener {
+        final AtomicReference<MyEvent> received = new AtomicReference<>();
+
+        public void onEvent(MyEvent event) {
+            received.set(event);
+        }
+    }
+
+    static class StaticListener {
+        static final AtomicReference<MyEvent> RECEIVED = new AtomicReference<>();
+
+        public static void onEvent(MyEvent event) {
+            RECEIVED.set(event);
+        }
+    }
+
+    static class ThrowingListener {
+        public void onEvent(MyEvent event) throws Exception {
+            throw new Exception(DEFAULT_EXCEPTION_MESSAGE);
+        }
+    }
+
+}
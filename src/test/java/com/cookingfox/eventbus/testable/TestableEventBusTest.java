@@ -4,15 +4,22 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.lang.annotation.*;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
 
 /**
  * Unit tests for {@link TestableEventBus}.
@@ -70,6 +77,61 @@ public class TestableEventBusTest {
         eventBus.addAnnotations(new ArrayList<Class<? extends Annotation>>());
     }
 
+    //----------------------------------------------------------------------------------------------
+    // TESTS: addIndex
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = TestableEventBusException.class)
+    public void addIndex_should_throw_if_null() throws Exception {
+        eventBus.addIndex(null);
+    }
+
+    @Test
+    public void addIndex_should_invoke_indexed_methods() throws Exception {
+        final CountingListenerIndex index = new CountingListenerIndex();
+        final CountingListener listener = new CountingListener();
+
+        eventBus.addIndex(index);
+        eventBus.register(listener);
+        eventBus.post(new MyEvent());
+
+        assertEquals(1, index.invocations.get());
+        assertEquals(1, listener.counter.get());
+    }
+
+    @Test
+    public void addIndex_should_fall_back_to_reflection_if_class_not_indexed() throws Exception {
+        final CountingListenerIndex index = new CountingListenerIndex();
+        final InterfaceListener listener = new InterfaceListener();
+
+        eventBus.addIndex(index);
+        eventBus.setEventInheritance(true);
+        eventBus.register(listener);
+        eventBus.post(new MySubEvent());
+
+        assertEquals(0, index.invocations.get());
+        assertEquals(1, listener.counter.get());
+    }
+
+    @Test
+    public void addIndex_should_pass_exception_of_indexed_method_to_handler() throws Exception {
+        final AtomicReference<Exception> handled = new AtomicReference<>();
+
+        eventBus.addIndex(new ThrowingListenerIndex());
+        eventBus.setSubscriberUncaughtExceptionHandler(new SubscriberUncaughtExceptionHandler() {
+            @Override
+            public void handle(Exception e) {
+                handled.set(e);
+            }
+        });
+
+        eventBus.register(new ThrowingListener());
+        eventBus.post(new MyEvent());
+
+        assertTrue(handled.get() instanceof InvocationTargetException);
+        assertEquals(DEFAULT_EXCEPTION_MESSAGE, handled.get().getCause().getMessage());
+    }
+
     //----------------------------------------------------------------------------------------------
     // TESTS: addMethodNames
     //----------------------------------------------------------------------------------------------
@@ -95,6 +157,86 @@ public class TestableEventBusTest {
         eventBus.addMethodNames(new String[]{});
     }
 
+    //----------------------------------------------------------------------------------------------
+    // TESTS: cancelEventDelivery
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void cancelEventDelivery_should_stop_delivery_to_lower_priorities() throws Exception {
+        final List<String> received = new ArrayList<>();
+        final RecordingListener cancelling = new RecordingListener("high", received);
+        cancelling.cancel = eventBus;
+
+        eventBus.register(new RecordingListener("low", received), -1);
+        eventBus.register(cancelling, 1);
+        eventBus.register(new RecordingListener("default", received));
+        eventBus.post(new MyEvent());
+
+        assertEquals(Arrays.asList("high"), received);
+    }
+
+    @Test
+    public void cancelEventDelivery_should_only_cancel_current_event() throws Exception {
+        final List<String> received = new ArrayList<>();
+        final RecordingListener cancelling = new RecordingListener("first", received);
+        cancelling.cancel = eventBus;
+
+        eventBus.register(cancelling);
+        eventBus.register(new RecordingListener("second", received));
+        eventBus.post(new MyEvent());
+        cancelling.cancel = null;
+        eventBus.post(new MyEvent());
+
+        assertEquals(Arrays.asList("first", "first", "second"), received);
+    }
+
+    @Test
+    public void cancelEventDelivery_should_not_cancel_outer_event_from_nested_post() throws Exception {
+        final List<String> received = new ArrayList<>();
+        final AtomicInteger otherEvents = new AtomicInteger(0);
+
+        eventBus.register(new Object() {
+            public void onEvent(MyEvent event) {
+                received.add("poster");
+                eventBus.post(new MyOtherEvent());
+            }
+        }, 1);
+        eventBus.register(new Object() {
+            public void onEvent(MyOtherEvent event) {
+                otherEvents.incrementAndGet();
+                eventBus.cancelEventDelivery(event);
+            }
+        });
+        eventBus.register(new RecordingListener("low", received));
+        eventBus.post(new MyEvent());
+
+        assertEquals(1, otherEvents.get());
+        assertEquals(Arrays.asList("poster", "low"), received);
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void cancelEventDelivery_should_throw_if_not_delivering() throws Exception {
+        eventBus.cancelEventDelivery(new MyEvent());
+    }
+
+    @Test
+    public void cancelEventDelivery_should_throw_for_other_event() throws Exception {
+        final AtomicReference<Exception> exception = new AtomicReference<>();
+
+        eventBus.register(new Object() {
+            public void onEvent(MyEvent event) {
+                try {
+                    eventBus.cancelEventDelivery(new MyEvent());
+                } catch (TestableEventBusException e) {
+                    exception.set(e);
+                }
+            }
+        });
+        eventBus.post(new MyEvent());
+
+        assertNotNull(exception.get());
+    }
+
     //----------------------------------------------------------------------------------------------
     // TESTS: clearPostedEvents
     //----------------------------------------------------------------------------------------------
@@ -162,6 +304,32 @@ public class TestableEventBusTest {
         assertEquals(2, result);
     }
 
+    @Test
+    public void countPostedEvents_withType_should_include_subtypes() throws Exception {
+        eventBus.setEventInheritance(true);
+        eventBus.register(new MultipleListeners());
+        eventBus.post(new MyEvent());
+        eventBus.post(new MySubEvent());
+        eventBus.post(new MyOtherEvent());
+
+        assertEquals(2, eventBus.countPostedEvents(MyEvent.class));
+        assertEquals(1, eventBus.countPostedEvents(MyEventInterface.class));
+        assertEquals(0, eventBus.countPostedEvents(MyListener.class));
+    }
+
+    @Test
+    public void countPostedEvents_withType_should_include_subtypes_posted_after_query() throws Exception {
+        eventBus.setEventInheritance(true);
+        eventBus.register(new MultipleListeners());
+        eventBus.post(new MyEvent());
+
+        assertEquals(1, eventBus.countPostedEvents(MyEvent.class));
+
+        eventBus.post(new MySubEvent());
+
+        assertEquals(2, eventBus.countPostedEvents(MyEvent.class));
+    }
+
     //----------------------------------------------------------------------------------------------
     // TESTS: getFirstPostedEvent (no type)
     //----------------------------------------------------------------------------------------------
@@ -333,6 +501,29 @@ public class TestableEventBusTest {
         assertEquals(2, result.size());
     }
 
+    @Test
+    public void getPostedEvents_withType_should_return_subtypes_in_posting_order() throws Exception {
+        final MySubEvent first = new MySubEvent();
+        final MyEvent second = new MyEvent();
+        final MySubEvent third = new MySubEvent();
+
+        eventBus.setEventInheritance(true);
+        eventBus.register(new MultipleListeners());
+        eventBus.post(first);
+        eventBus.post(new MyOtherEvent());
+        eventBus.post(second);
+        eventBus.post(third);
+
+        final List<PostedEvent<MyEvent>> result = new ArrayList<>(eventBus.getPostedEvents(MyEvent.class));
+
+        assertEquals(3, result.size());
+        assertSame(first, result.get(0).event);
+        assertSame(second, result.get(1).event);
+        assertSame(third, result.get(2).event);
+        assertSame(first, eventBus.getFirstPostedEvent(MyEvent.class).event);
+        assertSame(third, eventBus.getLastPostedEvent(MyEvent.class).event);
+    }
+
     //----------------------------------------------------------------------------------------------
     // TESTS: hasPostedEvents (no type)
     //----------------------------------------------------------------------------------------------
@@ -469,188 +660,1017 @@ public class TestableEventBusTest {
         assertEquals(2, counter.get());
     }
 
-    //----------------------------------------------------------------------------------------------
-    // TESTS: register (method name mode)
-    //----------------------------------------------------------------------------------------------
-
     @Test(expected = TestableEventBusException.class)
-    public void register_methodName_should_throw_if_subject_null() throws Exception {
-        eventBus.register(null);
+    public void post_should_not_pass_event_to_supertype_listeners_by_default() throws Exception {
+        eventBus.register(new MyEventListener());
+        eventBus.post(new MySubEvent());
     }
 
-    @Test(expected = TestableEventBusException.class)
-    public void register_methodName_should_throw_if_no_added_method_names() throws Exception {
-        eventBus = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME);
+    @Test
+    public void post_should_not_allocate_without_recording() throws Exception {
+        final java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
 
-        eventBus.register(new MyEventListener());
-    }
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
 
-    @Test(expected = TestableEventBusException.class)
-    public void register_methodName_should_throw_if_no_event_methods() throws Exception {
-        eventBus.register(new NoEventMethods());
-    }
+        final com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        final long threadId = Thread.currentThread().getId();
+        final MyEvent event = new MyEvent();
 
-    @Test(expected = TestableEventBusException.class)
-    public void register_methodName_should_throw_if_listener_method_has_multiple_parameters() throws Exception {
-        eventBus.register(new MultipleParamListener() {
-            @Override
-            public void onEvent(MyEvent event, String otherParam) {
-                // no-op
-            }
-        });
-    }
+        eventBus.setPostedEventsRetention(TestableEventBus.RETENTION.NONE);
+        eventBus.register(new CountingListener());
+        eventBus.register(new MyEventListener());
 
-    @Test(expected = TestableEventBusException.class)
-    public void register_methodName_should_throw_if_listener_not_public() throws Exception {
-        eventBus.register(new PrivateEventListener());
-    }
+        // warm up: compile the post path and initialize the thread-local state
+        for (int i = 0; i < 100000; i++) {
+            eventBus.post(event);
+        }
 
-    @Test(expected = TestableEventBusException.class)
-    public void register_methodName_should_throw_if_listener_method_has_java_package_event_type() throws Exception {
-        eventBus.register(new JavaPackageEventType() {
-            @Override
-            public void onEvent(Collection event) {
-                // no-op
-            }
-        });
-    }
+        final long before = allocations.getThreadAllocatedBytes(threadId);
 
-    @Test(expected = TestableEventBusException.class)
-    public void register_methodName_should_throw_if_already_registered() throws Exception {
-        final MyListener listener = new MyEventListener();
+        for (int i = 0; i < 100000; i++) {
+            eventBus.post(event);
+        }
 
-        eventBus.register(listener);
-        eventBus.register(listener);
+        final long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+
+        // a posted event record alone would take millions of bytes
+        assertTrue("Allocated " + allocated + " bytes", allocated < 100000);
     }
 
     //----------------------------------------------------------------------------------------------
-    // TESTS: register (annotation mode)
+    // TESTS: post (event inheritance)
     //----------------------------------------------------------------------------------------------
 
-    @Test(expected = TestableEventBusException.class)
-    public void register_annotation_should_throw_if_subject_null() throws Exception {
-        eventBus = createDefaultAnnotationInstance();
-
-        eventBus.register(null);
-    }
+    @Test
+    public void post_eventInheritance_should_pass_event_to_superclass_and_interface_listeners() throws Exception {
+        final CountingListener classListener = new CountingListener();
+        final InterfaceListener interfaceListener = new InterfaceListener();
 
-    @Test(expected = TestableEventBusException.class)
-    public void register_annotation_should_throw_if_no_added_annotations() throws Exception {
-        eventBus = new TestableEventBus(TestableEventBus.MODE.ANNOTATION);
+        eventBus.setEventInheritance(true);
+        eventBus.register(classListener);
+        eventBus.register(interfaceListener);
+        eventBus.post(new MySubEvent());
 
-        eventBus.register(new MyEventListener());
+        assertEquals(1, classListener.counter.get());
+        assertEquals(1, interfaceListener.counter.get());
+        assertEquals(2, eventBus.countPostedEvents(MySubEvent.class));
     }
 
-    @Test(expected = TestableEventBusException.class)
-    public void register_annotation_should_throw_if_no_listener_annotations() throws Exception {
-        eventBus = createDefaultAnnotationInstance();
-
-        eventBus.register(new MyListener() {
-            @Override
-            public void onEvent(MyEvent event) {
-                // no-op
-            }
-        });
-    }
+    @Test
+    public void post_eventInheritance_should_not_pass_event_to_subtype_listeners() throws Exception {
+        final CountingListener classListener = new CountingListener();
+        final InterfaceListener interfaceListener = new InterfaceListener();
 
-    @Test(expected = TestableEventBusException.class)
-    public void register_annotation_should_throw_if_listener_method_has_multiple_parameters() throws Exception {
-        eventBus = createDefaultAnnotationInstance();
+        eventBus.setEventInheritance(true);
+        eventBus.register(classListener);
+        eventBus.register(interfaceListener);
+        eventBus.post(new MyEvent());
 
-        eventBus.register(new MultipleParamListener() {
-            @DefaultAnnotation
-            @Override
-            public void onEvent(MyEvent event, String otherParam) {
-                // no-op
-            }
-        });
+        assertEquals(1, classListener.counter.get());
+        assertEquals(0, interfaceListener.counter.get());
     }
 
-    @Test(expected = TestableEventBusException.class)
-    public void register_annotation_should_throw_if_listener_not_public() throws Exception {
-        eventBus = createDefaultAnnotationInstance();
+    @Test
+    public void post_eventInheritance_should_apply_to_previously_posted_event_types() throws Exception {
+        final CountingListener classListener = new CountingListener();
+
+        eventBus.setEventInheritance(true);
+        eventBus.register(classListener);
+        eventBus.post(new MySubEvent());
+        eventBus.setEventInheritance(false);
+
+        try {
+            eventBus.post(new MySubEvent());
+            fail("Expected exception");
+        } catch (TestableEventBusException e) {
+            // expected
+        }
 
-        eventBus.register(new PrivateEventListener() {
-            @DefaultAnnotation
-            @Override
-            protected void onEvent(MyEvent event) {
-                super.onEvent(event);
-            }
-        });
+        assertEquals(1, classListener.counter.get());
     }
 
-    @Test(expected = TestableEventBusException.class)
-    public void register_annotation_should_throw_if_listener_method_has_java_package_event_type() throws Exception {
-        eventBus = createDefaultAnnotationInstance();
-
-        eventBus.register(new JavaPackageEventType() {
-            @DefaultAnnotation
-            @Override
-            public void onEvent(Collection event) {
-                // no-op
-            }
-        });
-    }
+    @Test
+    public void post_eventInheritance_copyOnWrite_should_pass_event_to_supertype_listeners() throws Exception {
+        eventBus = createCopyOnWriteInstance();
 
-    @Test(expected = TestableEventBusException.class)
-    public void register_annotation_should_throw_if_already_registered() throws Exception {
-        eventBus = createDefaultAnnotationInstance();
+        final CountingListener classListener = new CountingListener();
 
-        final MyListener listener = new MyEventListener();
+        eventBus.setEventInheritance(true);
+        eventBus.register(classListener);
+        eventBus.post(new MySubEvent());
 
-        eventBus.register(listener);
-        eventBus.register(listener);
+        assertEquals(1, classListener.counter.get());
     }
 
     //----------------------------------------------------------------------------------------------
-    // TESTS: setSubscriberUncaughtExceptionHandler
+    // TESTS: post (copy-on-write concurrency)
     //----------------------------------------------------------------------------------------------
 
-    @Test(expected = TestableEventBusException.class)
-    public void setSubscriberUncaughtExceptionHandler_should_throw_if_null() throws Exception {
-        eventBus.setSubscriberUncaughtExceptionHandler(null);
-    }
+    @Test
+    public void post_copyOnWrite_should_call_listeners_registered_after_previous_post() throws Exception {
+        eventBus = createCopyOnWriteInstance();
 
-    @Test(expected = TestableEventBusException.class)
-    public void setSubscriberUncaughtExceptionHandler_should_throw_if_already_set() throws Exception {
-        final SubscriberUncaughtExceptionHandler handler = new SubscriberUncaughtExceptionHandler() {
-            @Override
-            public void handle(Exception e) {
-                // no-op
-            }
-        };
+        final CountingListener first = new CountingListener();
+        final CountingListener second = new CountingListener();
 
-        eventBus.setSubscriberUncaughtExceptionHandler(handler);
-        eventBus.setSubscriberUncaughtExceptionHandler(handler);
+        eventBus.register(first);
+        eventBus.post(new MyEvent());
+        eventBus.register(second);
+        eventBus.post(new MyEvent());
+
+        assertEquals(2, first.counter.get());
+        assertEquals(1, second.counter.get());
     }
 
     @Test
-    public void setSubscriberUncaughtExceptionHandler_should_handle_uncaught_exception() throws Exception {
-        final AtomicReference<Exception> subscriberException = new AtomicReference<>();
+    public void post_copyOnWrite_should_not_call_unregistered_listeners() throws Exception {
+        eventBus = createCopyOnWriteInstance();
 
-        eventBus.setSubscriberUncaughtExceptionHandler(new SubscriberUncaughtExceptionHandler() {
-            @Override
-            public void handle(Exception e) {
-                subscriberException.set(e);
-            }
-        });
+        final CountingListener first = new CountingListener();
+        final CountingListener second = new CountingListener();
 
-        eventBus.register(new ThrowingListener());
+        eventBus.register(first);
+        eventBus.register(second);
+        eventBus.post(new MyEvent());
+        eventBus.unregister(first);
         eventBus.post(new MyEvent());
 
-        final Exception actualException = subscriberException.get();
-
-        assertNotNull(actualException);
-        assertTrue(actualException instanceof InvocationTargetException);
-        assertSame(DEFAULT_EXCEPTION_MESSAGE, actualException.getCause().getMessage());
+        assertEquals(1, first.counter.get());
+        assertEquals(2, second.counter.get());
     }
 
-    //----------------------------------------------------------------------------------------------
-    // TESTS: unregister
-    //----------------------------------------------------------------------------------------------
+    @Test
+    public void post_copyOnWrite_should_support_concurrent_posting() throws Exception {
+        eventBus = createCopyOnWriteInstance();
 
-    @Test(expected = TestableEventBusException.class)
-    public void unregister_should_throw_if_not_registered() throws Exception {
+        final int threadCount = 4;
+        final int postsPerThread = 1000;
+        final CountingListener listener = new CountingListener();
+        final Thread[] threads = new Thread[threadCount];
+
+        eventBus.register(listener);
+
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < postsPerThread; j++) {
+                        eventBus.post(new MyEvent());
+                    }
+                }
+            });
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(threadCount * postsPerThread, listener.counter.get());
+        assertEquals(threadCount * postsPerThread, eventBus.countPostedEvents());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: post (striped concurrency)
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void post_striped_should_call_listeners_registered_after_previous_post() throws Exception {
+        eventBus = createStripedInstance();
+
+        final CountingListener first = new CountingListener();
+        final CountingListener second = new CountingListener();
+
+        eventBus.register(first);
+        eventBus.post(new MyEvent());
+        eventBus.register(second);
+        eventBus.post(new MyEvent());
+        eventBus.unregister(first);
+        eventBus.post(new MyEvent());
+
+        assertEquals(2, first.counter.get());
+        assertEquals(2, second.counter.get());
+    }
+
+    @Test
+    public void post_striped_should_deliver_same_event_class_one_at_a_time() throws Exception {
+        eventBus = createStripedInstance();
+
+        final int threadCount = 4;
+        final int postsPerThread = 1000;
+        final ConcurrencyListener listener = new ConcurrencyListener();
+        final Thread[] threads = new Thread[threadCount];
+
+        eventBus.register(listener);
+
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < postsPerThread; j++) {
+                        eventBus.post(new MyEvent());
+                    }
+                }
+            });
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertFalse(listener.concurrent);
+        assertEquals(threadCount * postsPerThread, listener.counter.get());
+        assertEquals(threadCount * postsPerThread, eventBus.countPostedEvents());
+    }
+
+    @Test
+    public void post_striped_should_not_block_registering_while_delivering() throws Exception {
+        eventBus = createStripedInstance();
+
+        final CountDownLatch delivering = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        eventBus.register(new Object() {
+            @SuppressWarnings("unused")
+            public void onEvent(MyEvent event) throws InterruptedException {
+                delivering.countDown();
+                release.await();
+            }
+        });
+
+        final Thread poster = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                eventBus.post(new MyEvent());
+            }
+        });
+        poster.start();
+
+        try {
+            assertTrue(delivering.await(10, TimeUnit.SECONDS));
+
+            final MultipleListeners listener = new MultipleListeners();
+
+            // would wait for the delivery with synchronized posting
+            eventBus.register(listener);
+            eventBus.unregister(listener);
+        } finally {
+            release.countDown();
+            poster.join();
+        }
+    }
+
+    @Test
+    public void post_striped_should_deliver_events_posted_by_subscriber_after_current_event() throws Exception {
+        eventBus = createStripedInstance();
+
+        final List<String> received = new ArrayList<>();
+
+        eventBus.register(new Object() {
+            @SuppressWarnings("unused")
+            public void onEvent(MyEvent event) {
+                received.add("start");
+                eventBus.post(new MyOtherEvent());
+                received.add("end");
+            }
+
+            @SuppressWarnings("unused")
+            public void onEvent(MyOtherEvent event) {
+                received.add("other");
+            }
+        });
+        eventBus.post(new MyEvent());
+
+        assertEquals(Arrays.asList("start", "end", "other"), received);
+    }
+
+    @Test
+    public void register_striped_should_deliver_sticky_event() throws Exception {
+        eventBus = createStripedInstance();
+
+        final CountingListener listener = new CountingListener();
+
+        eventBus.postSticky(new MyEvent());
+        eventBus.register(listener);
+
+        assertEquals(1, listener.counter.get());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: postAll
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = TestableEventBusException.class)
+    public void postAll_should_throw_if_null() throws Exception {
+        eventBus.postAll(null);
+    }
+
+    @Test
+    public void postAll_should_deliver_in_iteration_order() throws Exception {
+        final MyEvent first = new MyEvent();
+        final MyOtherEvent second = new MyOtherEvent();
+        final MyEvent third = new MyEvent();
+
+        eventBus.register(new MultipleListeners());
+        eventBus.postAll(Arrays.asList(first, second, third));
+
+        List<PostedEvent> result = new ArrayList<>(eventBus.getPostedEvents());
+
+        assertEquals(3, result.size());
+        assertSame(first, result.get(0).event);
+        assertSame(second, result.get(1).event);
+        assertSame(third, result.get(2).event);
+    }
+
+    @Test
+    public void postAll_should_accept_iterable() throws Exception {
+        final CountingListener listener = new CountingListener();
+        final List<MyEvent> events = Arrays.asList(new MyEvent(), new MyEvent());
+
+        eventBus.register(listener);
+        eventBus.postAll(new Iterable<MyEvent>() {
+            @Override
+            public Iterator<MyEvent> iterator() {
+                return events.iterator();
+            }
+        });
+
+        assertEquals(2, listener.counter.get());
+    }
+
+    @Test
+    public void postAll_should_not_post_any_event_if_one_has_no_listeners() throws Exception {
+        final CountingListener listener = new CountingListener();
+
+        eventBus.register(listener);
+
+        try {
+            eventBus.postAll(Arrays.asList(new MyEvent(), new MyOtherEvent()));
+            fail("Expected exception");
+        } catch (TestableEventBusException e) {
+            // expected
+        }
+
+        assertEquals(0, listener.counter.get());
+        assertEquals(0, eventBus.countPostedEvents());
+    }
+
+    @Test
+    public void postAll_should_not_post_any_event_if_one_is_null() throws Exception {
+        final CountingListener listener = new CountingListener();
+
+        eventBus.register(listener);
+
+        try {
+            eventBus.postAll(Arrays.asList(new MyEvent(), null));
+            fail("Expected exception");
+        } catch (TestableEventBusException e) {
+            // expected
+        }
+
+        assertEquals(0, listener.counter.get());
+    }
+
+    @Test
+    public void postAll_copyOnWrite_should_deliver_all_events() throws Exception {
+        final CountingListener listener = new CountingListener();
+
+        eventBus = createCopyOnWriteInstance();
+        eventBus.register(listener);
+        eventBus.postAll(Arrays.asList(new MyEvent(), new MyEvent(), new MyEvent()));
+
+        assertEquals(3, listener.counter.get());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: postSticky & getStickyEvent & removeStickyEvent
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = TestableEventBusException.class)
+    public void postSticky_should_throw_if_event_null() throws Exception {
+        eventBus.postSticky(null);
+    }
+
+    @Test
+    public void postSticky_should_not_throw_if_no_listeners() throws Exception {
+        final MyEvent event = new MyEvent();
+
+        eventBus.postSticky(event);
+
+        assertSame(event, eventBus.getStickyEvent(MyEvent.class));
+        assertFalse(eventBus.hasPostedEvents());
+    }
+
+    @Test
+    public void postSticky_should_post_to_registered_listeners() throws Exception {
+        final CountingListener listener = new CountingListener();
+
+        eventBus.register(listener);
+        eventBus.postSticky(new MyEvent());
+
+        assertEquals(1, listener.counter.get());
+    }
+
+    @Test
+    public void postSticky_should_replace_previous_sticky_event_of_class() throws Exception {
+        final MyEvent second = new MyEvent();
+
+        eventBus.postSticky(new MyEvent());
+        eventBus.postSticky(second);
+
+        assertSame(second, eventBus.getStickyEvent(MyEvent.class));
+    }
+
+    @Test
+    public void register_should_deliver_sticky_events() throws Exception {
+        final MyEvent event = new MyEvent();
+        final CountingListener listener = new CountingListener();
+
+        eventBus.postSticky(new MyOtherEvent());
+        eventBus.postSticky(event);
+        eventBus.register(listener);
+
+        assertEquals(1, listener.counter.get());
+        assertSame(event, eventBus.getLastPostedEvent().getEvent());
+    }
+
+    @Test
+    public void register_should_deliver_sticky_subtype_events_with_inheritance() throws Exception {
+        final InterfaceListener listener = new InterfaceListener();
+
+        eventBus.setEventInheritance(true);
+        eventBus.postSticky(new MySubEvent());
+        eventBus.register(listener);
+
+        assertEquals(1, listener.counter.get());
+    }
+
+    @Test
+    public void register_should_not_deliver_sticky_subtype_events_without_inheritance() throws Exception {
+        final CountingListener listener = new CountingListener();
+
+        eventBus.postSticky(new MySubEvent());
+        eventBus.register(listener);
+
+        assertEquals(0, listener.counter.get());
+    }
+
+    @Test
+    public void getStickyEvent_should_return_latest_subtype_event() throws Exception {
+        final MySubEvent subEvent = new MySubEvent();
+
+        eventBus.postSticky(subEvent);
+
+        assertSame(subEvent, eventBus.getStickyEvent(MyEvent.class));
+        assertSame(subEvent, eventBus.getStickyEvent(MyEventInterface.class));
+        assertNull(eventBus.getStickyEvent(MyOtherEvent.class));
+    }
+
+    @Test
+    public void getStickyEvent_should_prefer_exact_type() throws Exception {
+        final MyEvent event = new MyEvent();
+
+        eventBus.postSticky(event);
+        eventBus.postSticky(new MySubEvent());
+
+        assertSame(event, eventBus.getStickyEvent(MyEvent.class));
+    }
+
+    @Test
+    public void removeStickyEvent_should_remove_exact_type() throws Exception {
+        final MyEvent event = new MyEvent();
+        final CountingListener listener = new CountingListener();
+
+        eventBus.postSticky(event);
+
+        assertSame(event, eventBus.removeStickyEvent(MyEvent.class));
+        assertNull(eventBus.removeStickyEvent(MyEvent.class));
+
+        eventBus.register(listener);
+
+        assertEquals(0, listener.counter.get());
+    }
+
+    @Test
+    public void removeAllStickyEvents_should_remove_all() throws Exception {
+        eventBus.postSticky(new MyEvent());
+        eventBus.postSticky(new MyOtherEvent());
+        eventBus.removeAllStickyEvents();
+
+        assertNull(eventBus.getStickyEvent(Object.class));
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: register (method name mode)
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = TestableEventBusException.class)
+    public void register_methodName_should_throw_if_subject_null() throws Exception {
+        eventBus.register(null);
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void register_methodName_should_throw_if_no_added_method_names() throws Exception {
+        eventBus = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME);
+
+        eventBus.register(new MyEventListener());
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void register_methodName_should_throw_if_no_event_methods() throws Exception {
+        eventBus.register(new NoEventMethods());
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void register_methodName_should_throw_if_listener_method_has_multiple_parameters() throws Exception {
+        eventBus.register(new MultipleParamListener() {
+            @Override
+            public void onEvent(MyEvent event, String otherParam) {
+                // no-op
+            }
+        });
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void register_methodName_should_throw_if_listener_not_public() throws Exception {
+        eventBus.register(new PrivateEventListener());
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void register_methodName_should_throw_if_listener_method_has_java_package_event_type() throws Exception {
+        eventBus.register(new JavaPackageEventType() {
+            @Override
+            public void onEvent(Collection event) {
+                // no-op
+            }
+        });
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void register_methodName_should_throw_if_already_registered() throws Exception {
+        final MyListener listener = new MyEventListener();
+
+        eventBus.register(listener);
+        eventBus.register(listener);
+    }
+
+    @Test
+    public void register_methodName_should_support_multiple_instances_of_same_class() throws Exception {
+        final CountingListener first = new CountingListener();
+        final CountingListener second = new CountingListener();
+
+        eventBus.register(first);
+        eventBus.register(second);
+        eventBus.post(new MyEvent());
+
+        assertEquals(1, first.counter.get());
+        assertEquals(1, second.counter.get());
+    }
+
+    @Test
+    public void register_methodName_should_use_method_names_added_after_previous_registration() throws Exception {
+        eventBus.register(new CountingListener());
+        eventBus.addMethodName("onOtherEvent");
+
+        final CountingListener listener = new CountingListener();
+
+        eventBus.register(listener);
+        eventBus.post(new MyOtherEvent());
+
+        assertEquals(1, listener.counter.get());
+    }
+
+    @Test
+    public void register_methodName_should_throw_again_for_invalid_class() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            try {
+                eventBus.register(new PrivateEventListener());
+                fail("Expected exception");
+            } catch (TestableEventBusException e) {
+                // expected
+            }
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: register (annotation mode)
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = TestableEventBusException.class)
+    public void register_annotation_should_throw_if_subject_null() throws Exception {
+        eventBus = createDefaultAnnotationInstance();
+
+        eventBus.register(null);
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void register_annotation_should_throw_if_no_added_annotations() throws Exception {
+        eventBus = new TestableEventBus(TestableEventBus.MODE.ANNOTATION);
+
+        eventBus.register(new MyEventListener());
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void register_annotation_should_throw_if_no_listener_annotations() throws Exception {
+        eventBus = createDefaultAnnotationInstance();
+
+        eventBus.register(new MyListener() {
+            @Override
+            public void onEvent(MyEvent event) {
+                // no-op
+            }
+        });
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void register_annotation_should_throw_if_listener_method_has_multiple_parameters() throws Exception {
+        eventBus = createDefaultAnnotationInstance();
+
+        eventBus.register(new MultipleParamListener() {
+            @DefaultAnnotation
+            @Override
+            public void onEvent(MyEvent event, String otherParam) {
+                // no-op
+            }
+        });
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void register_annotation_should_throw_if_listener_not_public() throws Exception {
+        eventBus = createDefaultAnnotationInstance();
+
+        eventBus.register(new PrivateEventListener() {
+            @DefaultAnnotation
+            @Override
+            protected void onEvent(MyEvent event) {
+                super.onEvent(event);
+            }
+        });
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void register_annotation_should_throw_if_listener_method_has_java_package_event_type() throws Exception {
+        eventBus = createDefaultAnnotationInstance();
+
+        eventBus.register(new JavaPackageEventType() {
+            @DefaultAnnotation
+            @Override
+            public void onEvent(Collection event) {
+                // no-op
+            }
+        });
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void register_annotation_should_throw_if_already_registered() throws Exception {
+        eventBus = createDefaultAnnotationInstance();
+
+        final MyListener listener = new MyEventListener();
+
+        eventBus.register(listener);
+        eventBus.register(listener);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: register (priority)
+    //----------------------------------------------------------------------------------------------
+
+    @Test
+    public void register_priority_should_deliver_to_higher_priorities_first() throws Exception {
+        final List<String> received = new ArrayList<>();
+
+        eventBus.register(new RecordingListener("default", received));
+        eventBus.register(new RecordingListener("low", received), -5);
+        eventBus.register(new RecordingListener("high", received), 10);
+        eventBus.post(new MyEvent());
+
+        assertEquals(Arrays.asList("high", "default", "low"), received);
+    }
+
+    @Test
+    public void register_priority_should_keep_registration_order_within_priority() throws Exception {
+        final List<String> received = new ArrayList<>();
+
+        eventBus.register(new RecordingListener("first", received), 1);
+        eventBus.register(new RecordingListener("second", received), 1);
+        eventBus.register(new RecordingListener("third", received), 1);
+        eventBus.post(new MyEvent());
+
+        assertEquals(Arrays.asList("first", "second", "third"), received);
+    }
+
+    @Test
+    public void register_priority_should_order_listeners_of_supertypes() throws Exception {
+        final List<String> received = new ArrayList<>();
+
+        eventBus.setEventInheritance(true);
+        eventBus.register(new RecordingListener("event", received));
+        eventBus.register(new Object() {
+            public void onEvent(MyEventInterface event) {
+                received.add("interface");
+            }
+        }, 1);
+        eventBus.post(new MySubEvent());
+
+        assertEquals(Arrays.asList("interface", "event"), received);
+    }
+
+    @Test
+    public void register_priority_should_use_declared_annotation_priority() throws Exception {
+        final List<String> received = new ArrayList<>();
+
+        eventBus = new TestableEventBus(TestableEventBus.MODE.ANNOTATION);
+        eventBus.addAnnotation(PriorityAnnotation.class);
+        eventBus.register(new Object() {
+            @PriorityAnnotation
+            public void onEvent(MyEvent event) {
+                received.add("default");
+            }
+        }, 5);
+        eventBus.register(new Object() {
+            @PriorityAnnotation(priority = 10)
+            public void onEvent(MyEvent event) {
+                received.add("annotated");
+            }
+        }, -10);
+        eventBus.post(new MyEvent());
+
+        assertEquals(Arrays.asList("annotated", "default"), received);
+    }
+
+    @Test
+    public void register_priority_should_order_sticky_events() throws Exception {
+        final List<String> received = new ArrayList<>();
+
+        eventBus.postSticky(new MyEvent());
+        eventBus.register(new RecordingListener("first", received));
+        eventBus.register(new RecordingListener("second", received), 1);
+        eventBus.post(new MyEvent());
+
+        assertEquals(Arrays.asList("first", "second", "second", "first"), received);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: setSubscriberUncaughtExceptionHandler
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = TestableEventBusException.class)
+    public void setSubscriberUncaughtExceptionHandler_should_throw_if_null() throws Exception {
+        eventBus.setSubscriberUncaughtExceptionHandler(null);
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void setSubscriberUncaughtExceptionHandler_should_throw_if_already_set() throws Exception {
+        final SubscriberUncaughtExceptionHandler handler = new SubscriberUncaughtExceptionHandler() {
+            @Override
+            public void handle(Exception e) {
+                // no-op
+            }
+        };
+
+        eventBus.setSubscriberUncaughtExceptionHandler(handler);
+        eventBus.setSubscriberUncaughtExceptionHandler(handler);
+    }
+
+    @Test
+    public void setSubscriberUncaughtExceptionHandler_should_handle_uncaught_exception() throws Exception {
+        final AtomicReference<Exception> subscriberException = new AtomicReference<>();
+
+        eventBus.setSubscriberUncaughtExceptionHandler(new SubscriberUncaughtExceptionHandler() {
+            @Override
+            public void handle(Exception e) {
+                subscriberException.set(e);
+            }
+        });
+
+        eventBus.register(new ThrowingListener());
+        eventBus.post(new MyEvent());
+
+        final Exception actualException = subscriberException.get();
+
+        assertNotNull(actualException);
+        assertTrue(actualException instanceof InvocationTargetException);
+        assertSame(DEFAULT_EXCEPTION_MESSAGE, actualException.getCause().getMessage());
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: setPostedEventsRetention
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = TestableEventBusException.class)
+    public void setPostedEventsRetention_should_throw_if_null() throws Exception {
+        eventBus.setPostedEventsRetention(null);
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void setPostedEventsRetention_should_throw_if_bounded_without_capacity() throws Exception {
+        eventBus.setPostedEventsRetention(TestableEventBus.RETENTION.LAST);
+    }
+
+    @Test
+    public void setPostedEventsRetention_last_should_retain_last_events() throws Exception {
+        final MyEvent second = new MyEvent();
+        final MyEvent third = new MyEvent();
+
+        eventBus.setPostedEventsRetention(TestableEventBus.RETENTION.LAST, 2);
+        eventBus.register(new MyEventListener());
+        eventBus.post(new MyEvent());
+        eventBus.post(second);
+        eventBus.post(third);
+
+        assertEquals(2, eventBus.countPostedEvents());
+        assertSame(second, eventBus.getFirstPostedEvent().event);
+        assertSame(third, eventBus.getLastPostedEvent().event);
+    }
+
+    @Test
+    public void setPostedEventsRetention_last_should_evict_events_from_typed_queries() throws Exception {
+        final MyOtherEvent other = new MyOtherEvent();
+
+        eventBus.setPostedEventsRetention(TestableEventBus.RETENTION.LAST, 2);
+        eventBus.register(new MultipleListeners());
+        eventBus.post(new MyEvent());
+        eventBus.post(other);
+        eventBus.post(new MyOtherEvent());
+
+        assertFalse(eventBus.hasPostedEvents(MyEvent.class));
+        assertEquals(2, eventBus.countPostedEvents(MyOtherEvent.class));
+        assertSame(other, eventBus.getFirstPostedEvent(MyOtherEvent.class).event);
+    }
+
+    @Test
+    public void setPostedEventsRetention_lastPerType_should_retain_last_events_per_type() throws Exception {
+        final MyEvent myEvent = new MyEvent();
+        final MyOtherEvent firstOther = new MyOtherEvent();
+        final MyOtherEvent secondOther = new MyOtherEvent();
+
+        eventBus.setPostedEventsRetention(TestableEventBus.RETENTION.LAST_PER_TYPE, 1);
+        eventBus.register(new MultipleListeners());
+        eventBus.post(firstOther);
+        eventBus.post(new MyEvent());
+        eventBus.post(secondOther);
+        eventBus.post(myEvent);
+
+        final List<PostedEvent> result = new ArrayList<>(eventBus.getPostedEvents());
+
+        assertEquals(2, result.size());
+        assertSame(secondOther, result.get(0).event);
+        assertSame(myEvent, result.get(1).event);
+        assertSame(secondOther, eventBus.getFirstPostedEvent().event);
+        assertSame(myEvent, eventBus.getLastPostedEvent().event);
+    }
+
+    @Test
+    public void setPostedEventsRetention_none_should_not_log_events() throws Exception {
+        final CountingListener listener = new CountingListener();
+
+        eventBus.setPostedEventsRetention(TestableEventBus.RETENTION.NONE);
+        eventBus.register(listener);
+        eventBus.post(new MyEvent());
+
+        assertEquals(1, listener.counter.get());
+        assertFalse(eventBus.hasPostedEvents());
+        assertNull(eventBus.getLastPostedEvent());
+    }
+
+    @Test
+    public void setPostedEventsRetention_should_keep_events_retained_by_new_policy() throws Exception {
+        final MyEvent last = new MyEvent();
+
+        eventBus.register(new MyEventListener());
+        eventBus.post(new MyEvent());
+        eventBus.post(last);
+        eventBus.setPostedEventsRetention(TestableEventBus.RETENTION.LAST, 1);
+
+        assertEquals(1, eventBus.countPostedEvents());
+        assertSame(last, eventBus.getFirstPostedEvent().event);
+    }
+
+    //----------------------------------------------------------------------------------------------
+    // TESTS: setWeakSubscribers
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = TestableEventBusException.class)
+    public void setWeakSubscribers_should_throw_if_subscribers_registered() throws Exception {
+        eventBus.register(new MyEventListener());
+        eventBus.setWeakSubscribers(true);
+    }
+
+    @Test
+    public void setWeakSubscribers_should_deliver_to_reachable_subscribers() throws Exception {
+        final CountingListener listener = new CountingListener();
+
+        eventBus.setWeakSubscribers(true);
+        eventBus.register(listener);
+        eventBus.post(new MyEvent());
+
+        assertEquals(1, listener.counter.get());
+        assertSame(listener, eventBus.getLastPostedEvent().subscriber);
+    }
+
+    @Test(expected = TestableEventBusException.class)
+    public void setWeakSubscribers_should_throw_if_already_registered() throws Exception {
+        final CountingListener listener = new CountingListener();
+
+        eventBus.setWeakSubscribers(true);
+        eventBus.register(listener);
+        eventBus.register(listener);
+    }
+
+    @Test
+    public void setWeakSubscribers_should_unregister_reachable_subscribers() throws Exception {
+        final CountingListener listener = new CountingListener();
+
+        eventBus.setWeakSubscribers(true);
+        eventBus.register(listener);
+        eventBus.register(new MyEventListener());
+        eventBus.unregister(listener);
+        eventBus.post(new MyEvent());
+
+        assertEquals(0, listener.counter.get());
+    }
+
+    @Test
+    public void setWeakSubscribers_should_skip_collected_subscribers() throws Exception {
+        final MyEventListener reachable = new MyEventListener();
+        final WeakReference<CountingListener> collected = new WeakReference<>(new CountingListener());
+
+        eventBus.setWeakSubscribers(true);
+        eventBus.register(collected.get());
+        eventBus.register(reachable);
+
+        awaitCollected(collected);
+
+        eventBus.post(new MyEvent());
+
+        assertEquals(1, eventBus.countPostedEvents());
+        assertSame(reachable, eventBus.getLastPostedEvent().subscriber);
+    }
+
+    @Test
+    public void setWeakSubscribers_should_purge_collected_subscribers_on_registry_change() throws Exception {
+        final List<Object> unregistered = new ArrayList<>();
+        final WeakReference<CountingListener> collected = new WeakReference<>(new CountingListener());
+
+        eventBus = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME) {
+            @Override
+            protected void onUnregistered(Object subscriberKey) {
+                unregistered.add(subscriberKey);
+            }
+        };
+        eventBus.addMethodName(DEFAULT_METHOD_NAME);
+        eventBus.setWeakSubscribers(true);
+        eventBus.register(collected.get());
+
+        awaitCollected(collected);
+
+        eventBus.register(new MultipleListeners());
+
+        assertEquals(1, unregistered.size());
+        assertNull(((WeakReference) unregistered.get(0)).get());
+    }
+
+    @Test
+    public void setWeakSubscribers_should_purge_collected_subscribers_on_post() throws Exception {
+        final List<Object> unregistered = new ArrayList<>();
+        final WeakReference<CountingListener> collected = new WeakReference<>(new CountingListener());
+
+        eventBus = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME) {
+            @Override
+            protected void onUnregistered(Object subscriberKey) {
+                unregistered.add(subscriberKey);
+            }
+        };
+        eventBus.addMethodName(DEFAULT_METHOD_NAME);
+        eventBus.setWeakSubscribers(true);
+        final MyEventListener reachable = new MyEventListener();
+
+        eventBus.register(collected.get());
+        eventBus.register(reachable);
+
+        awaitCollected(collected);
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        // the reference is enqueued shortly after the referent is collected
+        while (unregistered.isEmpty()) {
+            if (System.nanoTime() > deadline) {
+                fail("Collected subscriber was not purged");
+            }
+
+            eventBus.post(new MyEvent());
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, unregistered.size());
+        assertNotSame(reachable, unregistered.get(0));
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    @Test(expected = TestableEventBusException.class)
+    public void unregister_should_throw_if_not_registered() throws Exception {
         eventBus.unregister(null);
     }
 
@@ -705,6 +1725,81 @@ public class TestableEventBusTest {
         assertEquals(0, counter.get());
     }
 
+    @Test
+    public void unregister_should_allow_registering_again() throws Exception {
+        final CountingListener listener = new CountingListener();
+
+        eventBus.register(listener);
+        eventBus.unregister(listener);
+        eventBus.register(listener);
+        eventBus.post(new MyEvent());
+
+        assertEquals(1, listener.counter.get());
+    }
+
+    @Test
+    public void unregister_should_keep_other_subscribers_of_same_type() throws Exception {
+        final CountingListener first = new CountingListener();
+        final CountingListener second = new CountingListener();
+
+        eventBus.register(first);
+        eventBus.register(second);
+        eventBus.post(new MyEvent());
+        eventBus.unregister(first);
+        eventBus.post(new MyEvent());
+
+        assertEquals(1, first.counter.get());
+        assertEquals(2, second.counter.get());
+    }
+
+    @Test
+    public void unregister_copyOnWrite_should_keep_other_subscribers_of_same_type() throws Exception {
+        eventBus = createCopyOnWriteInstance();
+
+        final CountingListener first = new CountingListener();
+        final CountingListener second = new CountingListener();
+
+        eventBus.register(first);
+        eventBus.register(second);
+        eventBus.post(new MyEvent());
+        eventBus.unregister(first);
+        eventBus.post(new MyEvent());
+
+        assertEquals(1, first.counter.get());
+        assertEquals(2, second.counter.get());
+    }
+
+    @Test
+    public void unregister_copyOnWrite_should_not_throw_for_posted_type_without_listeners() throws Exception {
+        eventBus = createCopyOnWriteInstance();
+
+        final CountingListener listener = new CountingListener();
+
+        eventBus.register(listener);
+        eventBus.post(new MyEvent());
+        eventBus.unregister(listener);
+        eventBus.post(new MyEvent());
+
+        assertEquals(1, listener.counter.get());
+    }
+
+    @Test
+    public void unregister_should_update_dispatching_of_posted_subclasses() throws Exception {
+        final CountingListener first = new CountingListener();
+        final CountingListener second = new CountingListener();
+
+        eventBus.setEventInheritance(true);
+        eventBus.register(first);
+        eventBus.post(new MySubEvent());
+        eventBus.register(second);
+        eventBus.post(new MySubEvent());
+        eventBus.unregister(first);
+        eventBus.post(new MySubEvent());
+
+        assertEquals(2, first.counter.get());
+        assertEquals(2, second.counter.get());
+    }
+
     //----------------------------------------------------------------------------------------------
     // HELPERS
     //----------------------------------------------------------------------------------------------
@@ -716,6 +1811,22 @@ public class TestableEventBusTest {
         return instance;
     }
 
+    private TestableEventBus createCopyOnWriteInstance() {
+        final TestableEventBus instance = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME,
+                TestableEventBus.CONCURRENCY.COPY_ON_WRITE);
+        instance.addMethodName(DEFAULT_METHOD_NAME);
+
+        return instance;
+    }
+
+    private TestableEventBus createStripedInstance() {
+        final TestableEventBus instance = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME,
+                TestableEventBus.CONCURRENCY.STRIPED);
+        instance.addMethodName(DEFAULT_METHOD_NAME);
+
+        return instance;
+    }
+
     private TestableEventBus createDefaultMethodNameInstance() {
         final TestableEventBus instance = new TestableEventBus(TestableEventBus.MODE.METHOD_NAME);
         instance.addMethodName(DEFAULT_METHOD_NAME);
@@ -723,6 +1834,22 @@ public class TestableEventBusTest {
         return instance;
     }
 
+    /**
+     * Runs the garbage collector until the referent is collected.
+     */
+    private static void awaitCollected(final WeakReference<?> reference) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while (reference.get() != null) {
+            if (System.nanoTime() > deadline) {
+                fail("Referent was not garbage collected");
+            }
+
+            System.gc();
+            Thread.sleep(10);
+        }
+    }
+
     //----------------------------------------------------------------------------------------------
     // FIXTURES
     //----------------------------------------------------------------------------------------------
@@ -765,6 +1892,44 @@ public class TestableEventBusTest {
         }
     }
 
+    @SuppressWarnings("unused")
+    static class CountingListener {
+        final AtomicInteger counter = new AtomicInteger(0);
+
+        public void onEvent(MyEvent event) {
+            counter.incrementAndGet();
+        }
+
+        public void onOtherEvent(MyOtherEvent event) {
+            counter.incrementAndGet();
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class ConcurrencyListener {
+        final AtomicInteger active = new AtomicInteger(0);
+        volatile boolean concurrent = false;
+        final AtomicInteger counter = new AtomicInteger(0);
+
+        public void onEvent(MyEvent event) {
+            if (active.incrementAndGet() > 1) {
+                concurrent = true;
+            }
+
+            counter.incrementAndGet();
+            active.decrementAndGet();
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class InterfaceListener {
+        final AtomicInteger counter = new AtomicInteger(0);
+
+        public void onEvent(MyEventInterface event) {
+            counter.incrementAndGet();
+        }
+    }
+
     static class MyEventListener implements MyListener {
         @DefaultAnnotation
         @Override
@@ -781,13 +1946,92 @@ public class TestableEventBusTest {
 
     }
 
+    interface MyEventInterface {
+
+    }
+
+    static class MySubEvent extends MyEvent implements MyEventInterface {
+
+    }
+
+    /**
+     * Records its name when it receives an event, and cancels the delivery if `cancel` is set.
+     */
+    @SuppressWarnings("unused")
+    static class RecordingListener {
+        volatile TestableEventBus cancel;
+        final String name;
+        final List<String> received;
+
+        RecordingListener(String name, List<String> received) {
+            this.name = name;
+            this.received = received;
+        }
+
+        public void onEvent(MyEvent event) {
+            received.add(name);
+
+            if (cancel != null) {
+                cancel.cancelEventDelivery(event);
+            }
+        }
+    }
+
     static class NoEventMethods {
 
     }
 
+    /**
+     * Index like the generated ones, which counts the invocations of its methods.
+     */
+    static class CountingListenerIndex implements SubscriberIndex {
+        final AtomicInteger invocations = new AtomicInteger(0);
+
+        @Override
+        public IndexedSubscriberMethod[] getSubscriberMethods(Class<?> subscriberClass) {
+            if (subscriberClass != CountingListener.class) {
+                return null;
+            }
+
+            return new IndexedSubscriberMethod[]{
+                    new IndexedSubscriberMethod(MyEvent.class, DEFAULT_METHOD_NAME) {
+                        @Override
+                        public void invoke(Object subscriber, Object event) {
+                            invocations.incrementAndGet();
+                            ((CountingListener) subscriber).onEvent((MyEvent) event);
+                        }
+                    }
+            };
+        }
+    }
+
+    static class ThrowingListenerIndex implements SubscriberIndex {
+        @Override
+        public IndexedSubscriberMethod[] getSubscriberMethods(Class<?> subscriberClass) {
+            if (subscriberClass != ThrowingListener.class) {
+                return null;
+            }
+
+            return new IndexedSubscriberMethod[]{
+                    new IndexedSubscriberMethod(MyEvent.class, DEFAULT_METHOD_NAME) {
+                        @Override
+                        public void invoke(Object subscriber, Object event) throws Exception {
+                            ((ThrowingListener) subscriber).onEvent((MyEvent) event);
+                        }
+                    }
+            };
+        }
+    }
+
     @Retention(RetentionPolicy.RUNTIME)
     @Target({ElementType.METHOD})
     public @interface DefaultAnnotation {
     }
 
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.METHOD})
+    public @interface PriorityAnnotation {
+        int priority() default 0;
+    }
+
 }